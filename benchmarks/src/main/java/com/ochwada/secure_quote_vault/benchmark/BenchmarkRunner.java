@@ -0,0 +1,65 @@
+package com.ochwada.secure_quote_vault.benchmark;
+
+
+import com.ochwada.secure_quote_vault.SecureQuoteVaultApplication;
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.benchmark
+ * File: BenchmarkRunner.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 12:10 PM
+ * Description: Entry point of {@code benchmarks.jar}.
+ * - Accepts the usual JMH command line (filters, -f, -wi, ...).
+ * - Always enables the GC profiler, so every result carries {@code gc.alloc.rate.norm} (bytes per operation).
+ * - Unless {@code -rff} is given, writes JSON to {@code jmh-results/jmh-<app version>.json} so runs from different
+ * releases can be compared with {@link ResultDiff}.
+ * *******************************************************
+ */
+
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        if (cli.shouldHelp() || cli.shouldList() || cli.shouldListWithParams()
+                || cli.shouldListProfilers() || cli.shouldListResultFormats()) {
+            Main.main(args);
+            return;
+        }
+
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(cli);
+        options.addProfiler(GCProfiler.class);
+
+        if (!cli.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!cli.getResult().hasValue()) {
+            Path resultDir = Path.of(System.getProperty("jmh.results.dir", "jmh-results"));
+            Files.createDirectories(resultDir);
+            options.result(resultDir.resolve("jmh-" + appVersion() + ".json").toString());
+        }
+
+        new Runner(options.build()).run();
+    }
+
+    /**
+     * Version of the application under test: {@code -Dapp.version}, else the jar manifest, else {@code dev}.
+     */
+    private static String appVersion() {
+        String version = System.getProperty("app.version");
+        if (version == null) {
+            version = SecureQuoteVaultApplication.class.getPackage().getImplementationVersion();
+        }
+        return version != null ? version : "dev";
+    }
+}
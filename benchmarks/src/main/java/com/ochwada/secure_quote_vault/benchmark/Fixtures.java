@@ -0,0 +1,113 @@
+package com.ochwada.secure_quote_vault.benchmark;
+
+
+import com.ochwada.secure_quote_vault.audit.AuditLog;
+import com.ochwada.secure_quote_vault.deadline.DeadlineGuard;
+import com.ochwada.secure_quote_vault.invalidation.InvalidationBus;
+import com.ochwada.secure_quote_vault.model.Role;
+import com.ochwada.secure_quote_vault.model.User;
+import com.ochwada.secure_quote_vault.repository.UserRepository;
+import com.ochwada.secure_quote_vault.security.JWTFilter;
+import com.ochwada.secure_quote_vault.security.JWTUtil;
+import com.ochwada.secure_quote_vault.security.SigningKeyStore;
+import com.ochwada.secure_quote_vault.security.TokenRevocationList;
+import com.ochwada.secure_quote_vault.service.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.benchmark
+ * File: Fixtures.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 11:30 AM
+ * Description: Builds the application components under test without a Spring context or MongoDB.
+ * - The {@link UserRepository} is an in-memory proxy, so user lookups cost nothing but the mapping itself.
+ * - Meters go to a {@link SimpleMeterRegistry}, matching the per-call recording cost in production.
+ * *******************************************************
+ */
+
+final class Fixtures {
+
+    static final String USERNAME = "bench-user";
+    static final String SECRET = "benchmark-secret-key-that-is-at-least-256-bits-long";
+
+    static final byte[] UPSTREAM_PAYLOAD = ("{\"id\":42,"
+            + "\"quoteString\":\"The only way to do great work is to love what you do.\","
+            + "\"author\":\"Steve Jobs\","
+            + "\"createdAt\":\"25-07-2025 11:32\"}").getBytes(StandardCharsets.UTF_8);
+
+    private Fixtures() {
+    }
+
+    static MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+    static JWTUtil jwtUtil(MeterRegistry meterRegistry) {
+        return jwtUtil(meterRegistry, "HS256");
+    }
+
+    /**
+     * @param algorithm {@code HS256} (shared secret) or {@code ES256} (one local P-256 key, no MongoDB)
+     */
+    static JWTUtil jwtUtil(MeterRegistry meterRegistry, String algorithm) {
+        SigningKeyStore keyStore = new SigningKeyStore(null, new InvalidationBus(null, meterRegistry));
+        keyStore.activateLocalKey();
+        JWTUtil jwtUtil = new JWTUtil(meterRegistry, keyStore);
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "signingAlgorithm", algorithm);
+        return jwtUtil;
+    }
+
+    static User user(int roleCount) {
+        Role[] roles = Role.values();
+        List<Role> assigned = List.of(roles).subList(0, Math.min(roleCount, roles.length));
+        return new User("id-1", USERNAME, "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z8Z5Ww6Zk7K9yq8l5F2h5FHe", assigned);
+    }
+
+    /**
+     * In-memory {@link UserRepository}: answers {@code findByUsername}/{@code existsByUsername} for one user and
+     * rejects everything else.
+     */
+    static UserRepository userRepository(User user) {
+        return (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByUsername" -> user.getUsername().equals(args[0]) ? Optional.of(user) : Optional.empty();
+                    case "existsByUsername" -> user.getUsername().equals(args[0]);
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryUserRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * The user details cache is off ({@code user-cache.ttl} is not injected), so every call measures the lookup.
+     * The bus is never started and no request deadline is bound (lookups go through the repository), so it needs no
+     * MongoDB.
+     */
+    static UserDetailsServiceImpl userDetailsService(User user, MeterRegistry meterRegistry) {
+        return new UserDetailsServiceImpl(userRepository(user), null, new DeadlineGuard(meterRegistry), meterRegistry,
+                new InvalidationBus(null, meterRegistry));
+    }
+
+    /**
+     * The revocation list is empty and never loaded, so it needs no MongoDB. The audit log is never started, so
+     * recording costs a single volatile read.
+     */
+    static JWTFilter jwtFilter(JWTUtil jwtUtil, UserDetailsServiceImpl userDetailsService) {
+        MeterRegistry meterRegistry = meterRegistry();
+        TokenRevocationList revocationList =
+                new TokenRevocationList(null, new InvalidationBus(null, meterRegistry), meterRegistry);
+        return new JWTFilter(jwtUtil, userDetailsService, revocationList, new AuditLog(meterRegistry, 2));
+    }
+}
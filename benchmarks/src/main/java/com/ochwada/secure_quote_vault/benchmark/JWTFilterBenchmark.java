@@ -0,0 +1,57 @@
+package com.ochwada.secure_quote_vault.benchmark;
+
+
+import com.ochwada.secure_quote_vault.security.JWTFilter;
+import com.ochwada.secure_quote_vault.security.JWTUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.benchmark
+ * File: JWTFilterBenchmark.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 11:45 AM
+ * Description: The full {@code JWTFilter.doFilterInternal} path for an authenticated request: header parsing, token
+ * verification, user lookup (in-memory stub), authority mapping and SecurityContext population.
+ * *******************************************************
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Thread)
+public class JWTFilterBenchmark {
+
+    private JWTFilter filter;
+    private String authorizationHeader;
+
+    @Setup
+    public void setUp() {
+        MeterRegistry meterRegistry = Fixtures.meterRegistry();
+        JWTUtil jwtUtil = Fixtures.jwtUtil(meterRegistry);
+        filter = Fixtures.jwtFilter(jwtUtil, Fixtures.userDetailsService(Fixtures.user(1), meterRegistry));
+        authorizationHeader = "Bearer " + jwtUtil.generateToken(Fixtures.USERNAME);
+    }
+
+    @Benchmark
+    public Object authenticatedRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/quotes/random");
+        request.addHeader("Authorization", authorizationHeader);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.ochwada.secure_quote_vault.benchmark;
+
+
+import com.ochwada.secure_quote_vault.security.JWTUtil;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.benchmark
+ * File: JWTUtilBenchmark.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 11:40 AM
+ * Description: Token generation and validation cost of {@link JWTUtil}.
+ * - {@code validate} mirrors what {@code JWTFilter} does per request: verify once, then check the claims.
+ * - Runs for the HS256 shared-secret path and the ES256 rotating-key path, to compare sign and verify cost.
+ * *******************************************************
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class JWTUtilBenchmark {
+
+    @Param({"HS256", "ES256"})
+    public String algorithm;
+
+    private JWTUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = Fixtures.jwtUtil(Fixtures.meterRegistry(), algorithm);
+        token = jwtUtil.generateToken(Fixtures.USERNAME);
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtUtil.generateToken(Fixtures.USERNAME);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean validate() {
+        Claims claims = jwtUtil.parseClaims(token);
+        return jwtUtil.isTokenValid(claims, claims.getSubject());
+    }
+}
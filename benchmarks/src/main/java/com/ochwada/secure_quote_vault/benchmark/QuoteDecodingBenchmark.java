@@ -0,0 +1,37 @@
+package com.ochwada.secure_quote_vault.benchmark;
+
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ochwada.secure_quote_vault.mapper.QuoteMapper;
+import com.ochwada.secure_quote_vault.model.Quote;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.benchmark
+ * File: QuoteDecodingBenchmark.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 11:50 AM
+ * Description: Decoding of the upstream quote payload into a {@link Quote}, as done by
+ * {@code QuoteService.fetchAndSaveQuote} between the HTTP call and the Mongo insert.
+ * *******************************************************
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class QuoteDecodingBenchmark {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Benchmark
+    public Quote decode() throws IOException {
+        return QuoteMapper.fromUpstream(Fixtures.UPSTREAM_PAYLOAD, mapper, Fixtures.USERNAME);
+    }
+}
@@ -0,0 +1,87 @@
+package com.ochwada.secure_quote_vault.benchmark;
+
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.benchmark
+ * File: ResultDiff.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 12:20 PM
+ * Description: Compares two JMH JSON result files (e.g. two releases) benchmark by benchmark.
+ * - Prints the primary score and the allocation per operation ({@code gc.alloc.rate.norm}) with the relative change.
+ * Usage: {@code java -cp benchmarks.jar com.ochwada.secure_quote_vault.benchmark.ResultDiff old.json new.json}
+ * *******************************************************
+ */
+
+public class ResultDiff {
+
+    private static final String ALLOC_METRIC = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: ResultDiff <baseline.json> <candidate.json>");
+            System.exit(2);
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = index(mapper.readTree(Path.of(args[0]).toFile()));
+        Map<String, JsonNode> candidate = index(mapper.readTree(Path.of(args[1]).toFile()));
+
+        System.out.printf("%-70s %14s %14s %9s %12s %12s %9s%n",
+                "Benchmark", "base", "new", "Δ%", "base B/op", "new B/op", "Δ%");
+        for (Map.Entry<String, JsonNode> entry : candidate.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            JsonNode after = entry.getValue();
+            double scoreAfter = after.path("primaryMetric").path("score").asDouble();
+            double allocAfter = after.path("secondaryMetrics").path(ALLOC_METRIC).path("score").asDouble(Double.NaN);
+            String unit = after.path("primaryMetric").path("scoreUnit").asText();
+            if (before == null) {
+                System.out.printf("%-70s %14s %14.3f %9s %12s %12.1f %9s  %s (new)%n",
+                        entry.getKey(), "-", scoreAfter, "-", "-", allocAfter, "-", unit);
+                continue;
+            }
+            double scoreBefore = before.path("primaryMetric").path("score").asDouble();
+            double allocBefore = before.path("secondaryMetrics").path(ALLOC_METRIC).path("score").asDouble(Double.NaN);
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%% %12.1f %12.1f %+8.1f%%  %s%n",
+                    entry.getKey(), scoreBefore, scoreAfter, change(scoreBefore, scoreAfter),
+                    allocBefore, allocAfter, change(allocBefore, allocAfter), unit);
+        }
+    }
+
+    /**
+     * Keys each result by benchmark name plus its parameters, e.g. {@code ...UserMapperBenchmark.toUser[encoder=noop]}.
+     */
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> byKey = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            JsonNode params = result.path("params");
+            if (params.isObject() && !params.isEmpty()) {
+                key.append('[');
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> param = fields.next();
+                    key.append(param.getKey()).append('=').append(param.getValue().asText());
+                    if (fields.hasNext()) {
+                        key.append(',');
+                    }
+                }
+                key.append(']');
+            }
+            byKey.put(key.toString(), result);
+        }
+        return byKey;
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? Double.NaN : (after - before) / before * 100.0;
+    }
+}
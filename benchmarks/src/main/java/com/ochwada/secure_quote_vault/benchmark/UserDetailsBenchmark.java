@@ -0,0 +1,46 @@
+package com.ochwada.secure_quote_vault.benchmark;
+
+
+import com.ochwada.secure_quote_vault.service.UserDetailsServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.benchmark
+ * File: UserDetailsBenchmark.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 11:55 AM
+ * Description: {@link UserDetailsServiceImpl#loadUserByUsername} against an in-memory repository, isolating the
+ * role-to-authority mapping and {@code SecurityUser} construction from MongoDB latency.
+ * *******************************************************
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class UserDetailsBenchmark {
+
+    /**
+     * Number of roles assigned to the user.
+     */
+    @Param({"1", "4"})
+    public int roles;
+
+    private UserDetailsServiceImpl service;
+
+    @Setup
+    public void setUp() {
+        service = Fixtures.userDetailsService(Fixtures.user(roles), Fixtures.meterRegistry());
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        return service.loadUserByUsername(Fixtures.USERNAME);
+    }
+}
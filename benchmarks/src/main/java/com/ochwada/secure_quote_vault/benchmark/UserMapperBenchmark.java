@@ -0,0 +1,54 @@
+package com.ochwada.secure_quote_vault.benchmark;
+
+
+import com.ochwada.secure_quote_vault.dto.SignupRequest;
+import com.ochwada.secure_quote_vault.mapper.UserMapper;
+import com.ochwada.secure_quote_vault.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.benchmark
+ * File: UserMapperBenchmark.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 12:00 PM
+ * Description: {@link UserMapper#toUser} with the production BCrypt encoder and with a no-op encoder, so the mapping
+ * overhead can be told apart from the hashing cost.
+ * *******************************************************
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class UserMapperBenchmark {
+
+    @Param({"noop", "bcrypt"})
+    public String encoder;
+
+    private PasswordEncoder passwordEncoder;
+    private SignupRequest request;
+
+    @Setup
+    @SuppressWarnings("deprecation")
+    public void setUp() {
+        passwordEncoder = "bcrypt".equals(encoder)
+                ? new BCryptPasswordEncoder()
+                : NoOpPasswordEncoder.getInstance();
+        request = new SignupRequest();
+        request.setUsername(Fixtures.USERNAME);
+        request.setPassword("Benchmark-Password?1");
+    }
+
+    @Benchmark
+    public User toUser() {
+        return UserMapper.toUser(request, passwordEncoder);
+    }
+}
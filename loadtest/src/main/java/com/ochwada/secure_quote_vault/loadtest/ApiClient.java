@@ -0,0 +1,108 @@
+package com.ochwada.secure_quote_vault.loadtest;
+
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.loadtest
+ * File: ApiClient.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 9:40 PM
+ * Description: Minimal blocking client for the endpoints the scenarios exercise. Every call is timed into the
+ * {@link Report} under its operation name, including failed ones (tagged by status).
+ * *******************************************************
+ */
+
+public class ApiClient {
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final String baseUrl;
+    private final Report report;
+
+    public ApiClient(String baseUrl, Report report) {
+        this.baseUrl = baseUrl;
+        this.report = report;
+    }
+
+    public boolean signup(String username, String password) {
+        return call("signup", post("/auth/signup", credentials(username, password))) == 200;
+    }
+
+    /**
+     * @return the access token, or {@code null} if sign-in failed
+     */
+    public String signin(String username, String password) {
+        HttpResponse<String> response = send("signin", post("/auth/signin", credentials(username, password)));
+        if (response == null || response.statusCode() != 200) {
+            return null;
+        }
+        try {
+            JsonNode body = mapper.readTree(response.body());
+            return body.path("token").asText(null);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public int randomQuote(String token) {
+        return call("quotes.random", authorized("/api/quotes/random", token));
+    }
+
+    public int listQuotes(String token) {
+        return call("quotes.list", authorized("/api/quotes", token));
+    }
+
+    private int call(String operation, HttpRequest request) {
+        HttpResponse<String> response = send(operation, request);
+        return response == null ? -1 : response.statusCode();
+    }
+
+    private HttpResponse<String> send(String operation, HttpRequest request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            report.record(operation, response.statusCode(), System.nanoTime() - start);
+            return response;
+        } catch (IOException e) {
+            report.record(operation, -1, System.nanoTime() - start);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private HttpRequest authorized(String path, String token) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    private String credentials(String username, String password) {
+        return mapper.createObjectNode().put("username", username).put("password", password).toString();
+    }
+}
@@ -0,0 +1,176 @@
+package com.ochwada.secure_quote_vault.loadtest;
+
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ochwada.secure_quote_vault.SecureQuoteVaultApplication;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.MongoVersion;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.loadtest
+ * File: LoadTest.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 10:00 PM
+ * Description: Entry point of {@code loadtest.jar}: runs the whole system offline in one JVM.
+ * - Starts the {@link StubQuoteServer}, an in-memory MongoDB ({@code mongo-java-server}, or a real {@code mongod}
+ * given with {@code --mongo-uri}) and the application on a random port.
+ * - Runs the selected scenarios (signup storm, sign-in storm, mixed traffic) and prints throughput and latency
+ * percentiles per operation; the same numbers go to {@code loadtest-results/<timestamp>.json}.
+ * - Per-user rate limiting is switched off so the harness measures capacity, not the limiter.
+ * - The audit log and quote snapshot are written to a temporary directory, removed after the run.
+ * *******************************************************
+ */
+
+public class LoadTest {
+
+    static final String PASSWORD = "LoadTest_Password1";
+
+    /**
+     * mongo-java-server advertises at most MongoDB 4.0 (wire version 7), which the 5.x Java driver refuses to talk to.
+     * The commands the application sends work unchanged when the stand-in advertises 4.2 (wire version 8).
+     */
+    static final MongoVersion IN_MEMORY_VERSION = new MongoVersion() {
+        @Override
+        public List<Integer> getVersionArray() {
+            return List.of(4, 2, 0);
+        }
+
+        @Override
+        public int getWireVersion() {
+            return 8;
+        }
+    };
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        writeResults(options, run(options));
+    }
+
+    /**
+     * Starts the stand-ins and the application, runs the selected scenarios and shuts everything down again.
+     *
+     * @return scenario name to {@link Report#summary()}
+     */
+    static Map<String, Object> run(Options options) throws Exception {
+        String runId = Long.toString(System.currentTimeMillis() % 1_000_000, 36);
+
+        MongoServer mongoServer = null;
+        String mongoUri = options.mongoUri();
+        if (mongoUri == null) {
+            mongoServer = new MongoServer(new MemoryBackend().version(IN_MEMORY_VERSION));
+            InetSocketAddress address = mongoServer.bind();
+            mongoUri = "mongodb://" + address.getHostString() + ":" + address.getPort();
+        }
+
+        Path workDir = Files.createTempDirectory("loadtest");
+        try (StubQuoteServer stub = new StubQuoteServer(options.stubLatencyMs(), options.stubJitterMs(),
+                options.stubErrorRate(), options.stubTimeoutRate(), 10_000)) {
+
+            ConfigurableApplicationContext app = SpringApplication.run(SecureQuoteVaultApplication.class,
+                    "--PORT=0",
+                    "--MONGODB_URI=" + mongoUri,
+                    "--MONGODB_DATABASE=loadtest",
+                    "--JWT_SECRET=loadtest-secret-key-that-is-at-least-256-bits-long",
+                    "--random.quote.url=" + stub.url(),
+                    "--VIRTUAL_THREADS_ENABLED=" + options.virtualThreads(),
+                    "--RATE_LIMIT_ENABLED=false",
+                    "--AUDIT_DIR=" + workDir.resolve("audit"),
+                    "--QUOTE_SNAPSHOT_PATH=" + workDir.resolve("quotes.snap"),
+                    // Capped collections / tailable cursors and explain are not available in the in-memory stand-in
+                    "--INVALIDATION_ENABLED=" + (options.mongoUri() != null),
+                    "--MONGO_EXPLAIN_SAMPLE_RATE=" + (options.mongoUri() != null ? "0.05" : "0"),
+                    // Slow requests and commands are expected under load; keep the tables readable
+                    "--logging.level.root=ERROR");
+            try {
+                int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+                String baseUrl = "http://127.0.0.1:" + port;
+
+                Map<String, Object> results = new LinkedHashMap<>();
+                for (Scenario scenario : selected(options.scenario(), runId)) {
+                    ApiClient setup = new ApiClient(baseUrl, new Report());
+                    scenario.prepare(setup, options);
+
+                    Report report = new Report();
+                    report.start();
+                    scenario.run(new ApiClient(baseUrl, report), options.concurrency(), options.duration());
+                    report.stop();
+
+                    System.out.print(report.table(scenario.name()));
+                    results.put(scenario.name(), report.summary());
+                }
+                System.out.printf("%nstub upstream calls: %d%n", stub.calls());
+                return results;
+            } finally {
+                app.close();
+            }
+        } finally {
+            if (mongoServer != null) {
+                mongoServer.shutdownNow();
+            }
+            deleteRecursively(workDir);
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static List<Scenario> selected(String scenario, String runId) {
+        return switch (scenario) {
+            case "signup" -> List.of(Scenario.signupStorm(runId));
+            case "signin" -> List.of(Scenario.signinStorm(runId));
+            case "mixed" -> List.of(Scenario.mixedTraffic(runId));
+            case "all" -> List.of(Scenario.signupStorm(runId), Scenario.signinStorm(runId),
+                    Scenario.mixedTraffic(runId));
+            default -> throw new IllegalArgumentException("Unknown scenario " + scenario);
+        };
+    }
+
+    /**
+     * Creates {@code count} accounts (unmeasured setup step).
+     */
+    static List<String> createUsers(ApiClient setup, String prefix, int count) {
+        List<String> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String username = prefix + "u" + i;
+            setup.signup(username, PASSWORD);
+            users.add(username);
+        }
+        return users;
+    }
+
+    private static void writeResults(Options options, Map<String, Object> results) throws Exception {
+        Path dir = Path.of(options.reportDir());
+        Files.createDirectories(dir);
+        Path file = dir.resolve(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("options", options);
+        document.put("scenarios", results);
+        new ObjectMapper().findAndRegisterModules().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), document);
+        System.out.println("results: " + file);
+    }
+}
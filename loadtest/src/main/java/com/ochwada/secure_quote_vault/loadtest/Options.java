@@ -0,0 +1,56 @@
+package com.ochwada.secure_quote_vault.loadtest;
+
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.loadtest
+ * File: Options.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 9:50 PM
+ * Description: Command-line options of the load test ({@code --name=value}); see the module README for the list.
+ * *******************************************************
+ */
+
+public record Options(
+        String scenario,
+        Duration duration,
+        int concurrency,
+        int users,
+        double randomShare,
+        long stubLatencyMs,
+        double stubJitterMs,
+        double stubErrorRate,
+        double stubTimeoutRate,
+        String mongoUri,
+        boolean virtualThreads,
+        String reportDir
+) {
+
+    public static Options parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+        }
+        return new Options(
+                values.getOrDefault("scenario", "all"),
+                Duration.parse("PT" + values.getOrDefault("duration", "30s").toUpperCase()),
+                Integer.parseInt(values.getOrDefault("concurrency", "64")),
+                Integer.parseInt(values.getOrDefault("users", "200")),
+                Double.parseDouble(values.getOrDefault("random-share", "0.8")),
+                Long.parseLong(values.getOrDefault("stub-latency-ms", "50")),
+                Double.parseDouble(values.getOrDefault("stub-jitter-ms", "20")),
+                Double.parseDouble(values.getOrDefault("stub-error-rate", "0.01")),
+                Double.parseDouble(values.getOrDefault("stub-timeout-rate", "0")),
+                values.get("mongo-uri"),
+                Boolean.parseBoolean(values.getOrDefault("virtual-threads", "true")),
+                values.getOrDefault("report-dir", "loadtest-results"));
+    }
+}
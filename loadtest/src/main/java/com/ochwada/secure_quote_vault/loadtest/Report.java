@@ -0,0 +1,104 @@
+package com.ochwada.secure_quote_vault.loadtest;
+
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.loadtest
+ * File: Report.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 9:45 PM
+ * Description: Per-operation latency (HdrHistogram, microsecond resolution up to 1 minute) and status counts for one
+ * scenario run, summarised as throughput and percentiles.
+ * - Workers are closed-loop (next request after the previous answer), so under saturation the percentiles understate
+ * what an open-loop client would see; compare runs at the same concurrency.
+ * *******************************************************
+ */
+
+public class Report {
+
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<String, Histogram> latencies = new ConcurrentHashMap<>();
+    private final Map<String, Map<Integer, LongAdder>> statuses = new ConcurrentHashMap<>();
+    private volatile long startNanos = System.nanoTime();
+    private volatile long endNanos;
+
+    public void start() {
+        startNanos = System.nanoTime();
+    }
+
+    public void stop() {
+        endNanos = System.nanoTime();
+    }
+
+    /**
+     * @param status HTTP status, or {@code -1} for an I/O error
+     */
+    public void record(String operation, int status, long nanos) {
+        latencies.computeIfAbsent(operation, ignored -> new ConcurrentHistogram(MAX_MICROS, 3))
+                .recordValue(Math.min(MAX_MICROS, Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos))));
+        statuses.computeIfAbsent(operation, ignored -> new ConcurrentHashMap<>())
+                .computeIfAbsent(status, ignored -> new LongAdder())
+                .increment();
+    }
+
+    /**
+     * @return operation name to summary (count, ops/s, status counts, latency percentiles in ms)
+     */
+    public Map<String, Object> summary() {
+        double seconds = Math.max(1, (endNanos == 0 ? System.nanoTime() : endNanos) - startNanos) / 1e9;
+        Map<String, Object> operations = new TreeMap<>();
+        latencies.forEach((operation, histogram) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            long count = histogram.getTotalCount();
+            entry.put("count", count);
+            entry.put("throughputPerSec", Math.round(count / seconds * 10) / 10.0);
+            Map<String, Long> byStatus = new TreeMap<>();
+            statuses.getOrDefault(operation, Map.of())
+                    .forEach((status, adder) -> byStatus.put(String.valueOf(status), adder.sum()));
+            entry.put("status", byStatus);
+            entry.put("p50Ms", millis(histogram.getValueAtPercentile(50)));
+            entry.put("p90Ms", millis(histogram.getValueAtPercentile(90)));
+            entry.put("p99Ms", millis(histogram.getValueAtPercentile(99)));
+            entry.put("p999Ms", millis(histogram.getValueAtPercentile(99.9)));
+            entry.put("maxMs", millis(histogram.getMaxValue()));
+            operations.put(operation, entry);
+        });
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("durationSec", Math.round(seconds * 10) / 10.0);
+        summary.put("operations", operations);
+        return summary;
+    }
+
+    /**
+     * Human-readable table of {@link #summary()}.
+     */
+    @SuppressWarnings("unchecked")
+    public String table(String scenario) {
+        StringBuilder out = new StringBuilder();
+        Map<String, Object> summary = summary();
+        out.append(String.format("%n== %s (%.1fs) ==%n", scenario, (Double) summary.get("durationSec")));
+        out.append(String.format("%-15s %9s %10s %9s %9s %9s %9s %9s  %s%n",
+                "operation", "count", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "status"));
+        ((Map<String, Map<String, Object>>) summary.get("operations")).forEach((operation, entry) ->
+                out.append(String.format("%-15s %9d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                        operation, entry.get("count"), entry.get("throughputPerSec"), entry.get("p50Ms"),
+                        entry.get("p90Ms"), entry.get("p99Ms"), entry.get("p999Ms"), entry.get("maxMs"),
+                        entry.get("status"))));
+        return out.toString();
+    }
+
+    private static double millis(long micros) {
+        return Math.round(micros / 10.0) / 100.0;
+    }
+}
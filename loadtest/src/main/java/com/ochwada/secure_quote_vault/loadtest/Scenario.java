@@ -0,0 +1,124 @@
+package com.ochwada.secure_quote_vault.loadtest;
+
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.loadtest
+ * File: Scenario.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 9:55 PM
+ * Description: A scripted workload. {@link #prepare} runs unmeasured (e.g. creating accounts); {@link #step} is what
+ * every closed-loop worker repeats until the duration is over.
+ * *******************************************************
+ */
+
+public abstract class Scenario {
+
+    /**
+     * Signup storm: every worker registers new accounts; one in ten names is a repeat, which must be rejected.
+     */
+    public static Scenario signupStorm(String runId) {
+        return new Scenario("signup-storm") {
+            @Override
+            void step(ApiClient client, int worker, long iteration) {
+                long n = iteration % 10 == 9 ? iteration - 9 : iteration;
+                client.signup("su" + runId + "w" + worker + "n" + n, LoadTest.PASSWORD);
+            }
+        };
+    }
+
+    /**
+     * Sign-in storm: workers sign in random existing accounts (BCrypt verification bound).
+     */
+    public static Scenario signinStorm(String runId) {
+        return new Scenario("signin-storm") {
+            private List<String> users;
+
+            @Override
+            void prepare(ApiClient setup, Options options) {
+                users = LoadTest.createUsers(setup, "si" + runId, options.users());
+            }
+
+            @Override
+            void step(ApiClient client, int worker, long iteration) {
+                client.signin(users.get((int) ((worker * 31 + iteration) % users.size())), LoadTest.PASSWORD);
+            }
+        };
+    }
+
+    /**
+     * Mixed traffic: signed-in users call {@code /api/quotes/random} (upstream + insert) and {@code /api/quotes}
+     * (query) in the configured ratio.
+     */
+    public static Scenario mixedTraffic(String runId) {
+        return new Scenario("mixed") {
+            private List<String> users;
+            private String[] tokens;
+            private double randomShare;
+
+            @Override
+            void prepare(ApiClient setup, Options options) {
+                users = LoadTest.createUsers(setup, "mx" + runId, options.users());
+                tokens = new String[users.size()];
+                for (int i = 0; i < users.size(); i++) {
+                    tokens[i] = setup.signin(users.get(i), LoadTest.PASSWORD);
+                }
+                randomShare = options.randomShare();
+            }
+
+            @Override
+            void step(ApiClient client, int worker, long iteration) {
+                int user = (int) ((worker * 31 + iteration) % users.size());
+                boolean random = (iteration * 0.6180339887 % 1) < randomShare;
+                int status = random ? client.randomQuote(tokens[user]) : client.listQuotes(tokens[user]);
+                if (status == 401 || status == 403) {
+                    // Access token ran out during a long run
+                    tokens[user] = client.signin(users.get(user), LoadTest.PASSWORD);
+                }
+            }
+        };
+    }
+
+    private final String name;
+
+    protected Scenario(String name) {
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    void prepare(ApiClient setup, Options options) {
+    }
+
+    abstract void step(ApiClient client, int worker, long iteration);
+
+    /**
+     * Runs {@code concurrency} closed-loop workers (virtual threads) for {@code duration}.
+     */
+    public void run(ApiClient client, int concurrency, Duration duration) throws Exception {
+        long endNanos = System.nanoTime() + duration.toNanos();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> running = new ArrayList<>(concurrency);
+            for (int w = 0; w < concurrency; w++) {
+                int worker = w;
+                running.add(workers.submit(() -> {
+                    for (long i = 0; System.nanoTime() < endNanos; i++) {
+                        step(client, worker, i);
+                    }
+                }));
+            }
+            for (Future<?> future : running) {
+                future.get();
+            }
+        }
+    }
+}
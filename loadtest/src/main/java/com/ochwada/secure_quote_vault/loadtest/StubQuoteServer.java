@@ -0,0 +1,100 @@
+package com.ochwada.secure_quote_vault.loadtest;
+
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.loadtest
+ * File: StubQuoteServer.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 9:30 PM
+ * Description: Local stand-in for the public random-quote API ({@code GET /quotes/random}).
+ * - Latency = base + exponentially distributed jitter (mean {@code jitterMs}), which gives the long right tail of a
+ * real upstream.
+ * - A share of calls fails with {@code 503} ({@code errorRate}) and a share hangs past the client read timeout
+ * ({@code timeoutRate}).
+ * - One virtual thread per call, so the stub is never the bottleneck.
+ * *******************************************************
+ */
+
+public class StubQuoteServer implements AutoCloseable {
+
+    private static final String[] AUTHORS = {"Steve Jobs", "Ada Lovelace", "Grace Hopper", "Alan Turing"};
+
+    private final HttpServer server;
+    private final long baseLatencyMs;
+    private final double jitterMs;
+    private final double errorRate;
+    private final double timeoutRate;
+    private final long hangMs;
+    private final AtomicLong calls = new AtomicLong();
+
+    public StubQuoteServer(long baseLatencyMs, double jitterMs, double errorRate, double timeoutRate, long hangMs)
+            throws IOException {
+        this.baseLatencyMs = baseLatencyMs;
+        this.jitterMs = jitterMs;
+        this.errorRate = errorRate;
+        this.timeoutRate = timeoutRate;
+        this.hangMs = hangMs;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.server.createContext("/quotes/random", this::handle);
+        this.server.start();
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/quotes/random";
+    }
+
+    public long calls() {
+        return calls.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long n = calls.incrementAndGet();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            double roll = random.nextDouble();
+            if (roll < timeoutRate) {
+                sleep(hangMs);
+            } else {
+                sleep(baseLatencyMs + (long) (-jitterMs * Math.log(1 - random.nextDouble())));
+            }
+            if (roll >= timeoutRate && roll < timeoutRate + errorRate) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            byte[] body = ("{\"id\":" + n
+                    + ",\"quoteString\":\"Load test quote number " + n + "\""
+                    + ",\"author\":\"" + AUTHORS[(int) (n % AUTHORS.length)] + "\""
+                    + ",\"createdAt\":\"25-07-2025 11:32\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,44 @@
+package com.ochwada.secure_quote_vault.loadtest;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.loadtest
+ * File: LoadTestSmokeTest.java
+ * Author: Ochwada
+ * Date: Tuesday, 20.Oct.2026, 12:10 PM
+ * Description: Smoke run of the harness: every scenario for one second against the in-memory MongoDB and the stub
+ * quote API, with a handful of workers. Checks that the application starts and each scenario gets successful
+ * answers, not the numbers.
+ * *******************************************************
+ */
+
+class LoadTestSmokeTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void everyScenarioRunsAgainstTheInMemoryStack() throws Exception {
+        Options options = Options.parse(new String[]{
+                "--scenario=all", "--duration=1s", "--concurrency=4", "--users=5",
+                "--stub-latency-ms=1", "--stub-jitter-ms=0", "--stub-error-rate=0"});
+
+        Map<String, Object> results = LoadTest.run(options);
+
+        assertThat(results).containsOnlyKeys("signup-storm", "signin-storm", "mixed");
+        results.forEach((scenario, summary) -> {
+            Map<String, Map<String, Object>> operations =
+                    (Map<String, Map<String, Object>>) ((Map<String, Object>) summary).get("operations");
+            long succeeded = operations.values().stream()
+                    .map(entry -> (Map<String, Long>) entry.get("status"))
+                    .mapToLong(status -> status.getOrDefault("200", 0L))
+                    .sum();
+            assertThat(succeeded).as(scenario).isPositive();
+        });
+    }
+}
@@ -0,0 +1,80 @@
+#!/usr/bin/env bash
+#=================================================================================
+#  startup-benchmark.sh: startup-to-first-request time of each run mode
+#
+#  Measures wall time from process launch until GET /livez answers 200, i.e. the full stack
+#  (Tomcat, security filter chain, actuator) is serving. No MongoDB is needed for that probe.
+#
+#  Usage:
+#    mvn -Pfast-startup clean package -DskipTests        # once (jar, aot and aot-cds modes)
+#    mvn -Pnative native:compile -DskipTests              # optional, adds the native mode
+#    scripts/startup-benchmark.sh [runs]                  # default: 5 runs per mode
+#=================================================================================
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${PORT:-19090}"
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+WORK="$ROOT/target/startup-benchmark"
+JAR="$(ls "$ROOT"/target/*-exec.jar 2>/dev/null | head -n 1 || true)"
+NATIVE="$ROOT/target/SecureQuoteVault"
+
+export PORT
+export MONGODB_URI="${MONGODB_URI:-mongodb://localhost:27017}"
+export MONGODB_DATABASE="${MONGODB_DATABASE:-startup_benchmark}"
+export JWT_SECRET="${JWT_SECRET:-startup-benchmark-secret-key-of-32-bytes}"
+
+if [[ -z "$JAR" ]]; then
+  echo "No target/*-exec.jar found - run: mvn -Pfast-startup clean package -DskipTests" >&2
+  exit 1
+fi
+
+now_ms() { date +%s%3N; }
+
+# Launches "$@", returns (prints) the milliseconds until the liveness probe answers.
+measure() {
+  local start pid elapsed
+  start=$(now_ms)
+  "$@" > "$WORK/last-run.log" 2>&1 &
+  pid=$!
+  until curl -fs -o /dev/null "http://127.0.0.1:$PORT/livez"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "process exited early, see $WORK/last-run.log" >&2
+      return 1
+    fi
+    sleep 0.02
+  done
+  elapsed=$(( $(now_ms) - start ))
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+  echo "$elapsed"
+}
+
+# Runs a mode RUNS times and prints min / median / max.
+bench() {
+  local name="$1"; shift
+  local samples=()
+  for _ in $(seq "$RUNS"); do
+    samples+=("$(measure "$@")")
+  done
+  IFS=$'\n' read -r -d '' -a sorted < <(printf '%s\n' "${samples[@]}" | sort -n && printf '\0')
+  printf '%-10s min %6d ms   median %6d ms   max %6d ms\n' \
+    "$name" "${sorted[0]}" "${sorted[$(( ${#sorted[@]} / 2 ))]}" "${sorted[-1]}"
+}
+
+rm -rf "$WORK" && mkdir -p "$WORK"
+
+# AppCDS: extract the jar, then one training run that exits after context refresh
+java -Djarmode=tools -jar "$JAR" extract --destination "$WORK/application" > /dev/null
+java -XX:ArchiveClassesAtExit="$WORK/application.jsa" -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+     -jar "$WORK/application/app.jar" > "$WORK/training.log" 2>&1
+
+echo "Startup to first request ($RUNS runs each)"
+bench jar      java -jar "$JAR"
+bench aot      java -Dspring.aot.enabled=true -jar "$JAR"
+bench aot-cds  java -XX:SharedArchiveFile="$WORK/application.jsa" -Dspring.aot.enabled=true \
+                    -jar "$WORK/application/app.jar"
+if [[ -x "$NATIVE" ]]; then
+  bench native "$NATIVE"
+else
+  echo "native     skipped (build with: mvn -Pnative native:compile)"
+fi
@@ -1,9 +1,12 @@
 package com.ochwada.secure_quote_vault;
 
-import io.github.cdimascio.dotenv.Dotenv;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+/**
+ * Application entry point.
+ * - {@code .env} values are loaded by {@code config.DotenvEnvironmentPostProcessor} (see META-INF/spring.factories).
+ */
 @SpringBootApplication
 public class SecureQuoteVaultApplication {
 
@@ -11,33 +14,4 @@ public class SecureQuoteVaultApplication {
         SpringApplication.run(SecureQuoteVaultApplication.class, args);
     }
 
-    static {
-        // Load environment variables from .env file
-        // Ignores file if missing (useful for production environments like Heroku)
-        Dotenv dotenv = Dotenv.configure()
-                .ignoreIfMissing()
-                .load();
-
-        // List of expected keys to load from the .env file
-        String[] envVars =
-                {
-                        "PORT",
-                        "MONGODB_URI",
-                        "MONGODB_DATABASE",
-                        //"RANDOM_QUOTE_URL",
-                        "JWT_SECRET"
-                };
-        // Iterate through keys and set them as JVM system properties if found
-        for (String key : envVars) {
-            String value = dotenv.get(key);
-
-            if (value != null) {
-                System.setProperty(key, value);  // Makes it accessible via System.getProperty
-                System.out.println("✅ " + key + " loaded and set.");
-            } else {
-                System.out.println("⚠️" + key + " not found in .env file. Skipping System.");
-            }
-        }
-    }
-
 }
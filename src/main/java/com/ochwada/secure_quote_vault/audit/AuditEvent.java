@@ -0,0 +1,24 @@
+package com.ochwada.secure_quote_vault.audit;
+
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.audit
+ * File: AuditEvent.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 11:45 PM
+ * Description: One security-relevant action, as written to the audit segments (one JSON line each).
+ * - {@code at} is epoch milliseconds; {@code username} and {@code clientIp} may be {@code null} when unknown.
+ * - {@code outcome} is a short, fixed vocabulary per type (e.g. {@code success}, {@code failed}, {@code revoked}).
+ * *******************************************************
+ */
+
+public record AuditEvent(long at, Type type, String username, String outcome, String clientIp, String detail) {
+
+    public enum Type {
+        SIGNIN,
+        SIGNUP,
+        TOKEN_REJECTED,
+        QUOTE_FETCH
+    }
+}
@@ -0,0 +1,263 @@
+package com.ochwada.secure_quote_vault.audit;
+
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.audit
+ * File: AuditLog.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 11:59 PM
+ * Description: Asynchronous security audit log (sign-ins, signups, rejected tokens, quote fetches).
+ * - {@link #record} only enqueues into a fixed-size lock-free {@link AuditRingBuffer}: no I/O and no lock on the
+ * request path. A full buffer drops the event and counts it ({@code audit.events{outcome=dropped}}).
+ * - A single writer thread drains the buffer in batches and appends them as JSON lines to rotating segments
+ * ({@link AuditSegmentWriter}) through one {@code FileChannel} write per batch. An I/O or unexpected error costs at
+ * most the batch in hand ({@code audit.events{outcome=failed}}, {@code audit.writer.errors}); the thread backs off
+ * briefly and carries on with a fresh segment.
+ * - An idle writer parks until {@link #record} signals it (at most until the next interval force or segment-age
+ * check is due), so an empty queue costs no CPU and a new event is still picked up at once.
+ * - {@code audit.force}: {@code batch} forces every batch to disk (group commit), {@code interval} at most every
+ * {@code audit.force-interval}, {@code none} leaves it to the OS.
+ * - Started before the web server accepts requests and stopped after it has drained them, so shutdown loses nothing
+ * that was accepted. Never started in the AppCDS training run or where the bean is built by hand ({@link #record}
+ * is then a no-op).
+ * - Closed segments can be shipped to MongoDB by {@link AuditShipper}.
+ * *******************************************************
+ */
+
+@Slf4j
+@Component
+public class AuditLog implements SmartLifecycle {
+
+    /**
+     * Longest idle park; bounds how late a stale segment is rotated.
+     */
+    private static final long MAX_IDLE_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final AuditRingBuffer<AuditEvent> ring;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+    private final Counter writerErrors;
+
+    private volatile boolean running;
+    private volatile Thread writer;
+
+    /**
+     * Set by the writer just before it parks on an empty ring; {@link #record} unparks it only then.
+     */
+    private volatile boolean writerIdle;
+
+    @Value("${audit.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${audit.directory:data/audit}")
+    private Path directory = Path.of("data/audit");
+
+    @Value("${audit.batch-size:512}")
+    private int batchSize = 512;
+
+    @Value("${audit.force:batch}")
+    private String forcePolicy = "batch";
+
+    @Value("${audit.force-interval:1s}")
+    private Duration forceInterval = Duration.ofSeconds(1);
+
+    @Value("${audit.segment-size:64MB}")
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    @Value("${audit.segment-max-age:15m}")
+    private Duration segmentMaxAge = Duration.ofMinutes(15);
+
+    public AuditLog(MeterRegistry meterRegistry, @Value("${audit.ring-buffer-size:16384}") int ringBufferSize) {
+        this.ring = new AuditRingBuffer<>(ringBufferSize);
+        this.written = eventCounter(meterRegistry, "written");
+        this.dropped = eventCounter(meterRegistry, "dropped");
+        this.failed = eventCounter(meterRegistry, "failed");
+        this.writerErrors = Counter.builder("audit.writer.errors")
+                .description("Writer loop iterations that failed (write, force, rotation or encoding)")
+                .register(meterRegistry);
+        Gauge.builder("audit.queue.depth", ring, AuditRingBuffer::size)
+                .description("Audit events waiting for the writer thread")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Enqueues an audit event; never blocks.
+     *
+     * @param type     what happened
+     * @param username the user concerned, if known
+     * @param outcome  short outcome, e.g. {@code success} or {@code failed}
+     * @param clientIp the caller's address, if known
+     * @param detail   optional extra context
+     */
+    public void record(AuditEvent.Type type, String username, String outcome, String clientIp, String detail) {
+        if (!running) {
+            return;
+        }
+        if (!ring.offer(new AuditEvent(System.currentTimeMillis(), type, username, outcome, clientIp, detail))) {
+            dropped.increment();
+            return;
+        }
+        if (writerIdle) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        AuditSegmentWriter segments;
+        try {
+            segments = new AuditSegmentWriter(directory, segmentSize.toBytes(), segmentMaxAge.toMillis());
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open audit directory " + directory, e);
+        }
+        running = true;
+        writer = Thread.ofPlatform().daemon().name("audit-writer").start(() -> writeLoop(segments));
+        log.info("audit.log.started", kv("directory", directory.toAbsolutePath()), kv("force", forcePolicy));
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (writer == null) {
+            return;
+        }
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before the web server (and stops after it), see the class comment.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    /**
+     * Drains the ring until stopped and empty. Each batch becomes one buffer, one write and (per policy) one force.
+     * A failing iteration is counted and logged, never fatal: this is the only thread that writes the log.
+     */
+    private void writeLoop(AuditSegmentWriter segments) {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long lastForce = System.nanoTime();
+        boolean dirty = false;
+
+        while (running || ring.size() > 0) {
+            batch.clear();
+            try {
+                if (ring.drainTo(batch, batchSize) == 0) {
+                    if (dirty && "interval".equals(forcePolicy)
+                            && System.nanoTime() - lastForce >= forceInterval.toNanos()) {
+                        dirty = false;
+                        lastForce = System.nanoTime();
+                        segments.force();
+                    }
+                    segments.rotateIfStale();
+                    long parkNanos = Math.min(MAX_IDLE_PARK_NANOS, segmentMaxAge.toNanos());
+                    if (dirty && "interval".equals(forcePolicy)) {
+                        parkNanos = Math.min(parkNanos, forceInterval.toNanos() - (System.nanoTime() - lastForce));
+                    }
+                    writerIdle = true;
+                    // Re-check after announcing idleness: an event offered in between has either seen the flag
+                    // (and unparks us) or is visible here
+                    if (running && ring.size() == 0 && parkNanos > 0) {
+                        LockSupport.parkNanos(this, parkNanos);
+                    }
+                    writerIdle = false;
+                    continue;
+                }
+
+                buffer = encode(batch, buffer);
+                segments.append(buffer.flip());
+                if ("batch".equals(forcePolicy)) {
+                    segments.force();
+                } else {
+                    dirty = true;
+                }
+                written.increment(batch.size());
+            } catch (IOException | RuntimeException e) {
+                writerErrors.increment();
+                failed.increment(batch.size());
+                log.warn("audit.write.failed", kv("events", batch.size()), e);
+                // A full or vanished disk fails every iteration; don't spin on it
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+            }
+        }
+
+        try {
+            segments.close();
+        } catch (IOException | RuntimeException e) {
+            log.warn("audit.close.failed", e);
+        }
+    }
+
+    /**
+     * Encodes the batch as JSON lines into {@code buffer}, growing it if a batch does not fit.
+     *
+     * @return the (possibly new) buffer, in write mode
+     */
+    private ByteBuffer encode(List<AuditEvent> batch, ByteBuffer buffer) {
+        buffer.clear();
+        for (AuditEvent event : batch) {
+            byte[] line;
+            try {
+                line = mapper.writeValueAsBytes(event);
+            } catch (JsonProcessingException e) {
+                failed.increment();
+                continue;
+            }
+            if (buffer.remaining() < line.length + 1) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + line.length + 1));
+                buffer = larger.put(buffer.flip());
+            }
+            buffer.put(line).put((byte) '\n');
+        }
+        return buffer;
+    }
+
+    private static Counter eventCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("audit.events")
+                .description("Audit events by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
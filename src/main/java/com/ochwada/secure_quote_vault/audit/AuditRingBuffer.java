@@ -0,0 +1,107 @@
+package com.ochwada.secure_quote_vault.audit;
+
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.audit
+ * File: AuditRingBuffer.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 11:50 PM
+ * Description: Bounded, lock-free multi-producer / single-consumer ring buffer.
+ * - Every slot carries a sequence number: producers claim a position with one CAS and publish the element by bumping
+ * the slot's sequence, so the consumer never sees a half-written slot.
+ * - {@link #offer} never blocks: a full buffer answers {@code false} and the caller accounts for the drop.
+ * - Capacity is rounded up to a power of two; memory is fixed at construction.
+ * *******************************************************
+ */
+
+public final class AuditRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    /**
+     * Next position to claim (producers).
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Next position to read; written by the single consumer only.
+     */
+    private volatile long head;
+
+    public AuditRingBuffer(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @param element the element to enqueue (not {@code null})
+     * @return {@code false} if the buffer is full
+     */
+    public boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long lag = sequences.get(index) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (lag < 0) {
+                // The slot still holds an element from one lap ago: full
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Moves up to {@code max} elements into {@code sink}. Single consumer only.
+     *
+     * @return the number of elements moved
+     */
+    public int drainTo(List<? super E> sink, int max) {
+        long position = head;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            sink.add(slots.get(index));
+            slots.set(index, null);
+            sequences.set(index, position + mask + 1);
+            position++;
+            drained++;
+        }
+        head = position;
+        return drained;
+    }
+
+    /**
+     * @return approximate number of queued elements
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
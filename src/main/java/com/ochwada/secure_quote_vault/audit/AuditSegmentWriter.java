@@ -0,0 +1,118 @@
+package com.ochwada.secure_quote_vault.audit;
+
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.audit
+ * File: AuditSegmentWriter.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 11:55 PM
+ * Description: Append-only, rotating audit segments in one directory. Used by the audit writer thread only.
+ * - The segment being written is {@code audit-<epochMillis>-<seq>.log.active}; on rotation (size or age) it is
+ * forced and renamed to {@code .log}, so a {@code .log} file is complete and never written again.
+ * - Segments left {@code .active} by a crash are closed the same way on the next start.
+ * - After a failed rotation the next append starts a new segment; the one that could not be renamed is closed as a
+ * leftover on the next start.
+ * - Names sort in write order.
+ * *******************************************************
+ */
+
+public class AuditSegmentWriter implements AutoCloseable {
+
+    static final String CLOSED_SUFFIX = ".log";
+    static final String ACTIVE_SUFFIX = ".log.active";
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final long maxSegmentAgeMillis;
+
+    private FileChannel channel;
+    private Path activePath;
+    private long openedAt;
+    private long sequence;
+
+    public AuditSegmentWriter(Path directory, long maxSegmentBytes, long maxSegmentAgeMillis) throws IOException {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxSegmentAgeMillis = maxSegmentAgeMillis;
+        Files.createDirectories(directory);
+        closeLeftovers();
+    }
+
+    /**
+     * Appends the buffer's remaining bytes to the current segment, opening or rotating it first if needed.
+     */
+    public void append(ByteBuffer buffer) throws IOException {
+        if (channel == null || channel.position() + buffer.remaining() > maxSegmentBytes && channel.position() > 0) {
+            rotate();
+        }
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Flushes written data (not metadata) to the storage device.
+     */
+    public void force() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Closes the current segment once it is older than the maximum age, so it can be shipped.
+     */
+    public void rotateIfStale() throws IOException {
+        if (channel != null && System.currentTimeMillis() - openedAt >= maxSegmentAgeMillis) {
+            closeActive();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeActive();
+    }
+
+    private void rotate() throws IOException {
+        closeActive();
+        openedAt = System.currentTimeMillis();
+        activePath = directory.resolve("audit-" + openedAt + "-" + String.format("%06d", sequence++) + ACTIVE_SUFFIX);
+        channel = FileChannel.open(activePath,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void closeActive() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        try (FileChannel closing = channel) {
+            closing.force(true);
+        } finally {
+            channel = null;
+        }
+        Files.move(activePath, closedPath(activePath), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void closeLeftovers() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path leftover : (Iterable<Path>) files.filter(file -> file.toString().endsWith(ACTIVE_SUFFIX))::iterator) {
+                Files.move(leftover, closedPath(leftover), StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+    }
+
+    private static Path closedPath(Path active) {
+        String name = active.getFileName().toString();
+        return active.resolveSibling(name.substring(0, name.length() - ACTIVE_SUFFIX.length()) + CLOSED_SUFFIX);
+    }
+}
@@ -0,0 +1,187 @@
+package com.ochwada.secure_quote_vault.audit;
+
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.audit
+ * File: AuditShipper.java
+ * Author: Ochwada
+ * Date: Tuesday, 20.Oct.2026, 12:10 AM
+ * Description: Optional background copy of closed audit segments into the {@code audit_events} collection, and
+ * retention of the local segments.
+ * - Off unless {@code audit.ship-to-mongo=true}; the local segments stay the primary record either way.
+ * - Without shipping the closed segments are the only copy, so they are kept forever by default; deleting the ones
+ * older than {@code audit.local-retention} is an explicit opt-in.
+ * - Ships whole closed segments in write order, then renames them {@code .log.shipped}; shipped segments older than
+ * {@code audit.shipped-retention} are deleted.
+ * - Every line gets the id {@code <segment>:<line>}, so re-shipping a segment after a failure inserts no duplicates.
+ * *******************************************************
+ */
+
+@Slf4j
+@Component
+public class AuditShipper {
+
+    public static final String COLLECTION = "audit_events";
+
+    private static final String SHIPPED_SUFFIX = ".log.shipped";
+    private static final int INSERT_BATCH = 1_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final Counter shipped;
+
+    @Value("${audit.ship-to-mongo:false}")
+    private boolean enabled;
+
+    @Value("${audit.directory:data/audit}")
+    private Path directory;
+
+    @Value("${audit.shipped-retention:7d}")
+    private Duration shippedRetention;
+
+    @Value("${audit.local-retention:0}")
+    private Duration localRetention;
+
+    public AuditShipper(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.shipped = Counter.builder("audit.shipped")
+                .description("Audit events copied to MongoDB")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${audit.ship-interval:10000}", initialDelayString = "${audit.ship-interval:10000}")
+    public void ship() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        if (!enabled) {
+            deleteUnshipped();
+            return;
+        }
+        try {
+            for (Path segment : list(AuditSegmentWriter.CLOSED_SUFFIX)) {
+                shipSegment(segment);
+                Files.move(segment, segment.resolveSibling(segment.getFileName() + ".shipped"),
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+            deleteExpired(SHIPPED_SUFFIX, shippedRetention);
+        } catch (IOException | DataAccessException | MongoException e) {
+            // The segment stays unshipped and is retried on the next run
+            log.warn("audit.ship.failed", e);
+        }
+    }
+
+    private void shipSegment(Path segment) throws IOException {
+        MongoCollection<Document> collection = mongoTemplate.getCollection(COLLECTION);
+        String name = segment.getFileName().toString();
+        List<Document> batch = new ArrayList<>(INSERT_BATCH);
+        long lineNumber = 0;
+        long count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                Document event = Document.parse(line);
+                event.put("_id", name + ":" + lineNumber);
+                event.put("at", new Date(((Number) event.get("at")).longValue()));
+                batch.add(event);
+                if (batch.size() == INSERT_BATCH) {
+                    count += insert(collection, batch);
+                }
+            }
+        }
+        count += insert(collection, batch);
+        shipped.increment(count);
+        log.info("audit.segment.shipped", kv("segment", name), kv("events", count));
+    }
+
+    /**
+     * Unordered insert that ignores only duplicate ids (lines shipped by an earlier, interrupted run).
+     */
+    private long insert(MongoCollection<Document> collection, List<Document> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int size = batch.size();
+        try {
+            collection.insertMany(batch, new InsertManyOptions().ordered(false));
+            return size;
+        } catch (MongoBulkWriteException e) {
+            if (e.getWriteErrors().stream().anyMatch(error -> error.getCode() != 11000)) {
+                throw e;
+            }
+            return size - e.getWriteErrors().size();
+        } finally {
+            batch.clear();
+        }
+    }
+
+    /**
+     * Local retention when nothing is shipped, only if {@code audit.local-retention} is set: the closed segments are the
+     * only copy of the audit trail.
+     */
+    private void deleteUnshipped() {
+        if (localRetention.isZero()) {
+            return;
+        }
+        try {
+            int deleted = deleteExpired(AuditSegmentWriter.CLOSED_SUFFIX, localRetention);
+            if (deleted > 0) {
+                log.info("audit.segments.expired", kv("segments", deleted), kv("retention", localRetention));
+            }
+        } catch (IOException e) {
+            log.warn("audit.retention.failed", e);
+        }
+    }
+
+    /**
+     * @return the number of segments deleted
+     */
+    private int deleteExpired(String suffix, Duration retention) throws IOException {
+        long cutoff = System.currentTimeMillis() - retention.toMillis();
+        int deleted = 0;
+        for (Path segment : list(suffix)) {
+            if (Files.getLastModifiedTime(segment).toMillis() < cutoff && Files.deleteIfExists(segment)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    private List<Path> list(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(suffix)).sorted().toList();
+        }
+    }
+}
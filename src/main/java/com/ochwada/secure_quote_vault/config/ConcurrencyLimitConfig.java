@@ -0,0 +1,63 @@
+package com.ochwada.secure_quote_vault.config;
+
+
+import com.ochwada.secure_quote_vault.ratelimit.AdaptiveConcurrencyLimiter;
+import com.ochwada.secure_quote_vault.ratelimit.ConcurrencyLimitInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.config
+ * File: ConcurrencyLimitConfig.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 4:30 PM
+ * Description: Puts separate adaptive concurrency limits in front of the {@code QuoteController} endpoints:
+ * - {@code random}: {@code GET /api/quotes/random} (upstream call + Mongo insert)
+ * - {@code list}: {@code GET /api/quotes} (Mongo query)
+ * Each limit is tuned with {@code concurrency-limit.<name>.*} properties.
+ * *******************************************************
+ */
+
+@Configuration
+public class ConcurrencyLimitConfig implements WebMvcConfigurer {
+
+    private final AdaptiveConcurrencyLimiter randomLimiter;
+    private final AdaptiveConcurrencyLimiter listLimiter;
+
+    @Value("${concurrency-limit.enabled:true}")
+    private boolean enabled;
+
+    public ConcurrencyLimitConfig(Environment environment, MeterRegistry meterRegistry) {
+        this.randomLimiter = limiter("random", environment, meterRegistry);
+        this.listLimiter = limiter("list", environment, meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!enabled) {
+            return;
+        }
+        registry.addInterceptor(new ConcurrencyLimitInterceptor(randomLimiter))
+                .addPathPatterns("/api/quotes/random");
+        registry.addInterceptor(new ConcurrencyLimitInterceptor(listLimiter))
+                .addPathPatterns("/api/quotes");
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(String name, Environment environment,
+                                                      MeterRegistry meterRegistry) {
+        String prefix = "concurrency-limit." + name + ".";
+        return new AdaptiveConcurrencyLimiter(
+                name,
+                environment.getProperty(prefix + "initial-limit", Integer.class, 20),
+                environment.getProperty(prefix + "min-limit", Integer.class, 2),
+                environment.getProperty(prefix + "max-limit", Integer.class, 200),
+                environment.getProperty(prefix + "latency-tolerance", Double.class, 2.0),
+                environment.getProperty(prefix + "backoff-ratio", Double.class, 0.9),
+                meterRegistry);
+    }
+}
@@ -0,0 +1,92 @@
+package com.ochwada.secure_quote_vault.config;
+
+
+import io.github.cdimascio.dotenv.Dotenv;
+import io.github.cdimascio.dotenv.DotenvEntry;
+import org.apache.commons.logging.Log;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.config
+ * File: DotenvEnvironmentPostProcessor.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 2:05 PM
+ * Description: Loads the {@code .env} file into the Spring {@code Environment} (replaces the former static block in
+ * {@code SecureQuoteVaultApplication}).
+ * - Only runs the Dotenv parser when a {@code .env} file actually exists, so containers configured through real
+ * environment variables pay nothing at startup.
+ * - Values become a property source ranked right after JVM system properties, i.e. {@code .env} still wins over OS
+ * environment variables as before, without mutating global {@code System} properties.
+ * - Registered in {@code META-INF/spring.factories}; runs in JVM, AOT and native modes alike.
+ * *******************************************************
+ */
+
+public class DotenvEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    /**
+     * Name of the property source holding the {@code .env} values.
+     */
+    public static final String PROPERTY_SOURCE_NAME = "dotenv";
+
+    /**
+     * List of expected keys to load from the .env file.
+     */
+    private static final String[] ENV_VARS = {
+            "PORT",
+            "MONGODB_URI",
+            "MONGODB_DATABASE",
+            //"RANDOM_QUOTE_URL",
+            "JWT_SECRET"
+    };
+
+    private final Log log;
+
+    public DotenvEnvironmentPostProcessor(DeferredLogFactory logFactory) {
+        this.log = logFactory.getLog(DotenvEnvironmentPostProcessor.class);
+    }
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        // Ignores file if missing (useful for production environments like Heroku)
+        if (!Files.isRegularFile(Path.of(".env"))) {
+            log.debug("No .env file found, relying on the process environment");
+            return;
+        }
+
+        Dotenv dotenv = Dotenv.configure()
+                .ignoreIfMissing()
+                .load();
+
+        Map<String, Object> values = new HashMap<>();
+        for (DotenvEntry entry : dotenv.entries(Dotenv.Filter.DECLARED_IN_ENV_FILE)) {
+            values.put(entry.getKey(), entry.getValue());
+        }
+
+        for (String key : ENV_VARS) {
+            if (values.containsKey(key)) {
+                log.info(key + " loaded from .env");
+            } else {
+                log.warn(key + " not found in .env file");
+            }
+        }
+
+        MapPropertySource propertySource = new MapPropertySource(PROPERTY_SOURCE_NAME, values);
+        if (environment.getPropertySources().contains(StandardEnvironment.SYSTEM_PROPERTIES_PROPERTY_SOURCE_NAME)) {
+            environment.getPropertySources()
+                    .addAfter(StandardEnvironment.SYSTEM_PROPERTIES_PROPERTY_SOURCE_NAME, propertySource);
+        } else {
+            environment.getPropertySources().addFirst(propertySource);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.ochwada.secure_quote_vault.config;
+
+
+import com.mongodb.client.MongoClient;
+import com.ochwada.secure_quote_vault.metrics.PoolCheckoutListener;
+import com.ochwada.secure_quote_vault.metrics.SlowCommandListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.config
+ * File: MongoInstrumentationConfig.java
+ * Author: Ochwada
+ * Date: Tuesday, 20.Oct.2026, 12:45 AM
+ * Description: Adds the slow-command log ({@link SlowCommandListener}) and the pool checkout wait timer
+ * ({@link PoolCheckoutListener}) to the MongoDB client.
+ * - Registered next to Spring Boot's own Micrometer listeners ({@code mongodb.driver.commands},
+ * {@code mongodb.driver.pool.*}), which stay in place.
+ * *******************************************************
+ */
+
+@Configuration
+public class MongoInstrumentationConfig {
+
+    /**
+     * Commands at least this slow are logged.
+     */
+    @Value("${mongo.slow-command.threshold:100ms}")
+    private Duration slowCommandThreshold;
+
+    /**
+     * Fraction of explainable commands whose plan is logged when they are slow.
+     */
+    @Value("${mongo.slow-command.explain-sample-rate:0.05}")
+    private double explainSampleRate;
+
+    /**
+     * Commands never reported as slow (long-polling and handshake commands).
+     */
+    @Value("${mongo.slow-command.ignored:getMore,hello,isMaster,ping,explain,endSessions}")
+    private Set<String> ignoredCommands;
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoInstrumentationCustomizer(
+            ObjectProvider<MongoClient> mongoClient, MeterRegistry meterRegistry) {
+        SlowCommandListener slowCommands = new SlowCommandListener(
+                slowCommandThreshold, explainSampleRate, ignoredCommands, mongoClient, meterRegistry);
+        PoolCheckoutListener poolCheckout = new PoolCheckoutListener(meterRegistry);
+        return settings -> settings
+                .addCommandListener(slowCommands)
+                .applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(poolCheckout));
+    }
+}
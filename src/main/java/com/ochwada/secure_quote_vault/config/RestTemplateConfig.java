@@ -1,8 +1,11 @@
 package com.ochwada.secure_quote_vault.config;
 
 
+import com.ochwada.secure_quote_vault.deadline.DeadlineAwareRequestFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 /**
@@ -13,19 +16,48 @@ import org.springframework.web.client.RestTemplate;
  * Date: Friday, 25.Jul.2025, 11:28 AM
  * Description: {@code RestTemplateConfig} is a configuration class that defines application-wide Spring beans related
  * to REST communication.
+ * - The client is blocking by design: with {@code spring.threads.virtual.enabled=true} the calling request thread is
+ * a virtual thread, so a slow upstream parks the virtual thread instead of pinning a Tomcat worker.
+ * - Timeouts are additionally capped per call by the remaining request deadline ({@link DeadlineAwareRequestFactory}).
  * *******************************************************
  */
 
 @Configuration
 public class RestTemplateConfig {
 
+    /**
+     * Maximum time (ms) to establish a connection to the upstream quote API.
+     */
+    @Value("${quote.upstream.connect-timeout:2000}")
+    private int connectTimeout;
+
+    /**
+     * Maximum time (ms) to wait for the upstream quote API to answer.
+     */
+    @Value("${quote.upstream.read-timeout:5000}")
+    private int readTimeout;
+
     /**
      * Creates and exposes a {@link RestTemplate} bean for making HTTP requests.
+     * *
+     * Backed by {@link SimpleClientHttpRequestFactory} ({@code HttpURLConnection}), which on Java 21 blocks on
+     * virtual-thread-friendly locks, so it scales with virtual threads without an extra async client.
      *
-     * @return a default RestTemplate instance
+     * @return a RestTemplate with connect/read timeouts applied
      */
     @Bean
     public RestTemplate restTemplate() {
-        return new RestTemplate();
+        return buildRestTemplate(connectTimeout, readTimeout);
+    }
+
+    /**
+     * Builds a {@link RestTemplate} with the given timeouts.
+     *
+     * @param connectTimeout connect timeout in milliseconds
+     * @param readTimeout    read timeout in milliseconds
+     * @return a configured RestTemplate
+     */
+    public static RestTemplate buildRestTemplate(int connectTimeout, int readTimeout) {
+        return new RestTemplate(new DeadlineAwareRequestFactory(connectTimeout, readTimeout));
     }
 }
@@ -0,0 +1,20 @@
+package com.ochwada.secure_quote_vault.config;
+
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.config
+ * File: SchedulingConfig.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 3:15 PM
+ * Description: Enables {@code @Scheduled} background jobs (e.g. idle rate-limit bucket eviction).
+ * *******************************************************
+ */
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -2,9 +2,15 @@ package com.ochwada.secure_quote_vault.config;
 
 
 import com.ochwada.secure_quote_vault.security.JWTFilter;
+import com.ochwada.secure_quote_vault.security.RateLimitFilter;
+import com.ochwada.secure_quote_vault.security.TimedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -12,6 +18,7 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 /**
@@ -22,6 +29,8 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
  * Date: Friday, 25.Jul.2025, 4:24 PM
  * Description: Main/ Central Security Configuration.
  * - Configures HTTP security settings for the application.
+ * - Only the health probes are public on the application port; the Prometheus scrape needs an admin token there, or
+ * is served without one on the internal {@code management.server.port} when that is set.
  * Objective: Secure API endpoints using JWT authentication.
  * *******************************************************
  */
@@ -36,6 +45,16 @@ public class SecurityConfig {
      */
     private final JWTFilter jwtFilter;
 
+    /**
+     * Token-bucket limiter for {@code /api/quotes/random}; runs after {@link JWTFilter} has resolved the user.
+     */
+    private final RateLimitFilter rateLimitFilter;
+
+    /**
+     * Separate actuator port ({@code MANAGEMENT_PORT}); {@code null} when actuator shares the application port.
+     */
+    @Value("${management.server.port:#{null}}")
+    private Integer managementPort;
 
     /**
      * Configures the security filter chain for HTTP requests.
@@ -59,31 +78,59 @@ public class SecurityConfig {
                         // Allow public access to any endpoint under /auth (e.g., login, register)
                         .requestMatchers("/auth/**").permitAll()
 
+                        // Public token verification keys for other services
+                        .requestMatchers("/.well-known/jwks.json").permitAll()
+
+                        // Health probes
+                        .requestMatchers("/actuator/health/**", "/actuator/info", "/livez", "/readyz").permitAll()
+
+                        // Everything on the internal management port (never routed by the ingress)
+                        .requestMatchers(this::onManagementPort).permitAll()
+
+                        // Metrics carry user, collection and limiter detail: admins only on the public port
+                        .requestMatchers("/actuator/**").hasAnyRole("ADMIN", "SUPER_ADMIN")
+
+                        // Admin endpoints (bulk user provisioning)
+                        .requestMatchers("/api/admin/**").hasAnyRole("ADMIN", "SUPER_ADMIN")
+
                         // Require authentication for all other endpoints
                         .anyRequest().authenticated() // Secure all other endpoints (require jwt based authentication)
                 )
 
+                // Missing, invalid or expired token: 401, so clients know to refresh or sign in again
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+
                 // Add custom JWT filter before Spring Security's default username-password filter
                 .addFilterBefore(
                         jwtFilter, UsernamePasswordAuthenticationFilter.class // Add JWT filter
-                );
+                )
+
+                // Per-IP / per-user rate limiting once the username is known
+                .addFilterAfter(rateLimitFilter, JWTFilter.class);
 
         // Finalize and return the configured SecurityFilterChain
         return httpSecurity.build(); // Returns the fully configured SecurityFilterChain
     }
 
+    private boolean onManagementPort(HttpServletRequest request) {
+        return managementPort != null && managementPort > 0 && request.getLocalPort() == managementPort;
+    }
+
     /**
      * Defines the password encoder bean for hashing user passwords.
      * *
      * This bean uses {@link BCryptPasswordEncoder}, a strong hashing function based on BCrypt,
      * to encode passwords before storing them in the database. It is automatically registered in
      * the Spring context and injected wherever a {@link PasswordEncoder} is required.
+     * The encoder is wrapped in a {@link TimedPasswordEncoder} so BCrypt cost on sign-in/signup shows up in metrics.
      *
+     * @param meterRegistry the registry receiving the {@code auth.password.*} timers
      * @return a {@link PasswordEncoder} implementation using BCrypt
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
     }
 
     /**
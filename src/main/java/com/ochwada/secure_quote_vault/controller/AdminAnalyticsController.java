@@ -0,0 +1,53 @@
+package com.ochwada.secure_quote_vault.controller;
+
+
+import com.ochwada.secure_quote_vault.dto.QuoteAnalyticsResponse;
+import com.ochwada.secure_quote_vault.service.QuoteAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.controller
+ * File: AdminAnalyticsController.java
+ * Author: Ochwada
+ * Date: Tuesday, 20.Oct.2026, 1:25 AM
+ * Description: Admin-only platform analytics under {@code /api/admin/analytics} ({@code ADMIN} or
+ * {@code SUPER_ADMIN}, enforced in {@code SecurityConfig}).
+ * - {@code GET /quotes}: fetch volume per hour, active users per hour and top authors, read from the materialised
+ * analytics collections.
+ * *******************************************************
+ */
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("api/admin/analytics")
+public class AdminAnalyticsController {
+
+    private static final int MAX_HOURS = 24 * 31;
+    private static final int MAX_TOP = 100;
+
+    /**
+     * Incrementally maintained quote analytics.
+     */
+    private final QuoteAnalyticsService analytics;
+
+    /**
+     * Returns the quote dashboard data. Counts lag real time by up to two flush intervals.
+     *
+     * @param hours most recent hours to include (1 to 744)
+     * @param top   number of top authors (1 to 100)
+     * @return the hourly series and the top authors
+     */
+    @GetMapping("/quotes")
+    public ResponseEntity<QuoteAnalyticsResponse> quotes(@RequestParam(defaultValue = "24") int hours,
+                                                         @RequestParam(defaultValue = "10") int top) {
+        return ResponseEntity.ok(analytics.read(
+                Math.max(1, Math.min(hours, MAX_HOURS)),
+                Math.max(1, Math.min(top, MAX_TOP))));
+    }
+}
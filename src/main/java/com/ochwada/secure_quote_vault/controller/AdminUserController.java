@@ -0,0 +1,70 @@
+package com.ochwada.secure_quote_vault.controller;
+
+
+import com.ochwada.secure_quote_vault.service.UserImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.controller
+ * File: AdminUserController.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 7:20 PM
+ * Description: Admin-only user management endpoints under {@code /api/admin/users} ({@code ADMIN} or
+ * {@code SUPER_ADMIN}, enforced in {@code SecurityConfig}).
+ * - {@code POST /import}: bulk account creation from a CSV or NDJSON upload.
+ * *******************************************************
+ */
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("api/admin/users")
+public class AdminUserController {
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    /**
+     * Streams, validates, hashes and inserts the uploaded users.
+     */
+    private final UserImportService importService;
+
+    /**
+     * Imports users from the request body and streams an NDJSON report back while the import runs.
+     * *
+     * The upload is read line by line, never buffered whole; the report is flushed after every batch so clients
+     * see progress on large files. Runs on the request thread: no async timeout applies to long imports.
+     *
+     * @param request  the upload ({@code text/csv} or {@code application/x-ndjson})
+     * @param response the NDJSON report
+     * @throws IOException if reading the upload or writing the report fails
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", NDJSON}, produces = NDJSON)
+    public void importUsers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean csv = request.getContentType().toLowerCase().startsWith("text/csv");
+
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        BufferedReader input = new BufferedReader(
+                new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+        Writer report = new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8);
+
+        if (!importService.importUsers(input, csv, report)) {
+            response.setStatus(HttpStatus.CONFLICT.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "60");
+            report.write("{\"type\":\"error\",\"message\":\"Another import is running\"}\n");
+        }
+        report.flush();
+    }
+}
@@ -1,21 +1,41 @@
 package com.ochwada.secure_quote_vault.controller;
 
 
+import com.ochwada.secure_quote_vault.audit.AuditEvent;
+import com.ochwada.secure_quote_vault.audit.AuditLog;
+import com.ochwada.secure_quote_vault.deadline.DeadlineExceededException;
 import com.ochwada.secure_quote_vault.dto.JWTResponse;
+import com.ochwada.secure_quote_vault.dto.RefreshRequest;
 import com.ochwada.secure_quote_vault.dto.SigninRequest;
 import com.ochwada.secure_quote_vault.dto.SignupRequest;
+import com.ochwada.secure_quote_vault.dto.UsernameAvailabilityResponse;
+import com.ochwada.secure_quote_vault.invalidation.InvalidationBus;
 import com.ochwada.secure_quote_vault.mapper.UserMapper;
 import com.ochwada.secure_quote_vault.model.User;
 import com.ochwada.secure_quote_vault.repository.UserRepository;
 import com.ochwada.secure_quote_vault.security.JWTUtil;
+import com.ochwada.secure_quote_vault.security.LoginThrottle;
+import com.ochwada.secure_quote_vault.security.RefreshTokenService;
+import com.ochwada.secure_quote_vault.security.TokenRevocationList;
+import com.ochwada.secure_quote_vault.service.UsernameAvailabilityService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.*;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * *******************************************************
  * Package: com.ochwada.secure_quote_vault.controller
@@ -45,56 +65,180 @@ public class AuthController {
     // Utility class for generating and validating JWT tokens
     private final JWTUtil jwtUtil;
 
+    // Brute-force / credential-stuffing throttle, checked before any password hashing
+    private final LoginThrottle loginThrottle;
+
+    // Tells every node that a user changed, so cached user details are dropped
+    private final InvalidationBus invalidationBus;
+
+    // Bloom filter of existing usernames: definite "available" answers skip MongoDB
+    private final UsernameAvailabilityService usernameAvailability;
+
+    // Revoked token ids, checked by the JWT filter on every request
+    private final TokenRevocationList revocationList;
+
+    // Rotating, single-use refresh tokens behind the short-lived access tokens
+    private final RefreshTokenService refreshTokens;
+
+    // Asynchronous security audit trail (sign-ins and signups)
+    private final AuditLog auditLog;
+
 
     /**
      * Registers a new user with the system.
      * *
      * Validates the incoming signup request, checks if the username is already taken,
      * hashes the password, assigns a default role, and persists the user.
+     * The "taken" pre-check (which saves the BCrypt cost) only queries MongoDB when the username Bloom filter says it
+     * might exist; the unique username index is the final check, so concurrent signups for one name get a single
+     * winner.
      *
-     * @param request the {@link SignupRequest} containing user registration data
+     * @param request     the {@link SignupRequest} containing user registration data
+     * @param httpRequest the raw HTTP request (client IP, for the audit log)
      * @return a {@link ResponseEntity} indicating success or failure
      */
     @PostMapping("/signup")
-    public ResponseEntity<String> registerUser(@Valid @RequestBody SignupRequest request) {
+    public ResponseEntity<String> registerUser(@Valid @RequestBody SignupRequest request,
+                                               HttpServletRequest httpRequest) {
+        String clientIp = httpRequest.getRemoteAddr();
 
-        // Check if the username already exists in the database
-        if (userRepository.existsByUsername(request.getUsername())) {
+        // Check if the username already exists (Bloom filter first, database only on a possible hit)
+        if (!usernameAvailability.isAvailable(request.getUsername())) {
+            auditLog.record(AuditEvent.Type.SIGNUP, request.getUsername(), "taken", clientIp, null);
             return ResponseEntity.badRequest().body("Username already taken");
         }
 
         // Map request to User entity and encode the password
         User user = UserMapper.toUser(request, passwordEncoder);
 
-        // Save the new user to the database
-        userRepository.save(user);
+        // Insert the new user; the unique index rejects a username taken since the check
+        try {
+            userRepository.insert(user);
+        } catch (DuplicateKeyException e) {
+            auditLog.record(AuditEvent.Type.SIGNUP, request.getUsername(), "taken", clientIp, null);
+            return ResponseEntity.badRequest().body("Username already taken");
+        }
+        invalidationBus.publish(InvalidationBus.USERS, user.getUsername());
+        auditLog.record(AuditEvent.Type.SIGNUP, user.getUsername(), "success", clientIp, null);
 
         return ResponseEntity.ok("User registered successfully");
     }
 
+    /**
+     * Tells a signup form whether a username is still free.
+     * *
+     * Most free names are answered from memory; only possible hits are confirmed in MongoDB.
+     *
+     * @param username the wanted username
+     * @return the username and whether it is available
+     */
+    @GetMapping("/username-available")
+    public ResponseEntity<UsernameAvailabilityResponse> usernameAvailable(@RequestParam String username) {
+        return ResponseEntity.ok(
+                new UsernameAvailabilityResponse(username, usernameAvailability.isAvailable(username)));
+    }
+
     /**
      * Authenticates a user and issues a JWT token upon successful login.
      * *
      * Validates the user's credentials using the {@link AuthenticationManager},
-     * then generates a signed JWT for stateless authentication.
+     * then generates a signed, short-lived JWT for stateless authentication plus a refresh token to renew it.
+     * Usernames or client IPs locked out by the {@link LoginThrottle} are rejected with {@code 429} before the
+     * password is hashed.
      *
-     * @param request the {@link SigninRequest} containing login credentials
-     * @return a {@link ResponseEntity} containing the JWT token if successful
+     * @param request     the {@link SigninRequest} containing login credentials
+     * @param httpRequest the raw HTTP request (client IP)
+     * @return a {@link ResponseEntity} containing the JWT and refresh tokens if successful
      */
     @PostMapping("/signin")
-    public ResponseEntity<JWTResponse> login(@Valid @RequestBody SigninRequest request) {
+    public ResponseEntity<JWTResponse> login(@Valid @RequestBody SigninRequest request,
+                                             HttpServletRequest httpRequest) {
+        String clientIp = httpRequest.getRemoteAddr();
+
+        // Reject locked-out usernames / IPs before any BCrypt work
+        long lockedForNanos = loginThrottle.check(request.getUsername(), clientIp);
+        if (lockedForNanos > 0) {
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(lockedForNanos + 999_999_999L));
+            auditLog.record(AuditEvent.Type.SIGNIN, request.getUsername(), "locked", clientIp, null);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .build();
+        }
+
         // Authenticate the user using Spring Security
-        authManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getUsername(),
-                        request.getPassword())
-        );
+        try {
+            authManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            request.getUsername(),
+                            request.getPassword())
+            );
+        } catch (AuthenticationException e) {
+            // The user lookup ran out of time: not a wrong password, so it doesn't count against the throttle
+            if (e instanceof InternalAuthenticationServiceException
+                    && e.getCause() instanceof DeadlineExceededException deadlineExceeded) {
+                throw deadlineExceeded;
+            }
+            loginThrottle.recordFailure(request.getUsername(), clientIp);
+            auditLog.record(AuditEvent.Type.SIGNIN, request.getUsername(), "failed", clientIp,
+                    e.getClass().getSimpleName());
+            throw e;
+        }
+        loginThrottle.recordSuccess(request.getUsername());
+        auditLog.record(AuditEvent.Type.SIGNIN, request.getUsername(), "success", clientIp, null);
 
         // Generate a JWT token after successful authentication
         String token = jwtUtil.generateToken(request.getUsername());
 
-        // Return the token in a response DTO
-        return ResponseEntity.ok(new JWTResponse(token));
+        // Return the tokens in a response DTO
+        return ResponseEntity.ok(new JWTResponse(token, refreshTokens.issue(request.getUsername())));
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token.
+     * *
+     * The presented refresh token is used up; presenting it again revokes every token of its family.
+     *
+     * @param request the {@link RefreshRequest} with the current refresh token
+     * @return new tokens, or {@code 401} if the refresh token is unknown, expired or already used
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<JWTResponse> refresh(@Valid @RequestBody RefreshRequest request) {
+        return refreshTokens.rotate(request.getRefreshToken())
+                .map(rotation -> ResponseEntity.ok(
+                        new JWTResponse(jwtUtil.generateToken(rotation.username()), rotation.refreshToken())))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+    }
+
+    /**
+     * Logs out by revoking the presented token on every node until it expires, and ends the refresh token family
+     * if a refresh token is sent along.
+     *
+     * @param authHeader {@code Authorization: Bearer <jwt_token>}
+     * @param request    optional {@link RefreshRequest} with the session's refresh token
+     * @return {@code 204} once revoked, {@code 401} if no valid token was presented
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false)
+                                       String authHeader,
+                                       @RequestBody(required = false) RefreshRequest request) {
+        if (request != null && request.getRefreshToken() != null) {
+            refreshTokens.revoke(request.getRefreshToken());
+        }
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        Claims claims;
+        try {
+            claims = jwtUtil.parseClaims(authHeader.substring(7));
+        } catch (JwtException | IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (claims.getId() == null) {
+            // Issued before token ids existed; it can only run out
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        revocationList.revoke(claims.getId(), claims.getExpiration());
+        return ResponseEntity.noContent().build();
     }
 
 }
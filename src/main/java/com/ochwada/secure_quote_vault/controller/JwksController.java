@@ -0,0 +1,48 @@
+package com.ochwada.secure_quote_vault.controller;
+
+
+import com.ochwada.secure_quote_vault.security.SigningKeyStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.controller
+ * File: JwksController.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 9:00 PM
+ * Description: Publishes the public ES256 token keys as a JSON Web Key Set, so other services verify tokens locally.
+ * - Includes keys about to sign (published ahead) and retiring keys still inside their overlap window.
+ * - Empty while {@code jwt.signing-algorithm=HS256}.
+ * *******************************************************
+ */
+
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    /**
+     * Source of the currently published keys.
+     */
+    private final SigningKeyStore keyStore;
+
+    /**
+     * Returns the JWKS. Cacheable for 5 minutes: new keys are published {@code jwt.key-publish-ahead} (10 minutes by
+     * default) before they sign, so a cached set never misses a key in use.
+     *
+     * @return {@code {"keys": [...]}}
+     */
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, List<Map<String, Object>>>> jwks() {
+        List<Map<String, Object>> keys = keyStore.publishedKeys().stream().map(SigningKeyStore::toJwk).toList();
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                .body(Map.of("keys", keys));
+    }
+}
@@ -1,6 +1,7 @@
 package com.ochwada.secure_quote_vault.controller;
 
 
+import com.ochwada.secure_quote_vault.idempotency.IdempotencyService;
 import com.ochwada.secure_quote_vault.model.Quote;
 import com.ochwada.secure_quote_vault.service.QuoteService;
 import lombok.RequiredArgsConstructor;
@@ -19,6 +20,8 @@ import java.util.List;
  * Date: Friday, 25.Jul.2025, 4:41 PM
  * Description: Rest Controller to expose/ for handling quote-related endpoints
  * - This controller provides endpoints to fetch a random quote from an external source and to retrieve all stored quotes.
+ * - {@code /random} honours an {@code Idempotency-Key} header: retries with the same key return the first result
+ * (marked {@code Idempotent-Replayed: true}) instead of fetching and storing another quote.
  * *******************************************************
  */
 
@@ -26,24 +29,50 @@ import java.util.List;
 @RequiredArgsConstructor
 @RequestMapping("api/quotes")
 public class QuoteController {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
     /**
      * Service layer for handling quote-related business logic.
      */
     private final QuoteService service;
 
+    /**
+     * Single-flight execution of requests carrying the same {@code Idempotency-Key}.
+     */
+    private final IdempotencyService idempotency;
+
     /**
      * Fetches a random quote from the external API, attaches the current user's name,
      * saves it to the database, and returns it as the response.
+     * *
+     * With an {@code Idempotency-Key}, concurrent and repeated calls of the same user with that key share one fetch.
      *
      * @param authentication the Spring Security authentication object
-     * @return the newly saved {@link Quote}
+     * @param idempotencyKey optional client-chosen key identifying retries of one logical request
+     * @return the newly saved (or, for a repeated key, the previously saved) {@link Quote}
      * @throws IOException if the external API response cannot be parsed
      */
     @GetMapping("/random")
-    public ResponseEntity<Quote> getQuote(Authentication authentication) throws IOException {
+    public ResponseEntity<Quote> getQuote(Authentication authentication,
+                                          @RequestHeader(value = IDEMPOTENCY_KEY, required = false)
+                                          String idempotencyKey) throws IOException {
         String username = authentication.getName();
-        Quote quote = service.fetchAndSaveQuote(username);
-        return ResponseEntity.ok(quote);
+        if (idempotencyKey == null) {
+            Quote quote = service.fetchAndSaveQuote(username);
+            return ResponseEntity.ok(quote);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        IdempotencyService.Outcome outcome =
+                idempotency.execute(username, idempotencyKey, () -> service.fetchAndSaveQuote(username));
+        return ResponseEntity.ok()
+                .header("Idempotent-Replayed", String.valueOf(outcome.replayed()))
+                .body(outcome.quote());
     }
 
     /**
@@ -0,0 +1,60 @@
+package com.ochwada.secure_quote_vault.deadline;
+
+
+import java.time.Duration;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.deadline
+ * File: Deadline.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 4:50 PM
+ * Description: Absolute point in time ({@link System#nanoTime()} based) by which a request must be answered.
+ * - Bound to the request thread through {@link #current()}, set by {@link DeadlineFilter}.
+ * *******************************************************
+ */
+
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    /**
+     * @param timeout time budget from now
+     * @return a deadline {@code timeout} from now
+     */
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * @return the deadline of the request running on this thread, or {@code null} outside a request
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    static void bind(Deadline deadline) {
+        CURRENT.set(deadline);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return time left, never negative
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, expiresAtNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+}
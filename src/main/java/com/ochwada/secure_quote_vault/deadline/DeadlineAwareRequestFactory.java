@@ -0,0 +1,48 @@
+package com.ochwada.secure_quote_vault.deadline;
+
+
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.deadline
+ * File: DeadlineAwareRequestFactory.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 5:10 PM
+ * Description: {@code HttpURLConnection} factory that shrinks the connect/read timeouts of each outgoing call to the
+ * time left on the current request's {@link Deadline}, so an upstream call never outlives its caller.
+ * *******************************************************
+ */
+
+public class DeadlineAwareRequestFactory extends SimpleClientHttpRequestFactory {
+
+    private final int connectTimeout;
+    private final int readTimeout;
+
+    public DeadlineAwareRequestFactory(int connectTimeout, int readTimeout) {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        setConnectTimeout(connectTimeout);
+        setReadTimeout(readTimeout);
+    }
+
+    @Override
+    protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+        super.prepareConnection(connection, httpMethod);
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return;
+        }
+        long remainingMillis = deadline.remaining().toMillis();
+        if (remainingMillis <= 0) {
+            throw new SocketTimeoutException("Request deadline exceeded before the upstream call");
+        }
+        // 0 would mean "no timeout" for HttpURLConnection, hence the lower bound of 1 ms
+        connection.setConnectTimeout((int) Math.max(1, Math.min(connectTimeout, remainingMillis)));
+        connection.setReadTimeout((int) Math.max(1, Math.min(readTimeout, remainingMillis)));
+    }
+}
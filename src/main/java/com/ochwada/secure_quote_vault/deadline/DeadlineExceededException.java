@@ -0,0 +1,37 @@
+package com.ochwada.secure_quote_vault.deadline;
+
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.deadline
+ * File: DeadlineExceededException.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 4:55 PM
+ * Description: Thrown when a request runs out of time before (or during) a pipeline stage. The remaining stages are
+ * abandoned and the client receives {@code 504 Gateway Timeout}.
+ * *******************************************************
+ */
+
+@Getter
+@ResponseStatus(value = HttpStatus.GATEWAY_TIMEOUT, reason = "Request deadline exceeded")
+public class DeadlineExceededException extends RuntimeException {
+
+    /**
+     * Pipeline stage that could not be started or finished in time (e.g. {@code upstream}, {@code mongo.insert}).
+     */
+    private final String stage;
+
+    public DeadlineExceededException(String stage) {
+        super("Request deadline exceeded before/during stage '" + stage + "'");
+        this.stage = stage;
+    }
+
+    public DeadlineExceededException(String stage, Throwable cause) {
+        super("Request deadline exceeded during stage '" + stage + "'", cause);
+        this.stage = stage;
+    }
+}
@@ -0,0 +1,72 @@
+package com.ochwada.secure_quote_vault.deadline;
+
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.deadline
+ * File: DeadlineFilter.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 5:05 PM
+ * Description: Gives every request a {@link Deadline}.
+ * - Taken from the client's {@code X-Request-Timeout} header (milliseconds) when present, capped at
+ * {@code deadline.max-timeout}; otherwise {@code deadline.default-timeout}.
+ * - Runs before security so the user lookup, upstream call and Mongo operations all see the same budget.
+ * *******************************************************
+ */
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
+    @Value("${deadline.default-timeout:10s}")
+    private Duration defaultTimeout;
+
+    @Value("${deadline.max-timeout:30s}")
+    private Duration maxTimeout;
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        Deadline.bind(Deadline.after(timeoutFor(request)));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Deadline.unbind();
+        }
+    }
+
+    private Duration timeoutFor(HttpServletRequest request) {
+        String header = request.getHeader(TIMEOUT_HEADER);
+        if (header != null) {
+            try {
+                long millis = Long.parseLong(header.trim());
+                if (millis > 0) {
+                    Duration requested = Duration.ofMillis(millis);
+                    return requested.compareTo(maxTimeout) < 0 ? requested : maxTimeout;
+                }
+            } catch (NumberFormatException ignored) {
+                // malformed header: fall back to the default budget
+            }
+        }
+        return defaultTimeout;
+    }
+}
@@ -0,0 +1,68 @@
+package com.ochwada.secure_quote_vault.deadline;
+
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.deadline
+ * File: DeadlineGuard.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 5:00 PM
+ * Description: Checkpoints for the current request's {@link Deadline}, used between pipeline stages.
+ * - Every abandoned request is counted as {@code deadline.exceeded}, tagged with the stage.
+ * *******************************************************
+ */
+
+@Component
+@RequiredArgsConstructor
+public class DeadlineGuard {
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Throws if the current request has no time left to start {@code stage}.
+     *
+     * @param stage name of the stage about to start
+     * @throws DeadlineExceededException if the deadline has passed
+     */
+    public void checkpoint(String stage) {
+        Deadline deadline = Deadline.current();
+        if (deadline != null && deadline.isExpired()) {
+            throw exceeded(stage, null);
+        }
+    }
+
+    /**
+     * @return the time left for the current request, if it has a deadline
+     */
+    public Optional<Duration> remaining() {
+        return Optional.ofNullable(Deadline.current()).map(Deadline::remaining);
+    }
+
+    /**
+     * @return {@code true} if the current request has a deadline and it has passed
+     */
+    public boolean isExpired() {
+        Deadline deadline = Deadline.current();
+        return deadline != null && deadline.isExpired();
+    }
+
+    /**
+     * Counts and builds the exception for a stage that ran out of time.
+     */
+    public DeadlineExceededException exceeded(String stage, Throwable cause) {
+        Counter.builder("deadline.exceeded")
+                .description("Requests abandoned because their deadline passed")
+                .tag("stage", stage)
+                .register(meterRegistry)
+                .increment();
+        return cause == null ? new DeadlineExceededException(stage) : new DeadlineExceededException(stage, cause);
+    }
+}
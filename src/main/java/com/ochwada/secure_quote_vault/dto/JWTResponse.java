@@ -18,5 +18,13 @@ import lombok.*;
 @Setter
 @AllArgsConstructor
 public class JWTResponse {
+    /**
+     * Short-lived access token (bearer JWT).
+     */
     private String token;
+
+    /**
+     * Single-use refresh token for {@code /auth/refresh}; rotated on every use.
+     */
+    private String refreshToken;
 }
@@ -0,0 +1,46 @@
+package com.ochwada.secure_quote_vault.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.dto
+ * File: QuoteAnalyticsResponse.java
+ * Author: Ochwada
+ * Date: Tuesday, 20.Oct.2026, 1:20 AM
+ * Description: Response of {@code GET /api/admin/analytics/quotes}.
+ * - {@code hourly}: fetches and distinct active users per hour, oldest first (hours without fetches are omitted).
+ * - {@code topAuthors}: most-fetched authors of all time.
+ * *******************************************************
+ */
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class QuoteAnalyticsResponse {
+    private int hours;
+    private long fetches;
+    private List<HourlyBucket> hourly;
+    private List<AuthorCount> topAuthors;
+
+    @Getter
+    @AllArgsConstructor
+    public static class HourlyBucket {
+        private Instant hour;
+        private long fetches;
+        private long activeUsers;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class AuthorCount {
+        private String author;
+        private long fetches;
+    }
+}
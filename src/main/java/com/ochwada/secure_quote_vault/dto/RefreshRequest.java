@@ -0,0 +1,22 @@
+package com.ochwada.secure_quote_vault.dto;
+
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.dto
+ * File: RefreshRequest.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 8:10 PM
+ * Description: DTO carrying a refresh token, for {@code /auth/refresh} and {@code /auth/logout}.
+ * *******************************************************
+ */
+
+@Getter
+@Setter
+public class RefreshRequest {
+    @NotBlank(message = "Refresh token is required")
+    private String refreshToken;
+}
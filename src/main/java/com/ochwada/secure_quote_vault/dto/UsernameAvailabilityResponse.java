@@ -0,0 +1,22 @@
+package com.ochwada.secure_quote_vault.dto;
+
+
+import lombok.*;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.dto
+ * File: UsernameAvailabilityResponse.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 6:35 PM
+ * Description: Response of {@code GET /auth/username-available}.
+ * *******************************************************
+ */
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class UsernameAvailabilityResponse {
+    private String username;
+    private boolean available;
+}
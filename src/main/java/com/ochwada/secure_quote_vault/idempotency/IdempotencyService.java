@@ -0,0 +1,336 @@
+package com.ochwada.secure_quote_vault.idempotency;
+
+
+import com.ochwada.secure_quote_vault.deadline.DeadlineGuard;
+import com.ochwada.secure_quote_vault.model.Quote;
+import com.ochwada.secure_quote_vault.mongo.RequiredIndexes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.idempotency
+ * File: IdempotencyService.java
+ * Author: Ochwada
+ * Date: Tuesday, 20.Oct.2026, 1:45 AM
+ * Description: Collapses retried {@code /api/quotes/random} calls that carry the same {@code Idempotency-Key} (per
+ * user) into one upstream fetch and one insert.
+ * - On this node: a bounded single-flight table ({@code idempotency.max-entries}). Concurrent requests with the same
+ * key wait for the first one; later ones get its result until {@code idempotency.window} has passed.
+ * - Across nodes: the {@code idempotency_keys} collection, keyed by {@code _id: {user, key}} so no user and key pair
+ * can stand for another. The executing request claims the key with an insert ({@code pending}), stores the quote when
+ * done ({@code done}); other nodes wait for it or replay the stored quote. Documents expire through a TTL index.
+ * - A failed execution releases its claim, so the client's next retry runs again. A claim left {@code pending} by a
+ * crashed node is taken over after {@code idempotency.pending-timeout}.
+ * - A quote that could not be stored is still returned (it was fetched and saved); the claim is released, so other
+ * nodes stop waiting, and only this node replays it.
+ * - Waiting is bounded by the request deadline ({@link DeadlineGuard}).
+ * - With a full table the local step is skipped; the collection still deduplicates.
+ * *******************************************************
+ */
+
+@Slf4j
+@Component
+public class IdempotencyService implements RequiredIndexes {
+
+    public static final String COLLECTION = "idempotency_keys";
+
+    private static final long POLL_MILLIS = 50;
+
+    /**
+     * Work to run at most once per key.
+     */
+    @FunctionalInterface
+    public interface QuoteCall {
+        Quote call() throws IOException;
+    }
+
+    /**
+     * @param quote    the result
+     * @param replayed {@code true} if another request with the same key produced it
+     */
+    public record Outcome(Quote quote, boolean replayed) {
+    }
+
+    private record InFlight(CompletableFuture<Quote> result, long expiresAtNanos) {
+    }
+
+    /**
+     * One client key of one user; also the {@code _id} of its document.
+     */
+    private record Key(String username, String idempotencyKey) {
+
+        Document toId() {
+            return new Document("user", username).append("key", idempotencyKey);
+        }
+
+        @Override
+        public String toString() {
+            return username + "/" + idempotencyKey;
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final DeadlineGuard deadlineGuard;
+
+    private final Counter executed;
+    private final Counter joined;
+    private final Counter replayed;
+    private final Counter bypassed;
+    private final Counter storeFailed;
+
+    private final Map<Key, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${idempotency.window:10m}")
+    private Duration window;
+
+    @Value("${idempotency.pending-timeout:30s}")
+    private Duration pendingTimeout;
+
+    @Value("${idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    public IdempotencyService(MongoTemplate mongoTemplate, DeadlineGuard deadlineGuard, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.deadlineGuard = deadlineGuard;
+        this.executed = requestCounter(meterRegistry, "executed");
+        // Waited for a request with the same key on this node
+        this.joined = requestCounter(meterRegistry, "joined");
+        // Served from the collection (finished on another node, or by an earlier request)
+        this.replayed = requestCounter(meterRegistry, "replayed");
+        // Local table full: deduplicated through the collection only
+        this.bypassed = requestCounter(meterRegistry, "bypassed");
+        this.storeFailed = Counter.builder("idempotency.store.failed")
+                .description("Executed requests whose result could not be stored for replay")
+                .register(meterRegistry);
+    }
+
+    /**
+     * {@code expiresAt} is the pending timeout while a key is claimed and the replay window once it is done; the TTL
+     * index deletes the key after either.
+     */
+    @Override
+    public List<RequiredIndex> requiredIndexes() {
+        return List.of(new RequiredIndex(COLLECTION, new Index().on("expiresAt", Sort.Direction.ASC).expire(0)));
+    }
+
+    /**
+     * Runs {@code call} unless a request with the same user and key already did (or is doing) so.
+     *
+     * @param username       the authenticated user
+     * @param idempotencyKey the client's {@code Idempotency-Key}
+     * @param call           the work to run once
+     * @return the (possibly shared) result
+     * @throws IOException if the call fails
+     * @throws com.ochwada.secure_quote_vault.deadline.DeadlineExceededException if the request runs out of time
+     *                                                                           while waiting for another one
+     */
+    public Outcome execute(String username, String idempotencyKey, QuoteCall call) throws IOException {
+        Key id = new Key(username, idempotencyKey);
+
+        if (inFlight.size() >= maxEntries && !inFlight.containsKey(id)) {
+            purgeExpired();
+            if (inFlight.size() >= maxEntries) {
+                bypassed.increment();
+                return executeShared(id, call);
+            }
+        }
+
+        long now = System.nanoTime();
+        InFlight[] created = new InFlight[1];
+        InFlight entry = inFlight.compute(id, (key, current) -> {
+            if (current != null && current.expiresAtNanos() - now > 0) {
+                return current;
+            }
+            created[0] = new InFlight(new CompletableFuture<>(), now + pendingTimeout.toNanos());
+            return created[0];
+        });
+
+        if (created[0] == null) {
+            joined.increment();
+            return new Outcome(await(entry.result()), true);
+        }
+
+        try {
+            Outcome outcome = executeShared(id, call);
+            entry.result().complete(outcome.quote());
+            // Keep the finished result for local repeats until the window closes
+            inFlight.replace(id, entry, new InFlight(entry.result(), System.nanoTime() + window.toNanos()));
+            return outcome;
+        } catch (IOException | RuntimeException e) {
+            entry.result().completeExceptionally(e);
+            inFlight.remove(id, entry);
+            throw e;
+        }
+    }
+
+    /**
+     * Removes expired entries so finished keys don't hold a slot.
+     */
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval:60000}")
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        inFlight.values().removeIf(entry -> entry.result().isDone() && entry.expiresAtNanos() - now <= 0);
+    }
+
+    /**
+     * Claims the key in the collection and runs the call, or waits for / replays the request that holds it.
+     */
+    private Outcome executeShared(Key id, QuoteCall call) throws IOException {
+        while (true) {
+            String claim = claim(id);
+            if (claim != null) {
+                Quote quote;
+                try {
+                    quote = call.call();
+                } catch (IOException | RuntimeException e) {
+                    release(id, claim);
+                    throw e;
+                }
+                executed.increment();
+                try {
+                    store(id, quote);
+                } catch (RuntimeException e) {
+                    // The quote exists; failing now would only make the client fetch another one
+                    storeFailed.increment();
+                    log.warn("idempotency.store.failed", kv("key", id), e);
+                    release(id, claim);
+                }
+                return new Outcome(quote, false);
+            }
+
+            Document existing = mongoTemplate.findOne(byId(id), Document.class, COLLECTION);
+            if (existing != null && "done".equals(existing.getString("status"))) {
+                replayed.increment();
+                return new Outcome(mongoTemplate.getConverter().read(Quote.class, existing.get("quote", Document.class)),
+                        true);
+            }
+
+            // Pending elsewhere (or released a moment ago): wait and look again
+            if (deadlineGuard.isExpired()) {
+                throw deadlineGuard.exceeded("idempotency.wait", null);
+            }
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for idempotency key");
+            }
+        }
+    }
+
+    /**
+     * @return a claim token if this request now owns the key, {@code null} if another request does
+     */
+    private String claim(Key id) {
+        String token = UUID.randomUUID().toString();
+        Date pendingUntil = new Date(System.currentTimeMillis() + pendingTimeout.toMillis());
+        try {
+            mongoTemplate.insert(new Document("_id", id.toId())
+                    .append("status", "pending")
+                    .append("claim", token)
+                    .append("expiresAt", pendingUntil), COLLECTION);
+            return token;
+        } catch (DuplicateKeyException e) {
+            // Take over a claim whose owner never finished (crashed node); the TTL monitor may not have run yet
+            Document stale = mongoTemplate.findAndModify(
+                    Query.query(Criteria.where("_id").is(id.toId())
+                            .and("status").is("pending").and("expiresAt").lt(new Date())),
+                    new Update().set("claim", token).set("expiresAt", pendingUntil),
+                    FindAndModifyOptions.options().returnNew(true),
+                    Document.class,
+                    COLLECTION);
+            if (stale != null) {
+                log.warn("idempotency.claim.taken_over", kv("key", id));
+                return token;
+            }
+            return null;
+        }
+    }
+
+    private void store(Key id, Quote quote) {
+        Document stored = new Document();
+        mongoTemplate.getConverter().write(quote, stored);
+        mongoTemplate.updateFirst(byId(id),
+                new Update().set("status", "done")
+                        .set("quote", stored)
+                        .set("expiresAt", new Date(System.currentTimeMillis() + window.toMillis())),
+                COLLECTION);
+    }
+
+    /**
+     * Best effort: the caller already has an outcome to report. If MongoDB is unreachable the claim expires after the
+     * pending timeout instead.
+     */
+    private void release(Key id, String claim) {
+        try {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(id.toId())
+                    .and("claim").is(claim).and("status").is("pending")), COLLECTION);
+        } catch (RuntimeException e) {
+            log.debug("idempotency.release.failed", kv("key", id), e);
+        }
+    }
+
+    private static Query byId(Key id) {
+        return Query.query(Criteria.where("_id").is(id.toId()));
+    }
+
+    /**
+     * Waits for the local request holding the key, within the request deadline (or the pending timeout).
+     */
+    private Quote await(CompletableFuture<Quote> result) throws IOException {
+        Duration timeout = deadlineGuard.remaining().orElse(pendingTimeout);
+        try {
+            return result.get(Math.max(0, timeout.toNanos()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw deadlineGuard.exceeded("idempotency.wait", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for idempotency key");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("idempotency.requests")
+                .description("Requests carrying an Idempotency-Key, by how they were served")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
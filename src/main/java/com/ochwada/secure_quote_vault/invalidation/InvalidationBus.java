@@ -0,0 +1,321 @@
+package com.ochwada.secure_quote_vault.invalidation;
+
+
+import com.mongodb.CursorType;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.invalidation
+ * File: InvalidationBus.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 5:30 PM
+ * Description: Cross-node cache invalidation over the capped {@code invalidation_events} collection.
+ * - {@link #publish} notifies the local subscribers straight away and inserts one small event document.
+ * - Every node tails the collection with a tailable-await cursor (works on a standalone {@code mongod}, no replica set
+ * needed) and hands events from other nodes to the subscribers of their topic.
+ * - The capped collection bounds the history; a node that restarts only follows events published after it came up.
+ * - Nothing is inserted until the collection is known to be capped: an insert into a missing collection would create a
+ * plain one, which can never be tailed. A plain collection left by an older version is converted in place.
+ * - Publish-to-delivery lag is recorded as {@code invalidation.lag} (wall clock, so it includes clock skew between
+ * nodes).
+ * - Caches still need a TTL: a lost event (Mongo down while publishing) only leaves an entry stale until it expires.
+ * *******************************************************
+ */
+
+@Slf4j
+@Component
+public class InvalidationBus {
+
+    public static final String COLLECTION = "invalidation_events";
+
+    /**
+     * Topic for user details / roles; the key is the username.
+     */
+    public static final String USERS = "users";
+
+    /**
+     * Topic for a user's quote list; the key is the username.
+     */
+    public static final String QUOTES = "quotes";
+
+    /**
+     * Identifies this instance, so a node skips its own events when tailing.
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<String, List<Consumer<String>>> subscribers = new ConcurrentHashMap<>();
+
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Timer lagTimer;
+
+    @Value("${invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${invalidation.collection-size-bytes:1048576}")
+    private long collectionSizeBytes;
+
+    @Value("${invalidation.max-events:10000}")
+    private long maxEvents;
+
+    private volatile boolean running;
+    private volatile boolean capped;
+    private Thread tailer;
+
+    public InvalidationBus(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.meterRegistry = meterRegistry;
+        this.lagTimer = Timer.builder("invalidation.lag")
+                .description("Time from publishing an invalidation event to its delivery on another node")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registers a listener for a topic. Listeners run on the bus thread (remote events) or the publishing thread
+     * (local events), so they must be quick and must not block.
+     *
+     * @param topic    e.g. {@link #USERS}
+     * @param listener receives the invalidated key
+     */
+    public void subscribe(String topic, Consumer<String> listener) {
+        subscribers.computeIfAbsent(topic, ignored -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Invalidates {@code key} on this node immediately and on every other node once they read the event.
+     * A failed insert is logged and counted, never thrown: the caller's write already succeeded and the other
+     * nodes fall back to their cache TTL.
+     *
+     * @param topic e.g. {@link #USERS}
+     * @param key   the changed entity (e.g. a username)
+     */
+    public void publish(String topic, String key) {
+        publishAll(topic, Collections.singletonList(key));
+    }
+
+    /**
+     * Like {@link #publish}, for many keys in one event (e.g. a bulk import).
+     *
+     * @param topic e.g. {@link #USERS}
+     * @param keys  the changed entities
+     */
+    public void publishAll(String topic, Collection<String> keys) {
+        for (String key : keys) {
+            dispatch(topic, key);
+        }
+        if (!enabled || keys.isEmpty()) {
+            return;
+        }
+        if (!ensureCappedCollection()) {
+            counter("invalidation.publish.failed", topic).increment();
+            log.warn("invalidation.publish.failed", kv("topic", topic), kv("keys", keys.size()));
+            return;
+        }
+        try {
+            mongoTemplate.getCollection(COLLECTION).insertOne(new Document("topic", topic)
+                    .append("keys", new ArrayList<>(keys))
+                    .append("origin", nodeId)
+                    .append("publishedAt", new Date()));
+            counter("invalidation.published", topic).increment();
+        } catch (MongoException | DataAccessException e) {
+            counter("invalidation.publish.failed", topic).increment();
+            log.warn("invalidation.publish.failed", kv("topic", topic), kv("keys", keys.size()), e);
+        }
+    }
+
+    /**
+     * Starts tailing; the bus thread keeps retrying until the capped collection exists. Until then only local
+     * subscribers see events.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        tailer = Thread.ofPlatform().daemon().name("invalidation-bus").start(this::tail);
+        log.info("invalidation.bus.started", kv("node", nodeId));
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (tailer != null) {
+            tailer.interrupt();
+        }
+    }
+
+    /**
+     * Makes sure {@link #COLLECTION} exists and is capped. Cheap once it succeeded; until then every caller retries.
+     *
+     * @return {@code false} if MongoDB could not be reached
+     */
+    boolean ensureCappedCollection() {
+        if (capped) {
+            return true;
+        }
+        try {
+            Document info = collectionInfo();
+            if (info == null) {
+                try {
+                    mongoTemplate.createCollection(COLLECTION,
+                            CollectionOptions.empty().capped().size(collectionSizeBytes).maxDocuments(maxEvents));
+                    // A tailable cursor on an empty capped collection dies at once; start with a marker
+                    mongoTemplate.getCollection(COLLECTION).insertOne(new Document("topic", "_bus")
+                            .append("origin", nodeId)
+                            .append("publishedAt", new Date()));
+                } catch (DataAccessException e) {
+                    // Another node created it first
+                    log.debug("invalidation.collection.exists", e);
+                }
+                info = collectionInfo();
+                if (info == null) {
+                    return false;
+                }
+            }
+            Document options = info.get("options", Document.class);
+            if (options == null || !Boolean.TRUE.equals(options.getBoolean("capped"))) {
+                log.warn("invalidation.collection.not_capped", kv("collection", COLLECTION));
+                mongoTemplate.getDb().runCommand(new Document("convertToCapped", COLLECTION)
+                        .append("size", collectionSizeBytes));
+            }
+            capped = true;
+            return true;
+        } catch (MongoException | DataAccessException e) {
+            log.warn("invalidation.collection.unavailable", e);
+            return false;
+        }
+    }
+
+    private Document collectionInfo() {
+        return mongoTemplate.getDb().listCollections().filter(Filters.eq("name", COLLECTION)).first();
+    }
+
+    /**
+     * Tail loop: resumes after the last seen {@code _id}, re-opening the cursor whenever the server drops it. If the
+     * newest {@code _id} could not be read at start, follows events published from then on instead of replaying the
+     * whole history.
+     */
+    private void tail() {
+        Date startedAt = new Date();
+        while (running && !ensureCappedCollection()) {
+            pause();
+        }
+        MongoCollection<Document> collection = mongoTemplate.getCollection(COLLECTION);
+        Object lastId = latestId(collection);
+        while (running) {
+            Bson filter = lastId == null ? Filters.gte("publishedAt", startedAt) : Filters.gt("_id", lastId);
+            try (MongoCursor<Document> cursor = collection.find(filter)
+                    .cursorType(CursorType.TailableAwait)
+                    .noCursorTimeout(true)
+                    .maxAwaitTime(1, TimeUnit.SECONDS)
+                    .iterator()) {
+                while (running) {
+                    Document event = cursor.tryNext();
+                    if (event == null) {
+                        if (cursor.getServerCursor() == null) {
+                            break;
+                        }
+                        continue;
+                    }
+                    lastId = event.get("_id");
+                    receive(event);
+                }
+            } catch (MongoException e) {
+                if (running) {
+                    log.warn("invalidation.tail.failed", e);
+                }
+            }
+            pause();
+        }
+    }
+
+    private Object latestId(MongoCollection<Document> collection) {
+        try {
+            Document last = collection.find().sort(Sorts.descending("$natural")).limit(1).first();
+            return last == null ? null : last.get("_id");
+        } catch (MongoException e) {
+            log.warn("invalidation.tail.failed", e);
+            return null;
+        }
+    }
+
+    private void receive(Document event) {
+        String topic = event.getString("topic");
+        if (nodeId.equals(event.getString("origin")) || !subscribers.containsKey(topic)) {
+            return;
+        }
+        Date publishedAt = event.getDate("publishedAt");
+        if (publishedAt != null) {
+            lagTimer.record(Math.max(0, System.currentTimeMillis() - publishedAt.getTime()), TimeUnit.MILLISECONDS);
+        }
+        counter("invalidation.received", topic).increment();
+        List<?> keys = event.getList("keys", Object.class);
+        if (keys == null) {
+            return;
+        }
+        for (Object key : keys) {
+            dispatch(topic, key == null ? null : key.toString());
+        }
+    }
+
+    private void dispatch(String topic, String key) {
+        List<Consumer<String>> listeners = subscribers.get(topic);
+        if (listeners == null) {
+            return;
+        }
+        for (Consumer<String> listener : listeners) {
+            try {
+                listener.accept(key);
+            } catch (RuntimeException e) {
+                log.warn("invalidation.listener.failed", kv("topic", topic), kv("key", key), e);
+            }
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(1_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private Counter counter(String name, String topic) {
+        return Counter.builder(name).tag("topic", topic).register(meterRegistry);
+    }
+}
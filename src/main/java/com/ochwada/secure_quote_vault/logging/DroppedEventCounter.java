@@ -0,0 +1,38 @@
+package com.ochwada.secure_quote_vault.logging;
+
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import net.logstash.logback.appender.listener.AppenderListener;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.logging
+ * File: DroppedEventCounter.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 1:05 PM
+ * Description: Listener attached to the asynchronous (ring buffer) appender in {@code logback-spring.xml}.
+ * - Counts every event the appender could not enqueue because the ring buffer was full. Logging never blocks a
+ * request thread; the loss is accounted for instead.
+ * - Logback instantiates the listener itself, so the count lives in a static adder read by {@link LoggingMetrics}.
+ * *******************************************************
+ */
+
+public class DroppedEventCounter implements AppenderListener<ILoggingEvent> {
+
+    private static final LongAdder DROPPED = new LongAdder();
+
+    @Override
+    public void eventAppendFailed(Appender<ILoggingEvent> appender, ILoggingEvent event, Throwable reason) {
+        DROPPED.increment();
+    }
+
+    /**
+     * @return total number of log events dropped since startup
+     */
+    public static long dropped() {
+        return DROPPED.sum();
+    }
+}
@@ -0,0 +1,33 @@
+package com.ochwada.secure_quote_vault.logging;
+
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.logging
+ * File: LoggingMetrics.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 1:15 PM
+ * Description: Exposes the asynchronous logging accounting as metrics.
+ * - {@code logging.events.dropped}: events lost because the ring buffer was full.
+ * - {@code logging.events.sampled}: events removed on purpose by {@link SamplingFilter}.
+ * *******************************************************
+ */
+
+@Component
+public class LoggingMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("logging.events.dropped", DroppedEventCounter.class, ignored -> DroppedEventCounter.dropped())
+                .description("Log events dropped because the async ring buffer was full")
+                .register(registry);
+        FunctionCounter.builder("logging.events.sampled", SamplingFilter.class, ignored -> SamplingFilter.sampledOut())
+                .description("Log events removed by sampling")
+                .register(registry);
+    }
+}
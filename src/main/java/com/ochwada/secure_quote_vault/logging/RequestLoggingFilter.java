@@ -0,0 +1,79 @@
+package com.ochwada.secure_quote_vault.logging;
+
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.logging
+ * File: RequestLoggingFilter.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 1:20 PM
+ * Description: Outermost filter that gives every request a correlation id and emits one structured
+ * {@code request.completed} event.
+ * - {@code requestId} is taken from a well-formed {@code X-Request-Id} header or generated, echoed back in the
+ * response and put on the MDC, so every log line of the request (JWT filter, services) carries it.
+ * - {@code user}, {@code upstreamMs} and {@code mongoMs} are added to the MDC further down the chain.
+ * - Runs before Spring Security, hence the highest precedence.
+ * *******************************************************
+ */
+
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestLoggingFilter extends OncePerRequestFilter {
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    /**
+     * Accepted shape of a client supplied request id (prevents log injection and unbounded values).
+     */
+    private static final Pattern VALID_REQUEST_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        if (requestId == null || !VALID_REQUEST_ID.matcher(requestId).matches()) {
+            requestId = UUID.randomUUID().toString();
+        }
+        MDC.put("requestId", requestId);
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            int status = response.getStatus();
+            if (status >= 500) {
+                log.warn("request.completed", kv("method", request.getMethod()), kv("path", request.getRequestURI()),
+                        kv("status", status), kv("durationMs", durationMs));
+            } else {
+                log.info("request.completed", kv("method", request.getMethod()), kv("path", request.getRequestURI()),
+                        kv("status", status), kv("durationMs", durationMs));
+            }
+            MDC.clear();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.ochwada.secure_quote_vault.logging;
+
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.logging
+ * File: SamplingFilter.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 1:10 PM
+ * Description: Logback filter that keeps only a fraction of high-volume events.
+ * - Applies to INFO and below from the configured logger prefixes (e.g. per-request and per-quote events).
+ * - WARN/ERROR are never sampled out. With {@code rate=1.0} (default) every event passes.
+ * - Runs on the producer side of the async appender, so rejected events never touch the ring buffer.
+ * *******************************************************
+ */
+
+public class SamplingFilter extends Filter<ILoggingEvent> {
+
+    private static final LongAdder SAMPLED_OUT = new LongAdder();
+
+    /**
+     * Logger name prefixes whose events are sampled.
+     */
+    private String[] loggers = new String[0];
+
+    /**
+     * Fraction (0.0 - 1.0) of matching events to keep.
+     */
+    private double rate = 1.0;
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        if (rate >= 1.0 || event.getLevel().isGreaterOrEqual(Level.WARN) || !matches(event.getLoggerName())) {
+            return FilterReply.NEUTRAL;
+        }
+        if (ThreadLocalRandom.current().nextDouble() < rate) {
+            return FilterReply.NEUTRAL;
+        }
+        SAMPLED_OUT.increment();
+        return FilterReply.DENY;
+    }
+
+    private boolean matches(String loggerName) {
+        for (String prefix : loggers) {
+            if (loggerName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void setLoggers(String loggers) {
+        this.loggers = Arrays.stream(loggers.split(","))
+                .map(String::trim)
+                .filter(prefix -> !prefix.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    public void setRate(double rate) {
+        this.rate = Math.max(0.0, Math.min(1.0, rate));
+    }
+
+    /**
+     * @return total number of events removed by sampling since startup
+     */
+    public static long sampledOut() {
+        return SAMPLED_OUT.sum();
+    }
+}
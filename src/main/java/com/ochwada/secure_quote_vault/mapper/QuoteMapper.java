@@ -0,0 +1,64 @@
+package com.ochwada.secure_quote_vault.mapper;
+
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ochwada.secure_quote_vault.model.Quote;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.mapper
+ * File: QuoteMapper.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 11:02 AM
+ * Description: Utility class for converting the upstream quote API payload into a {@link Quote} entity.
+ * - Kept free of Spring and I/O so the decoding step can be benchmarked and reused on its own.
+ * *******************************************************
+ */
+
+
+public class QuoteMapper {
+
+    /**
+     * Format of the upstream {@code createdAt} field. Immutable and thread-safe, so built once.
+     */
+    private static final DateTimeFormatter CREATED_AT_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
+
+    /**
+     * Decodes an upstream JSON payload into a {@link Quote} attributed to the given user.
+     *
+     * @param payload  the raw JSON body returned by the quote API
+     * @param mapper   the Jackson mapper used to parse the payload
+     * @param username the username of the person fetching the quote
+     * @return an unsaved {@link Quote}
+     * @throws IOException if the payload is not valid JSON
+     */
+    public static Quote fromUpstream(byte[] payload, ObjectMapper mapper, String username) throws IOException {
+        return fromUpstream(mapper.readTree(payload), username);
+    }
+
+    /**
+     * Maps an already parsed upstream JSON tree to a {@link Quote}.
+     *
+     * @param jsonNode the parsed payload
+     * @param username the username of the person fetching the quote
+     * @return an unsaved {@link Quote}
+     */
+    public static Quote fromUpstream(JsonNode jsonNode, String username) {
+        // Map to a Quote Object
+        Quote quote = new Quote();
+        quote.setQuoteString(jsonNode.get("quoteString").asText());
+        quote.setAuthor(jsonNode.get("author").asText());
+
+        // Parse and map createdAt date using the custom formatter
+        quote.setCreatedAt(LocalDateTime.parse(jsonNode.get("createdAt").asText(), CREATED_AT_FORMAT));
+
+        // Set the username of the person who fetched the quote
+        quote.setFetchedBy(username);
+        return quote;
+    }
+}
@@ -0,0 +1,55 @@
+package com.ochwada.secure_quote_vault.metrics;
+
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.metrics
+ * File: PoolCheckoutListener.java
+ * Author: Ochwada
+ * Date: Tuesday, 20.Oct.2026, 12:40 AM
+ * Description: Records how long requests wait for a MongoDB connection as {@code mongodb.driver.pool.checkout.wait}.
+ * - Tagged {@code outcome=success}, or {@code outcome=failed} with the failure {@code reason} (e.g. {@code TIMEOUT}
+ * when the pool is starved).
+ * - Pool size and in-use connections come from Spring Boot's {@code mongodb.driver.pool.size} and
+ * {@code mongodb.driver.pool.checkedout} gauges; a rising wait with {@code checkedout} at the pool maximum is
+ * starvation.
+ * *******************************************************
+ */
+
+public class PoolCheckoutListener implements ConnectionPoolListener {
+
+    private final MeterRegistry meterRegistry;
+    private final Timer checkedOut;
+
+    public PoolCheckoutListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.checkedOut = Timer.builder("mongodb.driver.pool.checkout.wait")
+                .description("Time waited to check a connection out of the MongoDB pool")
+                .tag("outcome", "success")
+                .tag("reason", "none")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        checkedOut.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        Timer.builder("mongodb.driver.pool.checkout.wait")
+                .description("Time waited to check a connection out of the MongoDB pool")
+                .tag("outcome", "failed")
+                .tag("reason", event.getReason().name())
+                .register(meterRegistry)
+                .record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,226 @@
+package com.ochwada.secure_quote_vault.metrics;
+
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.metrics
+ * File: SlowCommandListener.java
+ * Author: Ochwada
+ * Date: Tuesday, 20.Oct.2026, 12:30 AM
+ * Description: MongoDB driver {@link CommandListener} that logs slow commands and, for a sample of them, their query
+ * plan.
+ * - Commands taking at least {@code mongo.slow-command.threshold} are logged as {@code mongo.command.slow} (command,
+ * collection, server, duration; never the filter values) and counted as {@code mongodb.driver.commands.slow}.
+ * - A fraction ({@code mongo.slow-command.explain-sample-rate}) of explainable commands keep a copy of the command
+ * document; if one of them turns out slow, it is re-run as {@code explain} (queryPlanner only) on a background thread
+ * and the winning plan's stages are logged as {@code mongo.command.explain} - a {@code COLLSCAN} there is the
+ * missing index.
+ * - Per-command latency by collection and operation comes from Spring Boot's {@code mongodb.driver.commands} timer.
+ * *******************************************************
+ */
+
+@Slf4j
+public class SlowCommandListener implements CommandListener {
+
+    private static final Set<String> EXPLAINABLE = Set.of(
+            "find", "aggregate", "count", "distinct", "update", "delete", "findAndModify");
+
+    /**
+     * Command fields that belong to the session/transport, not the query, and must not be sent to {@code explain}.
+     */
+    private static final Set<String> NOT_EXPLAINABLE_FIELDS = Set.of(
+            "lsid", "txnNumber", "autocommit", "startTransaction", "apiVersion", "apiStrict", "apiDeprecationErrors");
+
+    private record Started(String command, String collection, String database, BsonDocument sampledCommand) {
+    }
+
+    private final long thresholdNanos;
+    private final double explainSampleRate;
+    private final Set<String> ignoredCommands;
+    private final ObjectProvider<MongoClient> mongoClient;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * In-flight commands by driver request id.
+     */
+    private final Map<Integer, Started> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * One background thread for explains; a full queue skips the explain rather than piling up work.
+     */
+    private final ThreadPoolExecutor explainer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(16), Thread.ofPlatform().daemon().name("mongo-explain").factory(),
+            new ThreadPoolExecutor.DiscardPolicy());
+
+    /**
+     * @param threshold         commands at least this slow are logged
+     * @param explainSampleRate fraction of explainable commands to explain when slow
+     * @param ignoredCommands   command names never logged (e.g. {@code getMore}, which waits on tailable cursors)
+     * @param mongoClient       the application client, resolved lazily (it is built with this listener)
+     * @param meterRegistry     registry for the slow command counter
+     */
+    public SlowCommandListener(Duration threshold, double explainSampleRate, Set<String> ignoredCommands,
+                               ObjectProvider<MongoClient> mongoClient, MeterRegistry meterRegistry) {
+        this.thresholdNanos = threshold.toNanos();
+        this.explainSampleRate = explainSampleRate;
+        this.ignoredCommands = ignoredCommands;
+        this.mongoClient = mongoClient;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        String command = event.getCommandName();
+        if (ignoredCommands.contains(command)) {
+            return;
+        }
+        BsonDocument sampled = null;
+        if (EXPLAINABLE.contains(command) && ThreadLocalRandom.current().nextDouble() < explainSampleRate) {
+            // The driver reuses the event's buffer once the command is sent: keep a copy
+            sampled = event.getCommand().clone();
+        }
+        inFlight.put(event.getRequestId(),
+                new Started(command, collectionOf(event), event.getDatabaseName(), sampled));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        Started started = inFlight.remove(event.getRequestId());
+        if (started == null) {
+            return;
+        }
+        long elapsedNanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        if (elapsedNanos < thresholdNanos) {
+            return;
+        }
+        String collection = started.collection() == null ? "unknown" : started.collection();
+        Counter.builder("mongodb.driver.commands.slow")
+                .description("MongoDB commands slower than mongo.slow-command.threshold")
+                .tag("command", started.command())
+                .tag("collection", collection)
+                .register(meterRegistry)
+                .increment();
+        log.warn("mongo.command.slow",
+                kv("command", started.command()),
+                kv("collection", collection),
+                kv("server", event.getConnectionDescription().getServerAddress().toString()),
+                kv("durationMs", TimeUnit.NANOSECONDS.toMillis(elapsedNanos)));
+        if (started.sampledCommand() != null) {
+            explainer.execute(() -> explain(started));
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        inFlight.remove(event.getRequestId());
+    }
+
+    private void explain(Started started) {
+        BsonDocument command = new BsonDocument();
+        for (Map.Entry<String, BsonValue> field : started.sampledCommand().entrySet()) {
+            if (!field.getKey().startsWith("$") && !NOT_EXPLAINABLE_FIELDS.contains(field.getKey())) {
+                command.append(field.getKey(), field.getValue());
+            }
+        }
+        try {
+            Document result = mongoClient.getObject().getDatabase(started.database())
+                    .runCommand(new BsonDocument("explain", command)
+                            .append("verbosity", new BsonString("queryPlanner")));
+            Document winningPlan = findWinningPlan(result);
+            List<String> stages = new ArrayList<>();
+            collectStages(winningPlan, stages);
+            log.info("mongo.command.explain",
+                    kv("command", started.command()),
+                    kv("collection", started.collection()),
+                    kv("plan", String.join(" <- ", stages)),
+                    kv("collectionScan", stages.contains("COLLSCAN")));
+        } catch (RuntimeException e) {
+            log.debug("mongo.command.explain.failed", kv("command", started.command()), e);
+        }
+    }
+
+    /**
+     * Finds {@code winningPlan} wherever the server nests it (top-level for {@code find}, inside the first pipeline
+     * stage for {@code aggregate}).
+     */
+    private static Document findWinningPlan(Object node) {
+        if (node instanceof Document document) {
+            Object plan = document.get("winningPlan");
+            if (plan instanceof Document found) {
+                return found.get("queryPlan") instanceof Document queryPlan ? queryPlan : found;
+            }
+            for (Object value : document.values()) {
+                Document found = findWinningPlan(value);
+                if (found != null) {
+                    return found;
+                }
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object value : list) {
+                Document found = findWinningPlan(value);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stage names from the root down, following the first input of each stage.
+     */
+    private static void collectStages(Document stage, List<String> stages) {
+        while (stage != null) {
+            Object name = stage.get("stage");
+            if (name != null) {
+                stages.add(name.toString());
+            }
+            Object input = stage.get("inputStage");
+            if (input == null && stage.get("inputStages") instanceof List<?> inputs && !inputs.isEmpty()) {
+                input = inputs.get(0);
+            }
+            stage = input instanceof Document next ? next : null;
+        }
+    }
+
+    /**
+     * The collection is the value of the command-name field for most commands and {@code collection} for
+     * {@code getMore}.
+     */
+    private static String collectionOf(CommandStartedEvent event) {
+        BsonDocument command = event.getCommand();
+        BsonValue value = command.get(event.getCommandName());
+        if (value != null && value.isString()) {
+            return value.asString().getValue();
+        }
+        BsonValue collection = command.get("collection");
+        return collection != null && collection.isString() ? collection.asString().getValue() : null;
+    }
+}
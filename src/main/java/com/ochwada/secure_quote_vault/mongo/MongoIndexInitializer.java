@@ -0,0 +1,147 @@
+package com.ochwada.secure_quote_vault.mongo;
+
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.mongo
+ * File: MongoIndexInitializer.java
+ * Author: Ochwada
+ * Date: Tuesday, 20.Oct.2026, 2:10 AM
+ * Description: Creates the indexes declared by every {@link RequiredIndexes} bean.
+ * - Runs first among the {@code ApplicationReadyEvent} listeners, so components that load data at startup find their
+ * indexes in place. Nothing is created during context refresh.
+ * - A failing index is logged ({@code mongo.index.failed}) and never aborts startup; it is retried every
+ * {@code mongo.indexes.retry-interval} until it exists. While MongoDB is unreachable the whole pass is deferred.
+ * - A unique index that fails because the collection already holds duplicates is not retried: the duplicate values
+ * (up to {@code mongo.indexes.duplicate-sample} of them) are logged as {@code mongo.index.duplicates} and have to be
+ * cleaned up by hand. The owning component keeps working without the index.
+ * - {@code mongo.indexes.missing} counts the indexes still waiting to be created, including the blocked ones.
+ * *******************************************************
+ */
+
+@Slf4j
+@Component
+public class MongoIndexInitializer {
+
+    private final MongoTemplate mongoTemplate;
+    private final List<RequiredIndexes> owners;
+
+    /**
+     * Declared indexes not created yet.
+     */
+    private final List<RequiredIndexes.RequiredIndex> missing = new CopyOnWriteArrayList<>();
+
+    /**
+     * Unique indexes that can't be built until duplicates are removed.
+     */
+    private final List<RequiredIndexes.RequiredIndex> blocked = new CopyOnWriteArrayList<>();
+
+    @Value("${mongo.indexes.duplicate-sample:20}")
+    private int duplicateSample = 20;
+
+    public MongoIndexInitializer(MongoTemplate mongoTemplate, List<RequiredIndexes> owners,
+                                 MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.owners = owners;
+        Gauge.builder("mongo.indexes.missing", () -> missing.size() + blocked.size())
+                .description("Declared MongoDB indexes that could not be created yet")
+                .register(meterRegistry);
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        for (RequiredIndexes owner : owners) {
+            missing.addAll(owner.requiredIndexes());
+        }
+        createMissing();
+    }
+
+    /**
+     * Retries the indexes that failed so far.
+     */
+    @Scheduled(fixedDelayString = "${mongo.indexes.retry-interval:60000}",
+            initialDelayString = "${mongo.indexes.retry-interval:60000}")
+    public synchronized void createMissing() {
+        for (RequiredIndexes.RequiredIndex required : missing) {
+            try {
+                if (create(required)) {
+                    missing.remove(required);
+                }
+            } catch (DataAccessResourceFailureException e) {
+                // MongoDB unreachable: the rest would each wait out the server selection timeout as well
+                log.warn("mongo.indexes.deferred", kv("missing", missing.size()), kv("error", e.getMessage()));
+                return;
+            }
+        }
+    }
+
+    private boolean create(RequiredIndexes.RequiredIndex required) {
+        try {
+            mongoTemplate.indexOps(required.collection()).createIndex(required.definition());
+            return true;
+        } catch (DataAccessResourceFailureException e) {
+            throw e;
+        } catch (DuplicateKeyException e) {
+            reportDuplicates(required);
+            missing.remove(required);
+            blocked.add(required);
+            return false;
+        } catch (RuntimeException e) {
+            log.warn("mongo.index.failed",
+                    kv("collection", required.collection()),
+                    kv("keys", required.definition().getIndexKeys().toJson()),
+                    kv("error", e.getMessage()));
+            return false;
+        }
+    }
+
+    /**
+     * Logs the most frequent values that break a unique index.
+     */
+    private void reportDuplicates(RequiredIndexes.RequiredIndex required) {
+        String[] fields = required.definition().getIndexKeys().keySet().toArray(String[]::new);
+        try {
+            List<Document> duplicates = mongoTemplate.aggregate(Aggregation.newAggregation(
+                            Aggregation.group(fields).count().as("count"),
+                            Aggregation.match(Criteria.where("count").gt(1)),
+                            Aggregation.sort(Sort.Direction.DESC, "count"),
+                            Aggregation.limit(duplicateSample)),
+                    required.collection(), Document.class).getMappedResults();
+            log.error("mongo.index.duplicates",
+                    kv("collection", required.collection()),
+                    kv("keys", required.definition().getIndexKeys().toJson()),
+                    kv("duplicates", duplicates.stream()
+                            .map(duplicate -> duplicate.get("_id") + " x" + duplicate.get("count"))
+                            .toList()));
+        } catch (RuntimeException e) {
+            log.error("mongo.index.duplicates",
+                    kv("collection", required.collection()),
+                    kv("keys", required.definition().getIndexKeys().toJson()),
+                    kv("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.ochwada.secure_quote_vault.mongo;
+
+
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+
+import java.util.List;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.mongo
+ * File: RequiredIndexes.java
+ * Author: Ochwada
+ * Date: Tuesday, 20.Oct.2026, 2:10 AM
+ * Description: Implemented by components that need MongoDB indexes on their collections.
+ * - {@link MongoIndexInitializer} collects every implementation and creates the indexes; components never create
+ * them themselves.
+ * *******************************************************
+ */
+
+public interface RequiredIndexes {
+
+    /**
+     * @param collection the collection name
+     * @param definition the index to create on it
+     */
+    record RequiredIndex(String collection, IndexDefinition definition) {
+    }
+
+    /**
+     * @return the indexes this component relies on; empty when the feature is switched off
+     */
+    List<RequiredIndex> requiredIndexes();
+}
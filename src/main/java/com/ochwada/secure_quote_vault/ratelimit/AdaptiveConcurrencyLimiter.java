@@ -0,0 +1,140 @@
+package com.ochwada.secure_quote_vault.ratelimit;
+
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.ratelimit
+ * File: AdaptiveConcurrencyLimiter.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 4:10 PM
+ * Description: Latency-driven AIMD concurrency limit for one endpoint.
+ * - Requests beyond the current limit are rejected immediately instead of queuing on a thread pool.
+ * - Every completed request is a latency sample. A baseline (no-load) latency is tracked as a slowly rising minimum.
+ * - Slow samples ({@code > baseline * tolerance}) or failures shrink the limit multiplicatively, at most once per
+ * window of ~limit completions (fast shedding when Mongo or the upstream API slows down); fast samples grow it by
+ * {@code 1/limit}, i.e. by about one per window (gradual widening on recovery).
+ * - Both only apply while the limit is saturated (at least half used), so light traffic never moves it.
+ * - Exported as {@code concurrency.limit}, {@code concurrency.inflight} and {@code concurrency.rejected}.
+ * *******************************************************
+ */
+
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+
+    /**
+     * Current limit; fractional so additive increase can accumulate. Guarded by {@code this} for writes.
+     */
+    private volatile double limit;
+
+    /**
+     * Estimated no-load latency in nanoseconds. Guarded by {@code this} for writes.
+     */
+    private volatile double baselineNanos = Double.MAX_VALUE;
+
+    /**
+     * Completions since the last decrease. Guarded by {@code this}.
+     */
+    private int samplesSinceDecrease;
+
+    public AdaptiveConcurrencyLimiter(
+            String name,
+            int initialLimit,
+            int minLimit,
+            int maxLimit,
+            double tolerance,
+            double backoffRatio,
+            MeterRegistry meterRegistry
+    ) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+        this.rejected = Counter.builder("concurrency.rejected")
+                .description("Requests shed by the adaptive concurrency limiter")
+                .tag("endpoint", name)
+                .register(meterRegistry);
+        Gauge.builder("concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("endpoint", name)
+                .register(meterRegistry);
+        Gauge.builder("concurrency.inflight", inFlight, AtomicInteger::get)
+                .description("Requests currently admitted by the adaptive concurrency limiter")
+                .tag("endpoint", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits a request if fewer than {@code limit} are in flight.
+     *
+     * @return {@code true} if admitted; the caller must then call {@link #release}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Completes an admitted request and feeds its latency into the limit.
+     *
+     * @param latencyNanos time the request took
+     * @param failed       whether it ended with an error (treated like a slow sample)
+     */
+    public void release(long latencyNanos, boolean failed) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        synchronized (this) {
+            double baseline = baselineNanos;
+            if (latencyNanos < baseline) {
+                baseline = latencyNanos;
+            } else {
+                // let the baseline creep up slowly so a permanent latency shift is eventually accepted
+                baseline += (latencyNanos - baseline) * 0.001;
+            }
+            baselineNanos = baseline;
+
+            double current = limit;
+            // the limit only matters (in either direction) when it is actually being used
+            boolean saturated = inFlightAtCompletion * 2 >= current;
+            samplesSinceDecrease++;
+            if (failed || latencyNanos > baseline * tolerance) {
+                // at most one multiplicative decrease per window of ~limit completions
+                if (saturated && samplesSinceDecrease >= current) {
+                    current = Math.max(minLimit, current * backoffRatio);
+                    samplesSinceDecrease = 0;
+                }
+            } else if (saturated) {
+                current = Math.min(maxLimit, current + 1.0 / current);
+            }
+            limit = current;
+        }
+    }
+
+    public double getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
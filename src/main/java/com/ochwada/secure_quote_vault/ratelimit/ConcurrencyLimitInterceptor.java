@@ -0,0 +1,55 @@
+package com.ochwada.secure_quote_vault.ratelimit;
+
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.ratelimit
+ * File: ConcurrencyLimitInterceptor.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 4:20 PM
+ * Description: MVC interceptor placing an {@link AdaptiveConcurrencyLimiter} in front of a controller endpoint.
+ * - Over the limit: answers {@code 503 Service Unavailable} with {@code Retry-After: 1} without invoking the handler.
+ * - Admitted: measures handler latency until completion and reports it (and any exception) to the limiter.
+ * *******************************************************
+ */
+
+@RequiredArgsConstructor
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".start";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        if (!limiter.tryAcquire()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Server busy, retry shortly\"}");
+            return false;
+        }
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start != null) {
+            request.removeAttribute(START_ATTRIBUTE);
+            boolean failed = ex != null || response.getStatus() >= 500;
+            limiter.release(System.nanoTime() - (Long) start, failed);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.ochwada.secure_quote_vault.ratelimit;
+
+
+import com.ochwada.secure_quote_vault.mongo.RequiredIndexes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.ratelimit
+ * File: MongoRateLimitStore.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 3:00 PM
+ * Description: Optional cross-node rate-limit state in the {@code rate_limits} collection.
+ * - Approximates the token bucket with fixed windows: one window is the time needed to refill a full bucket, and at
+ * most {@code capacity} requests are admitted per key and window across all nodes.
+ * - One atomic {@code findAndModify($inc, upsert)} per admitted request; documents expire through a TTL index on
+ * {@code expiresAt}.
+ * - Only consulted after the local bucket admitted the request, so floods are still rejected in memory.
+ * - Fails open: if MongoDB cannot be reached the local bucket's decision stands and {@code ratelimit.store.errors} is
+ * incremented, so an outage degrades to per-node limits instead of failing requests.
+ * *******************************************************
+ */
+
+@Slf4j
+@Component
+public class MongoRateLimitStore implements RequiredIndexes {
+
+    public static final String COLLECTION = "rate_limits";
+
+    private final MongoTemplate mongoTemplate;
+    private final Counter storeErrors;
+
+    @Value("${rate-limit.store:local}")
+    private String store;
+
+    public MongoRateLimitStore(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.storeErrors = Counter.builder("ratelimit.store.errors")
+                .description("Shared rate-limit checks that failed; the local bucket decided alone")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Window counters are only written with {@code rate-limit.store=mongo}; the TTL index removes each one once its
+     * window has ended.
+     */
+    @Override
+    public List<RequiredIndex> requiredIndexes() {
+        if (!"mongo".equalsIgnoreCase(store)) {
+            return List.of();
+        }
+        return List.of(new RequiredIndex(COLLECTION, new Index().on("expiresAt", Sort.Direction.ASC).expire(0)));
+    }
+
+    /**
+     * Counts one request for {@code key} in the current window.
+     *
+     * @return {@code 0} if still within the shared budget (or the store is unreachable), otherwise nanoseconds until
+     * the window ends
+     */
+    public long tryAcquire(RateLimitPolicy policy, String key) {
+        long windowMillis = windowMillis(policy);
+        long nowMillis = System.currentTimeMillis();
+        long windowStart = nowMillis - (nowMillis % windowMillis);
+        long windowEnd = windowStart + windowMillis;
+
+        Document counter;
+        try {
+            counter = mongoTemplate.findAndModify(
+                    Query.query(Criteria.where("_id").is(key + ":" + windowStart)),
+                    new Update().inc("count", 1).setOnInsert("expiresAt", new Date(windowEnd)),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    Document.class,
+                    COLLECTION);
+        } catch (DataAccessException e) {
+            storeErrors.increment();
+            log.debug("ratelimit.store.failed", kv("key", key), e);
+            return 0;
+        }
+
+        long count = counter == null ? 1 : ((Number) counter.get("count")).longValue();
+        return count <= policy.capacity() ? 0 : (windowEnd - nowMillis) * 1_000_000;
+    }
+
+    /**
+     * Gives back one request counted for {@code key} in the current window. Best effort: a failure only means the
+     * shared budget is one request tighter until the window ends.
+     */
+    public void refund(RateLimitPolicy policy, String key) {
+        long windowMillis = windowMillis(policy);
+        long nowMillis = System.currentTimeMillis();
+        long windowStart = nowMillis - (nowMillis % windowMillis);
+        try {
+            mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(key + ":" + windowStart).and("count").gt(0)),
+                    new Update().inc("count", -1),
+                    COLLECTION);
+        } catch (DataAccessException e) {
+            storeErrors.increment();
+            log.debug("ratelimit.store.failed", kv("key", key), e);
+        }
+    }
+
+    private static long windowMillis(RateLimitPolicy policy) {
+        return Math.max(1, policy.emissionIntervalNanos() / 1_000_000) * policy.capacity();
+    }
+}
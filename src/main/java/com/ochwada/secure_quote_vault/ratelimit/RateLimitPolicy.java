@@ -0,0 +1,25 @@
+package com.ochwada.secure_quote_vault.ratelimit;
+
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.ratelimit
+ * File: RateLimitPolicy.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 2:45 PM
+ * Description: Limit applied to one kind of key (per user, per IP).
+ * *******************************************************
+ *
+ * @param scope           label used in keys and metrics ({@code user}, {@code ip})
+ * @param capacity        burst size (bucket capacity)
+ * @param refillPerMinute sustained rate, in tokens per minute
+ */
+public record RateLimitPolicy(String scope, long capacity, long refillPerMinute) {
+
+    /**
+     * @return nanoseconds needed to refill one token
+     */
+    public long emissionIntervalNanos() {
+        return 60_000_000_000L / Math.max(1, refillPerMinute);
+    }
+}
@@ -0,0 +1,113 @@
+package com.ochwada.secure_quote_vault.ratelimit;
+
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.ratelimit
+ * File: RateLimiter.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 2:50 PM
+ * Description: In-process registry of {@link TokenBucket}s keyed by scope and id (e.g. {@code user:alice}).
+ * - Buckets live in a fixed number of independent stripes (one {@link ConcurrentHashMap} each), so concurrent
+ * lookups and the eviction sweep never contend on one table.
+ * - Buckets that have been full for longer than the idle timeout are evicted; re-creating one later is equivalent.
+ * - When {@code rate-limit.store=mongo}, a request that passes locally is also checked against
+ * {@link MongoRateLimitStore}, sharing the budget across nodes.
+ * *******************************************************
+ */
+
+@Component
+public class RateLimiter {
+
+    private static final int STRIPES = 16;
+
+    private final ConcurrentHashMap<String, TokenBucket>[] stripes;
+
+    private final MongoRateLimitStore mongoStore;
+
+    @Value("${rate-limit.idle-eviction:10m}")
+    private Duration idleEviction;
+
+    @Value("${rate-limit.store:local}")
+    private String store;
+
+    @SuppressWarnings("unchecked")
+    public RateLimiter(MongoRateLimitStore mongoStore, MeterRegistry meterRegistry) {
+        this.mongoStore = mongoStore;
+        this.stripes = new ConcurrentHashMap[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+        Gauge.builder("ratelimit.buckets", this, RateLimiter::size)
+                .description("Token buckets currently held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes one token for {@code id} under the given policy.
+     *
+     * @param policy the limit to apply
+     * @param id     user name or client IP
+     * @return {@code 0} if allowed, otherwise the nanoseconds the caller should wait before retrying
+     */
+    public long tryAcquire(RateLimitPolicy policy, String id) {
+        String key = policy.scope() + ":" + id;
+        long now = System.nanoTime();
+        TokenBucket bucket = stripe(key).computeIfAbsent(key,
+                ignored -> new TokenBucket(policy.capacity(), policy.emissionIntervalNanos(), now));
+        long waitNanos = bucket.tryAcquire(now);
+        if (waitNanos == 0 && "mongo".equalsIgnoreCase(store)) {
+            waitNanos = mongoStore.tryAcquire(policy, key);
+        }
+        return waitNanos;
+    }
+
+    /**
+     * Returns the token taken by an earlier {@link #tryAcquire} that was granted, for a request that a later check
+     * rejected anyway.
+     */
+    public void refund(RateLimitPolicy policy, String id) {
+        String key = policy.scope() + ":" + id;
+        TokenBucket bucket = stripe(key).get(key);
+        if (bucket != null) {
+            bucket.refund();
+        }
+        if ("mongo".equalsIgnoreCase(store)) {
+            mongoStore.refund(policy, key);
+        }
+    }
+
+    /**
+     * Drops buckets that have been full (unused) for longer than {@code rate-limit.idle-eviction}.
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        long idleNanos = idleEviction.toNanos();
+        for (ConcurrentHashMap<String, TokenBucket> stripe : stripes) {
+            stripe.values().removeIf(bucket -> bucket.isIdle(now, idleNanos));
+        }
+    }
+
+    /**
+     * @return number of buckets across all stripes
+     */
+    public int size() {
+        return Arrays.stream(stripes).mapToInt(ConcurrentHashMap::size).sum();
+    }
+
+    private ConcurrentHashMap<String, TokenBucket> stripe(String key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+}
@@ -0,0 +1,78 @@
+package com.ochwada.secure_quote_vault.ratelimit;
+
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.ratelimit
+ * File: TokenBucket.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 2:40 PM
+ * Description: Lock-free token bucket.
+ * - Implemented as GCRA (generic cell rate algorithm): the whole bucket state is one {@code long}, the theoretical
+ * arrival time of the next request. Acquiring a token is a single CAS, with no lock and no allocation.
+ * - {@code capacity} tokens can be spent in a burst; afterwards one token is refilled every {@code emissionInterval}.
+ * - All times are {@link System#nanoTime()} based.
+ * *******************************************************
+ */
+
+public class TokenBucket {
+
+    /**
+     * Time needed to refill one token.
+     */
+    private final long emissionIntervalNanos;
+
+    /**
+     * How far ahead of "now" the arrival time may run, i.e. the burst allowance ({@code capacity - 1} tokens).
+     */
+    private final long burstToleranceNanos;
+
+    /**
+     * Theoretical arrival time: the instant at which the bucket is full again.
+     */
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(long capacity, long emissionIntervalNanos, long nowNanos) {
+        this.emissionIntervalNanos = emissionIntervalNanos;
+        this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes one token if available.
+     *
+     * @param nowNanos current {@link System#nanoTime()}
+     * @return {@code 0} if the token was granted, otherwise the nanoseconds until one becomes available
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long arrival = Math.max(current, nowNanos);
+            long waitNanos = arrival - nowNanos - burstToleranceNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrival.compareAndSet(current, arrival + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Returns one token taken by {@link #tryAcquire(long)}, e.g. when a later check rejected the request anyway. The
+     * bucket still never holds more than {@code capacity} tokens: {@code tryAcquire} clamps the arrival time to "now".
+     */
+    public void refund() {
+        theoreticalArrival.addAndGet(-emissionIntervalNanos);
+    }
+
+    /**
+     * A bucket is idle when it has been full for at least {@code idleNanos}; dropping it loses no state because a
+     * new bucket starts full as well.
+     */
+    public boolean isIdle(long nowNanos, long idleNanos) {
+        return nowNanos - theoreticalArrival.get() >= idleNanos;
+    }
+}
@@ -1,12 +1,19 @@
 package com.ochwada.secure_quote_vault.security;
 
 
+import com.ochwada.secure_quote_vault.audit.AuditEvent;
+import com.ochwada.secure_quote_vault.audit.AuditLog;
+import com.ochwada.secure_quote_vault.deadline.DeadlineExceededException;
 import com.ochwada.secure_quote_vault.service.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.MDC;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -27,6 +34,11 @@ import java.io.IOException;
  * - This filter runs once per request and is used to authenticate users based on a valid JWT token included in the
  * request header
  * - This class should be registered in the Spring Security filter chain.
+ * - The token is verified once; revoked tokens (logout) are refused through the in-memory
+ * {@link TokenRevocationList}, without any I/O.
+ * - Rejected tokens (invalid, expired, revoked, not matching the user) go to the asynchronous {@link AuditLog} and the
+ * request continues unauthenticated: public endpoints such as {@code /auth/refresh} still work with an expired access
+ * token, protected ones get {@code 401} from the entry point.
  * *******************************************************
  */
 @Component
@@ -43,6 +55,16 @@ public class JWTFilter extends OncePerRequestFilter {
      */
     private final UserDetailsServiceImpl serviceImpl;
 
+    /**
+     * Dependency {@link TokenRevocationList} – ids of tokens revoked before they expire.
+     */
+    private final TokenRevocationList revocationList;
+
+    /**
+     * Dependency {@link AuditLog} – records rejected tokens without blocking the request.
+     */
+    private final AuditLog auditLog;
+
     @Override
     protected void doFilterInternal(
             HttpServletRequest request,
@@ -60,18 +82,42 @@ public class JWTFilter extends OncePerRequestFilter {
             // Remove the "Bearer " prefix to extract the actual JWT token
             String token = authHeader.substring(7);
 
-            // Extract the username from the JWT token
-            String username = jwtUtil.extractUsername(token);
+            // Verify the JWT token once and extract the username from it
+            Claims claims;
+            try {
+                claims = jwtUtil.parseClaims(token);
+            } catch (JwtException | IllegalArgumentException e) {
+                // Expired access tokens are routine; never fail the request here
+                auditLog.record(AuditEvent.Type.TOKEN_REJECTED, null, "invalid", request.getRemoteAddr(),
+                        e.getClass().getSimpleName());
+                filterChain.doFilter(request, response);
+                return;
+            }
+            String username = claims.getSubject();
+
+            boolean revoked = revocationList.isRevoked(claims.getId(), claims.getExpiration());
+            if (revoked) {
+                auditLog.record(AuditEvent.Type.TOKEN_REJECTED, username, "revoked", request.getRemoteAddr(),
+                        claims.getId());
+            }
 
             // Proceed only if username is found and no authentication exists in the current context
             if (username != null
-                    && SecurityContextHolder.getContext().getAuthentication() == null) {
+                    && SecurityContextHolder.getContext().getAuthentication() == null
+                    && !revoked) {
 
                 // Load user details from the database using the extracted username
-                UserDetails userDetails = serviceImpl.loadUserByUsername(username);
+                UserDetails userDetails;
+                try {
+                    userDetails = serviceImpl.loadUserByUsername(username);
+                } catch (DeadlineExceededException e) {
+                    // Thrown outside the dispatcher, so @ResponseStatus would not apply
+                    response.sendError(HttpStatus.GATEWAY_TIMEOUT.value(), "Request deadline exceeded");
+                    return;
+                }
 
                 // Validate the token against the loaded user details
-                if (jwtUtil.isTokenValid(token, userDetails.getUsername())) {
+                if (jwtUtil.isTokenValid(claims, userDetails.getUsername())) {
 
                     // Create an authentication (object ) with user details and authorities
                     var authToken = new UsernamePasswordAuthenticationToken(
@@ -87,6 +133,12 @@ public class JWTFilter extends OncePerRequestFilter {
 
                     // Store the authentication token in the SecurityContext to complete login
                     SecurityContextHolder.getContext().setAuthentication(authToken);
+
+                    // Tag every log event of this request with the authenticated user
+                    MDC.put("user", userDetails.getUsername());
+                } else {
+                    auditLog.record(AuditEvent.Type.TOKEN_REJECTED, username, "user_mismatch",
+                            request.getRemoteAddr(), claims.getId());
                 }
             }
         }
@@ -1,16 +1,27 @@
 package com.ochwada.secure_quote_vault.security;
 
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.security.Key;
+import java.time.Duration;
 import java.util.Base64;
 import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * *******************************************************
@@ -22,6 +33,11 @@ import java.util.Date;
  * - Creating (signing) JWT tokens
  * - Extracting information (claims) from JWT tokens
  * - Validating JWT tokens
+ * Every token carries a random id ({@code jti}) so it can be revoked individually ({@link TokenRevocationList}).
+ * Signing is HS256 with {@code jwt.secret} by default; with {@code jwt.signing-algorithm=ES256} tokens are signed with
+ * the current rotating key of the {@link SigningKeyStore} and carry its {@code kid}, so other services can verify
+ * them locally from {@code /.well-known/jwks.json}. After switching to ES256, HS256 tokens are only accepted while
+ * {@code jwt.accept-hs256=true} (meant for the migration window).
  * It uses the JJWT (io.jsonwebtoken) library to work with tokens.
  * *******************************************************
  */
@@ -35,6 +51,104 @@ public class JWTUtil {
     @Value("${jwt.secret}")
     private String jwtSecret;
 
+    /**
+     * {@code HS256} (shared secret) or {@code ES256} (rotating key pairs from the {@link SigningKeyStore}).
+     */
+    @Value("${jwt.signing-algorithm:HS256}")
+    private String signingAlgorithm = "HS256";
+
+    /**
+     * ES256 mode only: whether HS256 tokens signed with {@code jwt.secret} are still accepted. Turn on while
+     * migrating from HS256 (until the last HS256 token has expired), off afterwards.
+     */
+    @Value("${jwt.accept-hs256:false}")
+    private boolean acceptHs256;
+
+    /**
+     * Rotating ES256 keys; only used when {@code jwt.signing-algorithm=ES256}.
+     */
+    private final SigningKeyStore keyStore;
+
+    /**
+     * Picks the verification key from the token header: the shared secret for HS256, the key named by {@code kid}
+     * for ES256.
+     */
+    private final SigningKeyResolverAdapter keyResolver = new SigningKeyResolverAdapter() {
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            if (SignatureAlgorithm.HS256.getValue().equals(header.getAlgorithm())) {
+                if (isAsymmetric() && !acceptHs256) {
+                    throw new SignatureException("HS256 tokens are no longer accepted");
+                }
+                return getSigningKey();
+            }
+            Key key = header.getKeyId() == null ? null : keyStore.verificationKey(header.getKeyId());
+            if (key == null) {
+                throw new SignatureException("Unknown or retired signing key");
+            }
+            return key;
+        }
+    };
+
+    /**
+     * Lifetime of access tokens. Kept short: sessions continue through refresh tokens ({@link RefreshTokenService}).
+     */
+    @Value("${jwt.access-token-ttl:15m}")
+    private Duration accessTokenTtl = Duration.ofMinutes(15);
+
+    /**
+     * Time spent signing new tokens.
+     */
+    private final Timer generateTimer;
+
+    /**
+     * Time spent parsing and verifying tokens, split by outcome ({@code valid} / {@code invalid}).
+     */
+    private final Timer parseValidTimer;
+    private final Timer parseInvalidTimer;
+
+    /**
+     * Registers the JWT meters once so the hot path only records into pre-built timers.
+     *
+     * @param meterRegistry the application {@link MeterRegistry}
+     * @param keyStore      rotating ES256 keys
+     */
+    public JWTUtil(MeterRegistry meterRegistry, SigningKeyStore keyStore) {
+        this.keyStore = keyStore;
+        this.generateTimer = Timer.builder("jwt.generate")
+                .description("JWT signing time")
+                .register(meterRegistry);
+        this.parseValidTimer = Timer.builder("jwt.parse")
+                .description("JWT parse and signature verification time")
+                .tag("outcome", "valid")
+                .register(meterRegistry);
+        this.parseInvalidTimer = Timer.builder("jwt.parse")
+                .description("JWT parse and signature verification time")
+                .tag("outcome", "invalid")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Copy of this util with the same configuration but its own meters and key store, for synthetic traffic (the
+     * startup warm-up) that must not show up in the production metrics or depend on MongoDB keys.
+     *
+     * @param meterRegistry registry for the copy's timers
+     * @param keyStore      key store of the copy (e.g. one with {@link SigningKeyStore#activateLocalKey()})
+     * @return a detached {@link JWTUtil}
+     */
+    public JWTUtil detached(MeterRegistry meterRegistry, SigningKeyStore keyStore) {
+        JWTUtil copy = new JWTUtil(meterRegistry, keyStore);
+        copy.jwtSecret = jwtSecret;
+        copy.signingAlgorithm = signingAlgorithm;
+        copy.acceptHs256 = acceptHs256;
+        copy.accessTokenTtl = accessTokenTtl;
+        return copy;
+    }
+
+    private boolean isAsymmetric() {
+        return "ES256".equalsIgnoreCase(signingAlgorithm);
+    }
+
     /**
      * Converts the raw JWT secret string into a secure HMAC-SHA256 {@link SecretKey}.
      * *
@@ -55,25 +169,41 @@ public class JWTUtil {
      * Generates a JWT token for a given username.
      * *
      * Generates a signed JWT (JSON Web Token) that contains the user's username as its subject.
-     * The token is valid for 24 hours from the time of generation.
+     * The token is valid for {@code jwt.access-token-ttl} (15 minutes by default) from the time of generation.
      * This token can be used for authenticating and authorizing users across secure endpoints.
      * The token is signed using HMAC SHA-256 algorithm with a secret key (`jwtSecret`).
      *
      * @param username the username to embed as the subject of the JWT
      * @return a compact, URL-safe, signed JWT string
+     * @throws SigningKeyUnavailableException in ES256 mode while no signing key has been loaded
      */
     public String generateToken(String username) {
+        return generateTimer.record(() -> buildToken(username));
+    }
+
+    private String buildToken(String username) {
 
-        long expirationMillis = 24 * 60 * 60 * 1000;  // 1 day in milliseconds
+        long expirationMillis = accessTokenTtl.toMillis();  // short-lived access token
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expirationMillis);
 
-        return Jwts.builder()  // Start building the JWT using JJWT's fluent builder API
+        JwtBuilder builder = Jwts.builder()  // Start building the JWT using JJWT's fluent builder API
+                .setId(UUID.randomUUID().toString()) // standard claim 'jti' = token id, used for revocation
                 .setSubject(username) // standard claim 'sub' = username
                 .setIssuedAt(now) // token creation time = now
-                .setExpiration(expiryDate) // expires in 1 hour
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256) // creating the token
-                .compact(); // build the token into a compact string
+                .setExpiration(expiryDate); // expires after the access token TTL
+
+        if (isAsymmetric()) {
+            SigningKeyStore.SigningKey key = keyStore.signingKey();
+            if (key == null) {
+                throw new SigningKeyUnavailableException();
+            }
+            builder.setHeaderParam(JwsHeader.KEY_ID, key.kid()) // tells verifiers which published key to use
+                    .signWith(key.privateKey(), SignatureAlgorithm.ES256);
+        } else {
+            builder.signWith(getSigningKey(), SignatureAlgorithm.HS256);
+        }
+        return builder.compact(); // build the token into a compact string
     }
 
     /**
@@ -86,13 +216,7 @@ public class JWTUtil {
      * @return the subject (username)
      */
     public String extractUsername(String token) {
-        return Jwts.parserBuilder() // entry point to parse a token
-                .setSigningKey(getSigningKey()) // use the jwt secret to unlock the token
-                .build() // finalizing the parser configuration
-                .parseClaimsJws(token)  // Parses the token and validate its signature and expiration
-                .getBody()// get the Payload
-                .getSubject(); // get the 'sub' claim (username)
-
+        return parseClaims(token).getSubject(); // get the 'sub' claim (username)
     }
 
     /**
@@ -102,12 +226,7 @@ public class JWTUtil {
      * @return true if the token is expired, false otherwise
      */
     public boolean isTokenExpired(String token) {
-        Date expirationDate = Jwts.parserBuilder() // entry point to parse a token parser
-                .setSigningKey(getSigningKey()) // use the jwt secret to unlock the token
-                .build()// finalizing the parser configuration
-                .parseClaimsJws(token) // Parse and validate token
-                .getBody() // get the Payload
-                .getExpiration(); // Extracts the expiration date
+        Date expirationDate = parseClaims(token).getExpiration(); // Extracts the expiration date
         return expirationDate.before(new Date()); // Returns true if expired
     }
 
@@ -123,5 +242,39 @@ public class JWTUtil {
         return extracted.equals(username) && !isTokenExpired(token);
     }
 
+    /**
+     * Validates already parsed claims, so callers that need several claims verify the signature only once.
+     *
+     * @param claims   verified claims from {@link #parseClaims(String)}
+     * @param username the expected username
+     * @return true if the claims belong to the username and are not expired
+     */
+    public boolean isTokenValid(Claims claims, String username) {
+        return username.equals(claims.getSubject()) && !claims.getExpiration().before(new Date());
+    }
+
+    /**
+     * Parses the token, verifies its signature and expiration, and returns its payload.
+     * Every parse is timed under {@code jwt.parse}, tagged with whether the token was accepted.
+     *
+     * @param token the JWT token
+     * @return the verified {@link Claims}
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public Claims parseClaims(String token) {
+        long start = System.nanoTime();
+        try {
+            Claims claims = Jwts.parserBuilder() // entry point to parse a token
+                    .setSigningKeyResolver(keyResolver) // jwt secret or the ES256 key named in the header
+                    .build() // finalizing the parser configuration
+                    .parseClaimsJws(token)  // Parses the token and validate its signature and expiration
+                    .getBody(); // get the Payload
+            parseValidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            parseInvalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
 
 }
@@ -0,0 +1,251 @@
+package com.ochwada.secure_quote_vault.security;
+
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.security
+ * File: LoginThrottle.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 3:40 PM
+ * Description: Pre-authentication throttle for {@code POST /auth/signin}, consulted before any BCrypt work.
+ * - Failures are counted per username (brute force on one account) and per client IP (credential stuffing across
+ * many accounts) with separate thresholds.
+ * - Counters decay exponentially over time ({@code half-life}), so old failures stop counting on their own.
+ * - Once a key crosses its threshold it is locked out; every further failure doubles the lockout, up to a maximum.
+ * - Memory is bounded by {@code max-entries}: keys are kept in access order, and a new key replaces one of the
+ * {@value #EVICTION_SAMPLE} least recently used ones, preferring (in order) forgotten, low-score and, only if all of
+ * them are locked, the one whose lockout ends first. A flood of new usernames or IPs can't flush recent lockouts.
+ * - One short lock per call; the sign-in path around it spends ~100 ms in BCrypt anyway.
+ * *******************************************************
+ */
+
+@Component
+public class LoginThrottle {
+
+    /**
+     * Least recently used keys considered when a new key needs room.
+     */
+    static final int EVICTION_SAMPLE = 16;
+
+    /**
+     * Decayed failure state of one key.
+     */
+    private record Attempts(double score, long updatedNanos, long lockedUntilNanos, int lockouts) {
+    }
+
+    /**
+     * Access-ordered (least recently used first); guarded by its own monitor.
+     */
+    private final LinkedHashMap<String, Attempts> attempts = new LinkedHashMap<>(1024, 0.75f, true);
+
+    private final Counter userThrottled;
+    private final Counter ipThrottled;
+    private final Counter evicted;
+
+    @Value("${auth.throttle.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auth.throttle.user-threshold:5}")
+    private int userThreshold;
+
+    @Value("${auth.throttle.ip-threshold:20}")
+    private int ipThreshold;
+
+    @Value("${auth.throttle.half-life:10m}")
+    private Duration halfLife;
+
+    @Value("${auth.throttle.base-lockout:30s}")
+    private Duration baseLockout;
+
+    @Value("${auth.throttle.max-lockout:15m}")
+    private Duration maxLockout;
+
+    @Value("${auth.throttle.max-entries:100000}")
+    private int maxEntries;
+
+    public LoginThrottle(MeterRegistry meterRegistry) {
+        this.userThrottled = Counter.builder("auth.signin.throttled").tag("scope", "user").register(meterRegistry);
+        this.ipThrottled = Counter.builder("auth.signin.throttled").tag("scope", "ip").register(meterRegistry);
+        this.evicted = Counter.builder("auth.signin.throttle.evicted")
+                .description("Tracked usernames and IPs dropped to stay within max-entries")
+                .register(meterRegistry);
+        Gauge.builder("auth.signin.throttle.entries", attempts, Map::size)
+                .description("Usernames and IPs with tracked sign-in failures")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks whether a sign-in attempt may proceed to password verification.
+     *
+     * @param username the submitted username
+     * @param ip       the client IP
+     * @return {@code 0} if allowed, otherwise nanoseconds until the lockout ends
+     */
+    public long check(String username, String ip) {
+        return check(username, ip, System.nanoTime());
+    }
+
+    long check(String username, String ip, long now) {
+        if (!enabled) {
+            return 0;
+        }
+        long ipWait = remainingLockout(ipKey(ip), now);
+        if (ipWait > 0) {
+            ipThrottled.increment();
+            return ipWait;
+        }
+        long userWait = remainingLockout(userKey(username), now);
+        if (userWait > 0) {
+            userThrottled.increment();
+        }
+        return userWait;
+    }
+
+    /**
+     * Records a failed sign-in for both the username and the IP.
+     */
+    public void recordFailure(String username, String ip) {
+        recordFailure(username, ip, System.nanoTime());
+    }
+
+    void recordFailure(String username, String ip, long now) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (attempts) {
+            countFailure(userKey(username), userThreshold, now);
+            countFailure(ipKey(ip), ipThreshold, now);
+        }
+    }
+
+    /**
+     * A successful sign-in clears the username's history; the IP keeps its (decaying) score.
+     */
+    public void recordSuccess(String username) {
+        synchronized (attempts) {
+            attempts.remove(userKey(username));
+        }
+    }
+
+    /**
+     * Periodically forgets keys whose failures have decayed away and that are not locked.
+     */
+    @Scheduled(fixedDelayString = "${auth.throttle.purge-interval:60000}")
+    public void purgeDecayed() {
+        purgeDecayed(System.nanoTime());
+    }
+
+    void purgeDecayed(long now) {
+        synchronized (attempts) {
+            attempts.values().removeIf(entry -> isForgettable(entry, now));
+        }
+    }
+
+    /**
+     * @return number of tracked usernames and IPs
+     */
+    int size() {
+        synchronized (attempts) {
+            return attempts.size();
+        }
+    }
+
+    private long remainingLockout(String key, long now) {
+        Attempts current;
+        synchronized (attempts) {
+            current = attempts.get(key);
+        }
+        return current == null ? 0 : Math.max(0, current.lockedUntilNanos() - now);
+    }
+
+    private void countFailure(String key, int threshold, long now) {
+        Attempts previous = attempts.get(key);
+        if (previous == null && attempts.size() >= maxEntries) {
+            evictOne(now);
+        }
+        attempts.put(key, fail(previous, threshold, now));
+    }
+
+    private Attempts fail(Attempts previous, int threshold, long now) {
+        double score = (previous == null ? 0 : decayed(previous, now)) + 1;
+        int lockouts = previous == null ? 0 : previous.lockouts();
+        long lockedUntil = previous == null ? now : previous.lockedUntilNanos();
+        if (score >= threshold) {
+            // exponential backoff: base, 2x base, 4x base ... capped at max-lockout
+            long lockout = baseLockout.toNanos();
+            for (int i = 0; i < lockouts && lockout < maxLockout.toNanos(); i++) {
+                lockout *= 2;
+            }
+            lockout = Math.min(lockout, maxLockout.toNanos());
+            lockedUntil = now + lockout;
+            lockouts++;
+        }
+        return new Attempts(score, now, lockedUntil, lockouts);
+    }
+
+    private double decayed(Attempts attempts, long now) {
+        double halfLives = (double) (now - attempts.updatedNanos()) / halfLife.toNanos();
+        return attempts.score() * Math.pow(0.5, halfLives);
+    }
+
+    private boolean isForgettable(Attempts attempts, long now) {
+        return attempts.lockedUntilNanos() - now <= 0 && decayed(attempts, now) < 0.5;
+    }
+
+    /**
+     * Drops the least valuable of the {@link #EVICTION_SAMPLE} least recently used keys.
+     */
+    private void evictOne(long now) {
+        String victim = null;
+        double victimRank = Double.MAX_VALUE;
+        int sampled = 0;
+        for (Map.Entry<String, Attempts> entry : attempts.entrySet()) {
+            double rank = evictionRank(entry.getValue(), now);
+            if (victim == null || rank < victimRank) {
+                victim = entry.getKey();
+                victimRank = rank;
+            }
+            if (rank == 0 || ++sampled == EVICTION_SAMPLE) {
+                break;
+            }
+        }
+        if (victim != null) {
+            attempts.remove(victim);
+            evicted.increment();
+        }
+    }
+
+    /**
+     * Lower is evicted first: forgotten keys (0), then unlocked keys by decayed score, then locked keys by remaining
+     * lockout.
+     */
+    private double evictionRank(Attempts attempts, long now) {
+        if (isForgettable(attempts, now)) {
+            return 0;
+        }
+        long lockedFor = attempts.lockedUntilNanos() - now;
+        if (lockedFor <= 0) {
+            return decayed(attempts, now);
+        }
+        return Math.max(userThreshold, ipThreshold) + (double) lockedFor;
+    }
+
+    private static String userKey(String username) {
+        return "user:" + (username == null ? "" : username.trim());
+    }
+
+    private static String ipKey(String ip) {
+        return "ip:" + ip;
+    }
+}
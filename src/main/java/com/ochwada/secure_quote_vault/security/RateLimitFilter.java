@@ -0,0 +1,108 @@
+package com.ochwada.secure_quote_vault.security;
+
+
+import com.ochwada.secure_quote_vault.ratelimit.RateLimitPolicy;
+import com.ochwada.secure_quote_vault.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.security
+ * File: RateLimitFilter.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 3:10 PM
+ * Description: Per-IP and per-user token-bucket limits for {@code GET /api/quotes/random}.
+ * - Registered right after {@link JWTFilter} in the security chain, so the username is already resolved.
+ * - The IP bucket is checked first (also covers unauthenticated floods), then the user bucket. If the user bucket
+ * rejects, the IP token is refunded so one throttled user does not drain the budget of everyone behind that IP.
+ * - Rejections get {@code 429 Too Many Requests} with a {@code Retry-After} header (seconds).
+ * - Client IP is {@code request.getRemoteAddr()}; behind a proxy enable {@code server.forward-headers-strategy}.
+ * *******************************************************
+ */
+
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String LIMITED_PATH = "/api/quotes/random";
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitPolicy userPolicy;
+    private final RateLimitPolicy ipPolicy;
+    private final Counter userRejections;
+    private final Counter ipRejections;
+
+    @Value("${rate-limit.enabled:true}")
+    private boolean enabled;
+
+    public RateLimitFilter(
+            RateLimiter rateLimiter,
+            MeterRegistry meterRegistry,
+            @Value("${rate-limit.user.capacity:10}") long userCapacity,
+            @Value("${rate-limit.user.refill-per-minute:30}") long userRefillPerMinute,
+            @Value("${rate-limit.ip.capacity:30}") long ipCapacity,
+            @Value("${rate-limit.ip.refill-per-minute:90}") long ipRefillPerMinute
+    ) {
+        this.rateLimiter = rateLimiter;
+        this.userPolicy = new RateLimitPolicy("user", userCapacity, userRefillPerMinute);
+        this.ipPolicy = new RateLimitPolicy("ip", ipCapacity, ipRefillPerMinute);
+        this.userRejections = Counter.builder("ratelimit.rejected").tag("scope", "user").register(meterRegistry);
+        this.ipRejections = Counter.builder("ratelimit.rejected").tag("scope", "ip").register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !LIMITED_PATH.equals(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        long waitNanos = rateLimiter.tryAcquire(ipPolicy, request.getRemoteAddr());
+        if (waitNanos > 0) {
+            ipRejections.increment();
+            reject(response, waitNanos);
+            return;
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()) {
+            waitNanos = rateLimiter.tryAcquire(userPolicy, authentication.getName());
+            if (waitNanos > 0) {
+                rateLimiter.refund(ipPolicy, request.getRemoteAddr());
+                userRejections.increment();
+                reject(response, waitNanos);
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Too many requests\",\"retryAfterSeconds\":" + retryAfterSeconds + "}");
+    }
+}
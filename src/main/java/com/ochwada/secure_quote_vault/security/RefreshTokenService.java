@@ -0,0 +1,185 @@
+package com.ochwada.secure_quote_vault.security;
+
+
+import com.ochwada.secure_quote_vault.mongo.RequiredIndexes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.security
+ * File: RefreshTokenService.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 8:15 PM
+ * Description: Opaque, single-use refresh tokens in the {@code refresh_tokens} collection.
+ * - Only a SHA-256 hash of each token is stored (the tokens are 256 random bits, so no slow hash is needed).
+ * - Every use rotates: the presented token is atomically marked used and a new one of the same family is issued.
+ * - Presenting an already used token means it was copied; the whole family (every session descending from that
+ * sign-in) is deleted and the user has to sign in again.
+ * - Expired tokens disappear through a TTL index on {@code expiresAt}.
+ * - Keeps access tokens short-lived: JWTFilter stays stateless, and everything keyed by access tokens (e.g. the
+ * {@link TokenRevocationList}) only holds one short access-token lifetime.
+ * *******************************************************
+ */
+
+@Slf4j
+@Component
+public class RefreshTokenService implements RequiredIndexes {
+
+    public static final String COLLECTION = "refresh_tokens";
+
+    /**
+     * Outcome of a successful rotation.
+     *
+     * @param username     owner of the token family
+     * @param refreshToken the new refresh token to hand to the client
+     */
+    public record Rotation(String username, String refreshToken) {
+    }
+
+    private final SecureRandom random = new SecureRandom();
+    private final MongoTemplate mongoTemplate;
+
+    private final Counter rotatedCounter;
+    private final Counter reusedCounter;
+    private final Counter invalidCounter;
+
+    @Value("${jwt.refresh-token-ttl:14d}")
+    private Duration refreshTokenTtl;
+
+    public RefreshTokenService(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.rotatedCounter = refreshCounter(meterRegistry, "rotated");
+        this.reusedCounter = refreshCounter(meterRegistry, "reused");
+        this.invalidCounter = refreshCounter(meterRegistry, "invalid");
+    }
+
+    /**
+     * Tokens are looked up by hash on every refresh, whole families are deleted on reuse or logout, and expired
+     * tokens are left to the TTL monitor.
+     */
+    @Override
+    public List<RequiredIndex> requiredIndexes() {
+        return List.of(
+                new RequiredIndex(COLLECTION, new Index().on("tokenHash", Sort.Direction.ASC).unique()),
+                new RequiredIndex(COLLECTION, new Index().on("familyId", Sort.Direction.ASC)),
+                new RequiredIndex(COLLECTION, new Index().on("expiresAt", Sort.Direction.ASC).expire(0)));
+    }
+
+    /**
+     * Starts a new token family on sign-in.
+     *
+     * @param username the authenticated user
+     * @return the raw refresh token
+     */
+    public String issue(String username) {
+        return store(username, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchanges a refresh token for a new one.
+     *
+     * @param refreshToken the raw token presented by the client
+     * @return the owner and the replacement token, or empty if the token is unknown, expired or was already used
+     */
+    public Optional<Rotation> rotate(String refreshToken) {
+        String hash = hash(refreshToken);
+        Date now = new Date();
+        Document current = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("tokenHash").is(hash).and("usedAt").is(null).and("expiresAt").gt(now)),
+                Update.update("usedAt", now),
+                FindAndModifyOptions.options().returnNew(true),
+                Document.class,
+                COLLECTION);
+
+        if (current == null) {
+            Document used = mongoTemplate.findOne(
+                    Query.query(Criteria.where("tokenHash").is(hash).and("usedAt").ne(null)), Document.class,
+                    COLLECTION);
+            if (used != null) {
+                reusedCounter.increment();
+                revokeFamily(used.getString("familyId"));
+                log.warn("auth.refresh.reused", kv("user", used.getString("username")));
+            } else {
+                invalidCounter.increment();
+            }
+            return Optional.empty();
+        }
+
+        String username = current.getString("username");
+        String next = store(username, current.getString("familyId"));
+        rotatedCounter.increment();
+        return Optional.of(new Rotation(username, next));
+    }
+
+    /**
+     * Ends the session a refresh token belongs to (logout).
+     *
+     * @param refreshToken the raw token; unknown tokens are ignored
+     */
+    public void revoke(String refreshToken) {
+        Document token = mongoTemplate.findOne(
+                Query.query(Criteria.where("tokenHash").is(hash(refreshToken))), Document.class, COLLECTION);
+        if (token != null) {
+            revokeFamily(token.getString("familyId"));
+        }
+    }
+
+    private void revokeFamily(String familyId) {
+        mongoTemplate.remove(Query.query(Criteria.where("familyId").is(familyId)), COLLECTION);
+    }
+
+    private String store(String username, String familyId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        mongoTemplate.insert(new Document("tokenHash", hash(token))
+                .append("username", username)
+                .append("familyId", familyId)
+                .append("usedAt", null)
+                .append("expiresAt", new Date(System.currentTimeMillis() + refreshTokenTtl.toMillis())), COLLECTION);
+        return token;
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static Counter refreshCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("auth.refresh")
+                .description("Refresh token exchanges by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,346 @@
+package com.ochwada.secure_quote_vault.security;
+
+
+import com.ochwada.secure_quote_vault.invalidation.InvalidationBus;
+import com.ochwada.secure_quote_vault.mongo.RequiredIndexes;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.security
+ * File: SigningKeyStore.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 8:40 PM
+ * Description: Rotating ES256 (P-256) key pairs for {@link JWTUtil} when {@code jwt.signing-algorithm=ES256}.
+ * - Keys are shared by all nodes through the {@code jwt_keys} collection; private keys are stored AES-GCM encrypted
+ * with a key derived from {@code jwt.secret}.
+ * - Each key is published (JWKS, verification) {@code jwt.key-publish-ahead} before it signs anything, so every node
+ * and every consumer has it before the first token carrying its {@code kid} shows up.
+ * - A key signs for {@code jwt.key-rotation-interval} and stays valid for verification for {@code jwt.key-overlap}
+ * after that (at least one access-token lifetime plus consumers' JWKS cache time); then a TTL index drops it.
+ * - Nodes re-read the collection on every rotation check and immediately when another node announces a new key on
+ * the {@link InvalidationBus} {@code jwt-keys} topic. Verification itself never leaves memory.
+ * *******************************************************
+ */
+
+@Slf4j
+@Component
+public class SigningKeyStore implements RequiredIndexes {
+
+    public static final String COLLECTION = "jwt_keys";
+
+    public static final String TOPIC = "jwt-keys";
+
+    private static final int GCM_IV_BYTES = 12;
+    private static final int GCM_TAG_BITS = 128;
+
+    /**
+     * One key pair with its lifetime. {@code privateKey} is {@code null} for keys this node can't decrypt.
+     */
+    public record SigningKey(String kid, ECPublicKey publicKey, PrivateKey privateKey, Date activatesAt,
+                             Date expiresAt) {
+    }
+
+    private final SecureRandom random = new SecureRandom();
+    private final MongoTemplate mongoTemplate;
+    private final InvalidationBus bus;
+
+    /**
+     * All non-expired keys, newest activation first. Replaced wholesale on reload; readers never lock.
+     */
+    private volatile List<SigningKey> keys = List.of();
+
+    @Value("${jwt.signing-algorithm:HS256}")
+    private String signingAlgorithm = "HS256";
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    @Value("${jwt.key-rotation-interval:7d}")
+    private Duration rotationInterval = Duration.ofDays(7);
+
+    @Value("${jwt.key-publish-ahead:10m}")
+    private Duration publishAhead = Duration.ofMinutes(10);
+
+    @Value("${jwt.key-overlap:1h}")
+    private Duration overlap = Duration.ofHours(1);
+
+    public SigningKeyStore(MongoTemplate mongoTemplate, InvalidationBus bus) {
+        this.mongoTemplate = mongoTemplate;
+        this.bus = bus;
+        bus.subscribe(TOPIC, ignored -> reloadQuietly());
+    }
+
+    public boolean isAsymmetric() {
+        return "ES256".equalsIgnoreCase(signingAlgorithm);
+    }
+
+    /**
+     * The unique {@code generation} index lets exactly one node create each successor key; retired keys are removed
+     * by the TTL index once their overlap has passed.
+     */
+    @Override
+    public List<RequiredIndex> requiredIndexes() {
+        if (!isAsymmetric()) {
+            return List.of();
+        }
+        return List.of(
+                new RequiredIndex(COLLECTION, new Index().on("expiresAt", Sort.Direction.ASC).expire(0)),
+                new RequiredIndex(COLLECTION, new Index().on("generation", Sort.Direction.ASC).unique()));
+    }
+
+    /**
+     * Loads the shared keys, creating the first one if there is none. If MongoDB can't be reached, startup goes on
+     * and {@link #rotateIfDue()} keeps trying; signing fails with {@link SigningKeyUnavailableException} meanwhile.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!isAsymmetric()) {
+            return;
+        }
+        try {
+            reload();
+            if (signingKey() == null) {
+                createKey(new Date());
+            }
+        } catch (RuntimeException e) {
+            log.warn("jwt.key.start.failed", kv("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Reloads the keys and, when the signing key is due, publishes its successor ahead of time.
+     */
+    @Scheduled(fixedDelayString = "${jwt.key-rotation-check:60000}")
+    public void rotateIfDue() {
+        if (!isAsymmetric()) {
+            return;
+        }
+        if (!reloadQuietly()) {
+            return;
+        }
+        SigningKey current = signingKey();
+        long now = System.currentTimeMillis();
+        boolean successorPublished = !keys.isEmpty() && keys.get(0).activatesAt().getTime() > now;
+        try {
+            if (current == null && !successorPublished) {
+                // No usable key (first start failed, or every key expired): start over right away
+                createKey(new Date(now));
+            } else if (!successorPublished
+                    && current.activatesAt().getTime() + rotationInterval.toMillis() - publishAhead.toMillis() <= now) {
+                createKey(new Date(now + publishAhead.toMillis()));
+            }
+        } catch (RuntimeException e) {
+            log.warn("jwt.key.rotation.failed", kv("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * @return the key to sign with now, or {@code null} before the keys are loaded
+     */
+    public SigningKey signingKey() {
+        long now = System.currentTimeMillis();
+        for (SigningKey key : keys) {
+            if (key.activatesAt().getTime() <= now && key.privateKey() != null) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param kid key id from the token header
+     * @return the public key, or {@code null} if unknown or expired
+     */
+    public ECPublicKey verificationKey(String kid) {
+        for (SigningKey key : keys) {
+            if (key.kid().equals(kid)) {
+                return key.expiresAt().getTime() > System.currentTimeMillis() ? key.publicKey() : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return every key that may still verify a token (pending, signing and retiring), for the JWKS endpoint
+     */
+    public List<SigningKey> publishedKeys() {
+        long now = System.currentTimeMillis();
+        return keys.stream().filter(key -> key.expiresAt().getTime() > now).toList();
+    }
+
+    /**
+     * Installs a freshly generated, active key on this instance only, without MongoDB (benchmarks and tests).
+     */
+    public void activateLocalKey() {
+        Date now = new Date();
+        KeyPair pair = generateKeyPair();
+        keys = List.of(new SigningKey(UUID.randomUUID().toString(), (ECPublicKey) pair.getPublic(),
+                pair.getPrivate(), now, new Date(now.getTime() + rotationInterval.plus(overlap).toMillis())));
+    }
+
+    private void createKey(Date activatesAt) {
+        KeyPair pair = generateKeyPair();
+        String kid = UUID.randomUUID().toString();
+        Date expiresAt = new Date(activatesAt.getTime() + rotationInterval.plus(overlap).toMillis());
+        try {
+            mongoTemplate.insert(new Document("_id", kid)
+                    // One key per rotation period: nodes racing to rotate insert the same generation, one wins
+                    .append("generation", activatesAt.getTime() / rotationInterval.toMillis())
+                    .append("publicKey", new Binary(pair.getPublic().getEncoded()))
+                    .append("privateKey", new Binary(encrypt(pair.getPrivate().getEncoded())))
+                    .append("activatesAt", activatesAt)
+                    .append("expiresAt", expiresAt), COLLECTION);
+            log.info("jwt.key.created", kv("kid", kid), kv("activatesAt", activatesAt));
+            bus.publish(TOPIC, kid);
+        } catch (DuplicateKeyException e) {
+            log.debug("jwt.key.rotated.elsewhere");
+        }
+        reloadQuietly();
+    }
+
+    /**
+     * @return {@code false} if the keys could not be read (the previous ones stay in use)
+     */
+    private boolean reloadQuietly() {
+        try {
+            reload();
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("jwt.key.reload.failed", kv("error", e.getMessage()));
+            return false;
+        }
+    }
+
+    private void reload() {
+        if (!isAsymmetric()) {
+            return;
+        }
+        List<SigningKey> loaded = new ArrayList<>();
+        for (Document doc : mongoTemplate.find(Query.query(Criteria.where("expiresAt").gt(new Date())),
+                Document.class, COLLECTION)) {
+            loaded.add(toSigningKey(doc));
+        }
+        loaded.sort(Comparator.comparing(SigningKey::activatesAt).reversed());
+        keys = List.copyOf(loaded);
+    }
+
+    private SigningKey toSigningKey(Document doc) {
+        String kid = doc.getString("_id");
+        try {
+            KeyFactory factory = KeyFactory.getInstance("EC");
+            ECPublicKey publicKey = (ECPublicKey) factory.generatePublic(
+                    new X509EncodedKeySpec(doc.get("publicKey", Binary.class).getData()));
+            PrivateKey privateKey = null;
+            try {
+                privateKey = factory.generatePrivate(
+                        new PKCS8EncodedKeySpec(decrypt(doc.get("privateKey", Binary.class).getData())));
+            } catch (GeneralSecurityException e) {
+                // Encrypted under another jwt.secret: still usable for verification
+                log.warn("jwt.key.decrypt.failed", kv("kid", kid));
+            }
+            return new SigningKey(kid, publicKey, privateKey, doc.getDate("activatesAt"), doc.getDate("expiresAt"));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid key " + kid, e);
+        }
+    }
+
+    private KeyPair generateKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"), random);
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("P-256 not available", e);
+        }
+    }
+
+    private byte[] encrypt(byte[] plain) {
+        try {
+            byte[] iv = new byte[GCM_IV_BYTES];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, encryptionKey(), new GCMParameterSpec(GCM_TAG_BITS, iv));
+            byte[] sealed = cipher.doFinal(plain);
+            return ByteBuffer.allocate(iv.length + sealed.length).put(iv).put(sealed).array();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Key encryption failed", e);
+        }
+    }
+
+    private byte[] decrypt(byte[] stored) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, encryptionKey(), new GCMParameterSpec(GCM_TAG_BITS, stored, 0, GCM_IV_BYTES));
+        return cipher.doFinal(stored, GCM_IV_BYTES, stored.length - GCM_IV_BYTES);
+    }
+
+    private SecretKeySpec encryptionKey() throws GeneralSecurityException {
+        byte[] derived = MessageDigest.getInstance("SHA-256")
+                .digest(("jwt-key-encryption:" + jwtSecret).getBytes(StandardCharsets.UTF_8));
+        return new SecretKeySpec(derived, "AES");
+    }
+
+    /**
+     * @return the public key as a JWK ({@code kty=EC, crv=P-256})
+     */
+    public static Map<String, Object> toJwk(SigningKey key) {
+        return Map.of(
+                "kty", "EC",
+                "crv", "P-256",
+                "use", "sig",
+                "alg", "ES256",
+                "kid", key.kid(),
+                "x", coordinate(key.publicKey().getW().getAffineX().toByteArray()),
+                "y", coordinate(key.publicKey().getW().getAffineY().toByteArray()));
+    }
+
+    /**
+     * Base64url of the coordinate as exactly 32 unsigned big-endian bytes (RFC 7518 section 6.2.1.2).
+     */
+    private static String coordinate(byte[] signed) {
+        byte[] fixed = new byte[32];
+        int copy = Math.min(signed.length, 32);
+        System.arraycopy(signed, signed.length - copy, fixed, 32 - copy, copy);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+}
@@ -0,0 +1,25 @@
+package com.ochwada.secure_quote_vault.security;
+
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.security
+ * File: SigningKeyUnavailableException.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 9:05 PM
+ * Description: Thrown when an ES256 token has to be signed but this node holds no usable signing key yet (keys not
+ * loaded from {@code jwt_keys}, or all of them encrypted under another {@code jwt.secret}). The client receives
+ * {@code 503 Service Unavailable} and can retry; the key store keeps trying in the background.
+ * *******************************************************
+ */
+
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "No signing key available")
+public class SigningKeyUnavailableException extends RuntimeException {
+
+    public SigningKeyUnavailableException() {
+        super("No active ES256 signing key");
+    }
+}
@@ -0,0 +1,66 @@
+package com.ochwada.secure_quote_vault.security;
+
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.security
+ * File: TimedPasswordEncoder.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 10:05 AM
+ * Description: {@link PasswordEncoder} decorator that times the wrapped encoder.
+ * - {@code auth.password.verify} covers the BCrypt comparison done by the {@code AuthenticationManager} on sign-in,
+ * tagged with {@code outcome=match|mismatch}.
+ * - {@code auth.password.encode} covers hashing on signup.
+ * *******************************************************
+ */
+
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    /**
+     * The real (BCrypt) encoder doing the work.
+     */
+    private final PasswordEncoder delegate;
+
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Timer mismatchTimer;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.encodeTimer = Timer.builder("auth.password.encode")
+                .description("Password hashing time")
+                .register(meterRegistry);
+        this.matchTimer = Timer.builder("auth.password.verify")
+                .description("Password hash verification time")
+                .tag("outcome", "match")
+                .register(meterRegistry);
+        this.mismatchTimer = Timer.builder("auth.password.verify")
+                .description("Password hash verification time")
+                .tag("outcome", "mismatch")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encodeTimer.record(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        boolean matches = delegate.matches(rawPassword, encodedPassword);
+        (matches ? matchTimer : mismatchTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,181 @@
+package com.ochwada.secure_quote_vault.security;
+
+
+import com.ochwada.secure_quote_vault.invalidation.InvalidationBus;
+import com.ochwada.secure_quote_vault.mongo.RequiredIndexes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.security
+ * File: TokenRevocationList.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 7:45 PM
+ * Description: In-memory set of revoked token ids ({@code jti}), checked by {@link JWTFilter} without any I/O.
+ * - Revocations are bucketed by the token's expiry time; a bucket is dropped as soon as every token in it has expired,
+ * so memory never holds more than one token lifetime of revocations.
+ * - Each bucket is a concurrent set of ids; the common "not revoked" answer is one hash lookup (usually on an absent
+ * or empty bucket).
+ * - Revocations are persisted in {@code revoked_tokens} (TTL on {@code expiresAt}) and reloaded at startup; other
+ * nodes learn about new ones through the {@link InvalidationBus} {@code revoked-tokens} topic.
+ * - If the reload fails (MongoDB unreachable) startup goes on and the reload is retried every
+ * {@code token-revocation.reload-retry-interval}; until it succeeds only revocations seen on the bus are enforced.
+ * *******************************************************
+ */
+
+@Slf4j
+@Component
+public class TokenRevocationList implements RequiredIndexes {
+
+    public static final String COLLECTION = "revoked_tokens";
+
+    /**
+     * Bus topic; the key is {@code <jti>:<expiry epoch seconds>}.
+     */
+    public static final String TOPIC = "revoked-tokens";
+
+    /**
+     * Bucket index ({@code expiry / bucket width}) to the ids of the revoked tokens expiring in it.
+     */
+    private final ConcurrentHashMap<Long, Set<String>> buckets = new ConcurrentHashMap<>();
+
+    private final MongoTemplate mongoTemplate;
+    private final InvalidationBus bus;
+    private final Counter revokedCounter;
+    private final Counter rejectedCounter;
+
+    @Value("${token-revocation.bucket-width:5m}")
+    private Duration bucketWidth = Duration.ofMinutes(5);
+
+    private volatile boolean loaded;
+
+    public TokenRevocationList(MongoTemplate mongoTemplate, InvalidationBus bus, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.bus = bus;
+        this.revokedCounter = Counter.builder("auth.token.revoked")
+                .description("Tokens revoked (logout)")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.token.revoked.rejected")
+                .description("Requests rejected because their token was revoked")
+                .register(meterRegistry);
+        Gauge.builder("auth.token.revocation.buckets", buckets, ConcurrentHashMap::size)
+                .description("Expiry buckets held by the token revocation list")
+                .register(meterRegistry);
+        bus.subscribe(TOPIC, this::onRevoked);
+    }
+
+    /**
+     * A revocation is stored with the token's own expiry and is pointless after it, so the TTL index drops it then.
+     */
+    @Override
+    public List<RequiredIndex> requiredIndexes() {
+        return List.of(new RequiredIndex(COLLECTION, new Index().on("expiresAt", Sort.Direction.ASC).expire(0)));
+    }
+
+    /**
+     * Reloads the revocations of tokens that have not expired yet; a no-op once that has succeeded.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${token-revocation.reload-retry-interval:30000}",
+            initialDelayString = "${token-revocation.reload-retry-interval:30000}")
+    public synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        long tokens = 0;
+        try {
+            for (Document revoked : mongoTemplate.find(
+                    Query.query(Criteria.where("expiresAt").gt(new Date())), Document.class, COLLECTION)) {
+                add(revoked.getString("_id"), revoked.getDate("expiresAt").getTime());
+                tokens++;
+            }
+        } catch (RuntimeException e) {
+            log.warn("token.revocations.load.failed", kv("error", e.getMessage()));
+            return;
+        }
+        loaded = true;
+        log.info("token.revocations.loaded", kv("tokens", tokens));
+    }
+
+    /**
+     * Revokes a token until it expires, on every node.
+     *
+     * @param tokenId   the token's {@code jti}
+     * @param expiresAt the token's {@code exp}
+     */
+    public void revoke(String tokenId, Date expiresAt) {
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(tokenId)),
+                Update.update("expiresAt", expiresAt), COLLECTION);
+        revokedCounter.increment();
+        bus.publish(TOPIC, tokenId + ":" + expiresAt.getTime() / 1000);
+    }
+
+    /**
+     * O(1), no I/O.
+     *
+     * @param tokenId   the token's {@code jti}; tokens without one can't be revoked
+     * @param expiresAt the token's {@code exp}
+     * @return {@code true} if the token was revoked
+     */
+    public boolean isRevoked(String tokenId, Date expiresAt) {
+        if (tokenId == null || expiresAt == null || buckets.isEmpty()) {
+            return false;
+        }
+        Set<String> bucket = buckets.get(bucketOf(expiresAt.getTime()));
+        if (bucket == null || !bucket.contains(tokenId)) {
+            return false;
+        }
+        rejectedCounter.increment();
+        return true;
+    }
+
+    /**
+     * Drops buckets whose tokens have all expired.
+     */
+    @Scheduled(fixedDelayString = "${token-revocation.purge-interval:60000}")
+    public void dropExpiredBuckets() {
+        long current = bucketOf(System.currentTimeMillis());
+        buckets.keySet().removeIf(bucket -> bucket < current);
+    }
+
+    private void onRevoked(String key) {
+        int separator = key == null ? -1 : key.lastIndexOf(':');
+        if (separator > 0) {
+            add(key.substring(0, separator), Long.parseLong(key.substring(separator + 1)) * 1000);
+        }
+    }
+
+    private void add(String tokenId, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        buckets.computeIfAbsent(bucketOf(expiresAtMillis), ignored -> ConcurrentHashMap.newKeySet()).add(tokenId);
+    }
+
+    private long bucketOf(long epochMillis) {
+        return epochMillis / bucketWidth.toMillis();
+    }
+}
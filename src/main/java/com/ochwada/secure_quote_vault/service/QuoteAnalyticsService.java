@@ -0,0 +1,314 @@
+package com.ochwada.secure_quote_vault.service;
+
+
+import com.ochwada.secure_quote_vault.dto.QuoteAnalyticsResponse;
+import com.ochwada.secure_quote_vault.mongo.RequiredIndexes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.service
+ * File: QuoteAnalyticsService.java
+ * Author: Ochwada
+ * Date: Tuesday, 20.Oct.2026, 1:05 AM
+ * Description: Platform-wide quote analytics, maintained incrementally instead of aggregated from {@code quotes}.
+ * - Every saved quote bumps in-memory counters (fetches per hour, fetches per author, users active per hour); no I/O on
+ * the request path.
+ * - Every {@code analytics.flush-interval} the counters are written as {@code $inc} upserts:
+ * {@code quote_analytics_hourly} (one document per hour: {@code fetches}, {@code activeUsers}) and
+ * {@code quote_analytics_authors} (one document per author: {@code fetches}, indexed for "top N").
+ * - Active users are counted once per hour across all nodes through insert-only markers
+ * ({@code quote_analytics_active_users}, expired by TTL): only a marker that was actually inserted increments
+ * {@code activeUsers}.
+ * - Reads cost one document per hour in range plus the top authors, never a scan of {@code quotes}.
+ * - Counters are swapped out one flush before they are written, so increments racing the swap are never lost.
+ * - A flush writes fetches first, then inserts the markers and only then adds the newly active users; each step drops
+ * its counts once written. Whatever a failed flush could not write is merged into the next one, so an outage delays
+ * the numbers instead of losing them. (If a marker insert fails without saying which markers got in, those users are
+ * retried and, if they did get in, not counted: the only remaining undercount.)
+ * *******************************************************
+ */
+
+@Slf4j
+@Service
+public class QuoteAnalyticsService implements RequiredIndexes {
+
+    public static final String HOURLY = "quote_analytics_hourly";
+    public static final String AUTHORS = "quote_analytics_authors";
+    public static final String ACTIVE_USERS = "quote_analytics_active_users";
+
+    private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * Counters gathered between two flushes.
+     */
+    private static final class Pending {
+        final Map<Long, LongAdder> fetchesByHour = new ConcurrentHashMap<>();
+        final Map<String, LongAdder> fetchesByAuthor = new ConcurrentHashMap<>();
+        final Map<Long, Set<String>> usersByHour = new ConcurrentHashMap<>();
+
+        /**
+         * Users whose marker was inserted but whose {@code activeUsers} increment is not written yet.
+         */
+        final Map<Long, Long> newActiveUsersByHour = new ConcurrentHashMap<>();
+
+        boolean isEmpty() {
+            return fetchesByHour.isEmpty() && fetchesByAuthor.isEmpty() && usersByHour.isEmpty()
+                    && newActiveUsersByHour.isEmpty();
+        }
+
+        /**
+         * Adds {@code other}'s counts to this one; only called on pendings no request thread writes to anymore.
+         */
+        Pending merge(Pending other) {
+            other.fetchesByHour.forEach((hour, fetches) ->
+                    fetchesByHour.computeIfAbsent(hour, key -> new LongAdder()).add(fetches.sum()));
+            other.fetchesByAuthor.forEach((author, fetches) ->
+                    fetchesByAuthor.computeIfAbsent(author, key -> new LongAdder()).add(fetches.sum()));
+            other.usersByHour.forEach((hour, users) ->
+                    usersByHour.computeIfAbsent(hour, key -> ConcurrentHashMap.newKeySet()).addAll(users));
+            other.newActiveUsersByHour.forEach((hour, users) -> newActiveUsersByHour.merge(hour, users, Long::sum));
+            return this;
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final Counter flushFailures;
+
+    /**
+     * Receives new increments.
+     */
+    private volatile Pending current = new Pending();
+
+    /**
+     * Swapped out on the previous flush and written on the next one.
+     */
+    private Pending retired;
+
+    /**
+     * What the last flush could not write; merged into the next one.
+     */
+    private Pending unwritten;
+
+    @Value("${analytics.enabled:true}")
+    private boolean enabled = true;
+
+    public QuoteAnalyticsService(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.flushFailures = Counter.builder("analytics.flush.failed")
+                .description("Analytics flushes that could not be written completely (the rest is retried)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * {@code fetches} descending serves the top-authors read without sorting the whole author collection; active-user
+     * markers only matter for the hour they count, so they expire two hours after it starts.
+     */
+    @Override
+    public List<RequiredIndex> requiredIndexes() {
+        if (!enabled) {
+            return List.of();
+        }
+        return List.of(
+                new RequiredIndex(AUTHORS, new Index().on("fetches", Sort.Direction.DESC)),
+                new RequiredIndex(ACTIVE_USERS, new Index().on("expiresAt", Sort.Direction.ASC).expire(0)));
+    }
+
+    /**
+     * Counts one saved quote.
+     *
+     * @param username the user who fetched it
+     * @param author   the quote's author
+     */
+    public void record(String username, String author) {
+        if (!enabled) {
+            return;
+        }
+        Pending pending = current;
+        long hour = System.currentTimeMillis() / HOUR_MILLIS;
+        pending.fetchesByHour.computeIfAbsent(hour, key -> new LongAdder()).increment();
+        if (author != null) {
+            pending.fetchesByAuthor.computeIfAbsent(author, key -> new LongAdder()).increment();
+        }
+        pending.usersByHour.computeIfAbsent(hour, key -> ConcurrentHashMap.newKeySet()).add(username);
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.flush-interval:10000}")
+    public synchronized void flush() {
+        Pending toWrite = retired;
+        retired = current;
+        current = new Pending();
+        if (toWrite != null) {
+            write(toWrite);
+        }
+    }
+
+    /**
+     * Writes whatever is still in memory on shutdown (request threads are done by then).
+     */
+    @PreDestroy
+    public synchronized void flushAll() {
+        if (retired != null) {
+            write(retired);
+            retired = null;
+        }
+        write(current);
+        current = new Pending();
+    }
+
+    /**
+     * @param hours number of most recent hourly buckets (including the current one)
+     * @param top   number of authors to return
+     * @return the hourly series (oldest first), its total, and the all-time top authors
+     */
+    public QuoteAnalyticsResponse read(int hours, int top) {
+        long currentHour = System.currentTimeMillis() / HOUR_MILLIS;
+        Date from = new Date((currentHour - hours + 1) * HOUR_MILLIS);
+
+        List<QuoteAnalyticsResponse.HourlyBucket> hourly = new ArrayList<>(hours);
+        long total = 0;
+        Query range = Query.query(Criteria.where("_id").gte(from)).with(Sort.by(Sort.Direction.ASC, "_id"));
+        for (Document bucket : mongoTemplate.find(range, Document.class, HOURLY)) {
+            long fetches = number(bucket, "fetches");
+            total += fetches;
+            hourly.add(new QuoteAnalyticsResponse.HourlyBucket(
+                    bucket.getDate("_id").toInstant(), fetches, number(bucket, "activeUsers")));
+        }
+
+        Query topAuthors = new Query().with(Sort.by(Sort.Direction.DESC, "fetches")).limit(top);
+        List<QuoteAnalyticsResponse.AuthorCount> authors = mongoTemplate.find(topAuthors, Document.class, AUTHORS)
+                .stream()
+                .map(author -> new QuoteAnalyticsResponse.AuthorCount(author.getString("_id"), number(author, "fetches")))
+                .toList();
+
+        return new QuoteAnalyticsResponse(hours, total, hourly, authors);
+    }
+
+    private void write(Pending pending) {
+        Pending batch = unwritten == null ? pending : unwritten.merge(pending);
+        unwritten = null;
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            if (!batch.fetchesByHour.isEmpty()) {
+                BulkOperations hourly = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, HOURLY);
+                batch.fetchesByHour.forEach((hour, fetches) -> hourly.upsert(hourQuery(hour),
+                        new Update().inc("fetches", fetches.sum())));
+                hourly.execute();
+                batch.fetchesByHour.clear();
+            }
+
+            if (!batch.fetchesByAuthor.isEmpty()) {
+                BulkOperations authors = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AUTHORS);
+                batch.fetchesByAuthor.forEach((author, fetches) -> authors.upsert(
+                        Query.query(Criteria.where("_id").is(author)), new Update().inc("fetches", fetches.sum())));
+                authors.execute();
+                batch.fetchesByAuthor.clear();
+            }
+
+            insertActiveUserMarkers(batch);
+
+            if (!batch.newActiveUsersByHour.isEmpty()) {
+                BulkOperations active = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, HOURLY);
+                batch.newActiveUsersByHour.forEach((hour, users) -> active.upsert(hourQuery(hour),
+                        new Update().inc("activeUsers", users)));
+                active.execute();
+                batch.newActiveUsersByHour.clear();
+            }
+        } catch (DataAccessException e) {
+            log.warn("analytics.flush.failed", kv("hours", batch.fetchesByHour.size()), e);
+        }
+        if (!batch.isEmpty()) {
+            flushFailures.increment();
+            unwritten = batch;
+        }
+    }
+
+    /**
+     * Inserts one marker per (hour, user); markers already inserted by this or another node fail as duplicates. Users
+     * whose marker went in move to {@link Pending#newActiveUsersByHour}, duplicates are dropped, and users whose insert
+     * failed otherwise stay for the next flush.
+     */
+    private void insertActiveUserMarkers(Pending pending) {
+        List<Long> hourOfMarker = new ArrayList<>();
+        List<String> userOfMarker = new ArrayList<>();
+        List<Document> markers = new ArrayList<>();
+        pending.usersByHour.forEach((hour, users) -> {
+            Date expiresAt = new Date((hour + 2) * HOUR_MILLIS);
+            for (String user : users) {
+                hourOfMarker.add(hour);
+                userOfMarker.add(user);
+                markers.add(new Document("_id", hour + ":" + user).append("expiresAt", expiresAt));
+            }
+        });
+        if (markers.isEmpty()) {
+            return;
+        }
+
+        boolean[] duplicate = new boolean[markers.size()];
+        boolean[] retry = new boolean[markers.size()];
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ACTIVE_USERS).insert(markers).execute();
+        } catch (BulkOperationException e) {
+            for (var error : e.getErrors()) {
+                if (error.getCode() == 11000) {
+                    duplicate[error.getIndex()] = true;
+                } else {
+                    retry[error.getIndex()] = true;
+                }
+            }
+            if (e.getErrors().stream().anyMatch(error -> error.getCode() != 11000)) {
+                log.warn("analytics.markers.failed", kv("markers", markers.size()), e);
+            }
+        }
+
+        for (int i = 0; i < markers.size(); i++) {
+            if (retry[i]) {
+                continue;
+            }
+            long hour = hourOfMarker.get(i);
+            if (!duplicate[i]) {
+                pending.newActiveUsersByHour.merge(hour, 1L, Long::sum);
+            }
+            pending.usersByHour.get(hour).remove(userOfMarker.get(i));
+        }
+        pending.usersByHour.values().removeIf(Set::isEmpty);
+    }
+
+    private static Query hourQuery(long hour) {
+        return Query.query(Criteria.where("_id").is(new Date(hour * HOUR_MILLIS)));
+    }
+
+    private static long number(Document document, String field) {
+        Object value = document.get(field);
+        return value instanceof Number number ? number.longValue() : 0;
+    }
+}
@@ -1,20 +1,46 @@
 package com.ochwada.secure_quote_vault.service;
 
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoExecutionTimeoutException;
+import com.ochwada.secure_quote_vault.audit.AuditEvent;
+import com.ochwada.secure_quote_vault.audit.AuditLog;
+import com.ochwada.secure_quote_vault.deadline.DeadlineGuard;
+import com.ochwada.secure_quote_vault.invalidation.InvalidationBus;
+import com.ochwada.secure_quote_vault.mapper.QuoteMapper;
 import com.ochwada.secure_quote_vault.model.Quote;
 import com.ochwada.secure_quote_vault.repository.QuoteRepository;
+import com.ochwada.secure_quote_vault.snapshot.QuoteSnapshotService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
 
 /**
  * *******************************************************
@@ -26,14 +52,22 @@ import java.util.List;
  * - Service class for handling business logic related to quotes
  * - Fetching a random quote from an external quote API
  * - Saving the quote to MongoDB along with the user information
+ * - Every stage honours the request deadline: checked before it starts, and passed down as the upstream read timeout
+ * and as MongoDB {@code maxTimeMS} for queries
+ * - A local memory-mapped quote snapshot ({@link QuoteSnapshotService}) stands in for the upstream API when it fails,
+ * or replaces it entirely in {@code quote-snapshot.mode=always}
+ * - A user's quote list can be cached for {@code quote-cache.ttl}; every new quote drops it on all nodes through the
+ * {@link InvalidationBus} {@code quotes} topic
  * *******************************************************
  */
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class QuoteService {
     /**
      * Used to make HTTP requests to external quote APIs.
+     * Shared bean from {@code RestTemplateConfig} (timeouts applied), not a per-call instance.
      */
     private final RestTemplate restTemplate;
 
@@ -42,6 +76,60 @@ public class QuoteService {
      */
     private final QuoteRepository repository;
 
+    /**
+     * Registry for upstream ({@code quote.upstream.*}) and MongoDB ({@code quote.mongo}) meters.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Used for queries that need per-request options ({@code maxTimeMS}) the derived repository methods can't take.
+     */
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Checkpoints for the current request's deadline.
+     */
+    private final DeadlineGuard deadlineGuard;
+
+    /**
+     * Memory-mapped corpus of known quotes, used instead of (or when failing) the upstream API.
+     */
+    private final QuoteSnapshotService snapshotService;
+
+    /**
+     * Asynchronous security audit trail; every stored quote fetch is recorded.
+     */
+    private final AuditLog auditLog;
+
+    /**
+     * Materialised platform analytics (fetches per hour, top authors, active users), updated in memory.
+     */
+    private final QuoteAnalyticsService analytics;
+
+    /**
+     * Drops cached quote lists on every node when a user fetches a new quote.
+     */
+    private final InvalidationBus invalidationBus;
+
+    /**
+     * Username -> that user's quotes as last read from MongoDB.
+     */
+    private final ConcurrentHashMap<String, CachedQuotes> quoteCache = new ConcurrentHashMap<>();
+
+    /**
+     * Bumped on every invalidation, so a read that overlapped one doesn't cache what it read.
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * How long a user's quote list is served from memory; {@code 0} (the default) disables the cache.
+     */
+    @Value("${quote-cache.ttl:0}")
+    private Duration quoteCacheTtl = Duration.ZERO;
+
+    @Value("${quote-cache.max-entries:10000}")
+    private int quoteCacheMaxEntries = 10_000;
+
     /**
      * The URL endpoint for retrieving random quotes from an external service.
      * Injected from application properties.
@@ -53,10 +141,18 @@ public class QuoteService {
      * Jackson ObjectMapper used for parsing JSON responses.
      */
     private final ObjectMapper mapper = new ObjectMapper();
- // Debugging
+
     @PostConstruct
     public void checkUrl() {
-        System.out.println("📡 randomQuoteUrl = " + randomQuoteUrl);
+        log.info("quote.api.configured", kv("url", randomQuoteUrl));
+    }
+
+    @PostConstruct
+    public void subscribeToInvalidations() {
+        invalidationBus.subscribe(InvalidationBus.QUOTES, this::evictQuotes);
+        Gauge.builder("quote.cache.size", quoteCache, ConcurrentHashMap::size)
+                .description("Users whose quote list is cached")
+                .register(meterRegistry);
     }
 
     /**
@@ -69,50 +165,188 @@ public class QuoteService {
      * 3. Maps relevant fields (quote string, author, creation date) to a {@link Quote} object.
      * 4. Attaches the requesting username to the quote.
      * 5. Inserts the new {@code Quote} into the MongoDB collection.
+     * The upstream and Mongo timings are put on the MDC ({@code upstreamMs}, {@code mongoMs}) for the request log
+     * and emitted with a {@code quote.fetched} event.
+     * The request deadline is checked before the upstream call and before the insert; an insert can't carry
+     * {@code maxTimeMS}, so it is simply not started once the deadline has passed.
+     * When the snapshot serves the quote (mode {@code always}, or an upstream failure), steps 1-2 are skipped.
      *
      * @param username the username of the person fetching the quote
      * @return the persisted {@link Quote} object
      * @throws IOException if the API response cannot be parsed into JSON
+     * @throws com.ochwada.secure_quote_vault.deadline.DeadlineExceededException if the request runs out of time
      */
     public Quote fetchAndSaveQuote(String username) throws IOException {
-        RestTemplate restTemplate = new RestTemplate();
-
-        System.out.println("🔍 Using quote API: " + randomQuoteUrl); //  debugging
+        // Serve from the local snapshot when configured to (no upstream call at all)
+        String source = "snapshot";
+        long upstreamMs = 0;
+        Quote quote = snapshotService.serveAlways() ? snapshotService.servedQuote(username).orElse(null) : null;
 
+        if (quote == null) {
+            //Call external API
+            deadlineGuard.checkpoint("upstream");
+            long upstreamStart = System.nanoTime();
+            try {
+                byte[] response = fetchUpstream();
 
-        //Call external API
-        String response = restTemplate.getForObject(randomQuoteUrl, String.class);
+                // Parse the JSON response and map it to a Quote owned by the requesting user
+                quote = QuoteMapper.fromUpstream(response, mapper, username);
+                source = "upstream";
+            } catch (RestClientException e) {
+                // Upstream down or slow: fall back to a known quote if the snapshot has one
+                quote = snapshotService.fallbackQuote(username).orElseThrow(() -> e);
+                source = "snapshot-fallback";
+            } finally {
+                upstreamMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - upstreamStart);
+                MDC.put("upstreamMs", String.valueOf(upstreamMs));
+            }
+        }
 
-        // Parses the JSON string response manually into a JsonNode tree structure
-        JsonNode jsonNode = mapper.readTree(response);
-
-        // Map to a Quote Object
-        Quote quote = new Quote();
-        quote.setQuoteString(jsonNode.get("quoteString").asText());
-        quote.setAuthor(jsonNode.get("author").asText());
+        // Save to database and return the persisted quote
+        deadlineGuard.checkpoint("mongo.insert");
+        long mongoStart = System.nanoTime();
+        long mongoMs;
+        Quote saved;
+        try {
+            saved = repository.insert(quote);
+        } finally {
+            long mongoNanos = System.nanoTime() - mongoStart;
+            mongoTimer("insert").record(mongoNanos, TimeUnit.NANOSECONDS);
+            mongoMs = TimeUnit.NANOSECONDS.toMillis(mongoNanos);
+            MDC.put("mongoMs", String.valueOf(mongoMs));
+        }
+        if (!quoteCacheTtl.isZero()) {
+            invalidationBus.publish(InvalidationBus.QUOTES, username);
+        }
 
-        // Parse and map createdAt date using a custom formatter
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
-        quote.setCreatedAt(LocalDateTime.parse(jsonNode.get("createdAt").asText(), formatter));
+        log.info("quote.fetched",
+                kv("quoteId", saved.getId()),
+                kv("author", saved.getAuthor()),
+                kv("source", source),
+                kv("upstreamMs", upstreamMs),
+                kv("mongoMs", mongoMs));
+        auditLog.record(AuditEvent.Type.QUOTE_FETCH, username, "success", null, source + ":" + saved.getId());
+        analytics.record(username, saved.getAuthor());
+        return saved;
+    }
 
-        // Set the username of the person who fetched the quote
-        quote.setFetchedBy(username);
+    /**
+     * Calls the upstream quote API and records its latency (tagged with the HTTP status, or {@code IO_ERROR} when no
+     * response arrived) and the payload size.
+     * A read timeout caused by the request deadline (see {@code DeadlineAwareRequestFactory}) surfaces as a deadline
+     * failure rather than a generic I/O error.
+     *
+     * @return the raw response body
+     */
+    private byte[] fetchUpstream() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String status = "IO_ERROR";
+        try {
+            ResponseEntity<byte[]> entity = restTemplate.getForEntity(randomQuoteUrl, byte[].class);
+            status = String.valueOf(entity.getStatusCode().value());
+            byte[] body = entity.getBody();
+            DistributionSummary.builder("quote.upstream.response.size")
+                    .description("Upstream quote API payload size")
+                    .baseUnit("bytes")
+                    .register(meterRegistry)
+                    .record(body == null ? 0 : body.length);
+            return body;
+        } catch (RestClientResponseException e) {
+            status = String.valueOf(e.getStatusCode().value());
+            throw e;
+        } catch (ResourceAccessException e) {
+            if (deadlineGuard.isExpired()) {
+                status = "DEADLINE";
+                throw deadlineGuard.exceeded("upstream", e);
+            }
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("quote.upstream.fetch")
+                    .description("Upstream quote API call latency")
+                    .tag("status", status)
+                    .register(meterRegistry));
+        }
+    }
 
-        // Save to database and return the persisted quote
-        return repository.insert(quote);
+    private Timer mongoTimer(String operation) {
+        return Timer.builder("quote.mongo")
+                .description("MongoDB latency for the quotes collection")
+                .tag("operation", operation)
+                .register(meterRegistry);
     }
 
     /**
      * Retrieves all quotes from the database that were fetched by a specific user.
      * <p>
      * This method queries the {@link QuoteRepository} for all {@link Quote} entries where the {@code fetchedBy}
-     * field matches the given username.
+     * field matches the given username. The query carries the time left on the request deadline as
+     * {@code maxTimeMS}, so MongoDB itself stops working on it once the caller has given up.
+     * With {@code quote-cache.ttl} set, the list is served from memory until it expires or the user fetches a new quote.
      *
      * @param username the username of the user whose quotes should be retrieved
      * @return a list of {@link Quote} objects associated with the given user
      */
     public List<Quote> getQuotesByUser(String username) {
-        return repository.findByFetchedBy(username);
+        CachedQuotes cached = quoteCache.get(username);
+        if (cached != null && cached.expiresAtNanos() - System.nanoTime() > 0) {
+            return cached.quotes();
+        }
+
+        deadlineGuard.checkpoint("mongo.find");
+        long generation = invalidations.get();
+        long start = System.nanoTime();
+        try {
+            Query query = Query.query(Criteria.where("fetchedBy").is(username));
+            deadlineGuard.remaining().ifPresent(query::maxTime);
+            List<Quote> quotes = mongoTemplate.find(query, Quote.class);
+            cacheQuotes(username, quotes, generation);
+            return quotes;
+        } catch (DataAccessException e) {
+            if (NestedExceptionUtils.getMostSpecificCause(e) instanceof MongoExecutionTimeoutException) {
+                throw deadlineGuard.exceeded("mongo.find", e);
+            }
+            throw e;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            mongoTimer("find").record(nanos, TimeUnit.NANOSECONDS);
+            MDC.put("mongoMs", String.valueOf(TimeUnit.NANOSECONDS.toMillis(nanos)));
+        }
+    }
+
+    private void cacheQuotes(String username, List<Quote> quotes, long generation) {
+        if (quoteCacheTtl.isZero() || quoteCache.size() >= quoteCacheMaxEntries) {
+            return;
+        }
+        quoteCache.put(username, new CachedQuotes(List.copyOf(quotes), System.nanoTime() + quoteCacheTtl.toNanos()));
+        // An invalidation that arrived during the read may have missed this entry
+        if (invalidations.get() != generation) {
+            quoteCache.remove(username);
+        }
+    }
+
+    /**
+     * Drops a user's quote list from the cache; {@code null} clears it.
+     *
+     * @param username the user who fetched a new quote
+     */
+    public void evictQuotes(String username) {
+        invalidations.incrementAndGet();
+        if (username == null) {
+            quoteCache.clear();
+        } else {
+            quoteCache.remove(username);
+        }
     }
 
+    /**
+     * Removes expired quote lists so users that stopped calling don't hold a slot.
+     */
+    @Scheduled(fixedDelayString = "${quote-cache.purge-interval:60000}")
+    public void purgeExpiredQuotes() {
+        long now = System.nanoTime();
+        quoteCache.values().removeIf(entry -> entry.expiresAtNanos() - now <= 0);
+    }
+
+    private record CachedQuotes(List<Quote> quotes, long expiresAtNanos) {
+    }
 }
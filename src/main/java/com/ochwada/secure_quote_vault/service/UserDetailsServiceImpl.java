@@ -1,17 +1,34 @@
 package com.ochwada.secure_quote_vault.service;
 
 
+import com.mongodb.MongoExecutionTimeoutException;
 import com.ochwada.secure_quote_vault.alias.SecurityUser;
+import com.ochwada.secure_quote_vault.deadline.DeadlineGuard;
+import com.ochwada.secure_quote_vault.invalidation.InvalidationBus;
 import com.ochwada.secure_quote_vault.model.User;
 import com.ochwada.secure_quote_vault.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * *******************************************************
@@ -23,17 +40,74 @@ import java.util.List;
  * functionality based on application-specific user data.
  * - This implementation fetches user data from a {@link UserRepository} and maps the user's roles to
  * {@link SimpleGrantedAuthority} objects, which are used by Spring Security for authorization.
+ * - Found users can be cached for {@code user-cache.ttl} (every authenticated request loads its user); entries are
+ * dropped on every node through the {@link InvalidationBus} {@code users} topic when a user changes. Off by default:
+ * a user edited directly in MongoDB (roles, password, deletion) publishes nothing and would keep authorising until
+ * the entry expires.
+ * - Within a request the lookup carries the time left on the request deadline as {@code maxTimeMS}; a lookup that
+ * runs out of time fails with a {@link com.ochwada.secure_quote_vault.deadline.DeadlineExceededException}.
  * *******************************************************
  */
 
 @Service
-@RequiredArgsConstructor
 public class UserDetailsServiceImpl implements UserDetailsService {
     /**
      * Repository used to access user data from the database.
      */
     private final UserRepository repository;
 
+    /**
+     * Used for lookups that carry the request deadline ({@code maxTimeMS}), which the derived repository method can't.
+     */
+    private final MongoTemplate mongoTemplate;
+
+    private final DeadlineGuard deadlineGuard;
+
+    /**
+     * Time spent looking the user up in MongoDB, split by {@code outcome=found|not_found}.
+     */
+    private final Timer foundTimer;
+    private final Timer notFoundTimer;
+
+    /**
+     * Username -> credentials and authorities. Snapshots, not {@link UserDetails}: Spring Security erases the
+     * password of the instance it authenticated, so each call gets a fresh {@link SecurityUser}.
+     */
+    private final ConcurrentHashMap<String, CachedUser> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Bumped on every invalidation, so a lookup that overlapped one doesn't cache what it read.
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * How long a loaded user is served from memory; {@code 0} (the default) disables the cache.
+     */
+    @Value("${user-cache.ttl:0}")
+    private Duration cacheTtl = Duration.ZERO;
+
+    @Value("${user-cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    public UserDetailsServiceImpl(UserRepository repository, MongoTemplate mongoTemplate, DeadlineGuard deadlineGuard,
+                                  MeterRegistry meterRegistry, InvalidationBus bus) {
+        this.repository = repository;
+        this.mongoTemplate = mongoTemplate;
+        this.deadlineGuard = deadlineGuard;
+        this.foundTimer = Timer.builder("auth.user.lookup")
+                .description("User lookup time in the users collection")
+                .tag("outcome", "found")
+                .register(meterRegistry);
+        this.notFoundTimer = Timer.builder("auth.user.lookup")
+                .description("User lookup time in the users collection")
+                .tag("outcome", "not_found")
+                .register(meterRegistry);
+        Gauge.builder("auth.user.cache.size", cache, ConcurrentHashMap::size)
+                .description("Users held in the user details cache")
+                .register(meterRegistry);
+        bus.subscribe(InvalidationBus.USERS, this::evict);
+    }
+
 
     /**
      * Locates the user based on the username. If found, returns a Spring Security {@link UserDetails}
@@ -42,15 +116,24 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      * @param username the username identifying the user whose data is required
      * @return {@link UserDetails} containing user's authentication and authority information
      * @throws UsernameNotFoundException if the user is not found in the database
+     * @throws com.ochwada.secure_quote_vault.deadline.DeadlineExceededException if the request runs out of time
      */
     @Override
     public UserDetails loadUserByUsername(String username)
             throws UsernameNotFoundException {
 
-        // Fetch the user from the database or throw exception if not found
-        User user = repository
-                .findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        CachedUser cached = cache.get(username);
+        if (cached != null && cached.expiresAtNanos() - System.nanoTime() > 0) {
+            return cached.toUserDetails();
+        }
+
+        // Fetch the user from the database (timed) or throw exception if not found
+        long generation = invalidations.get();
+        long start = System.nanoTime();
+        Optional<User> found = findUser(username);
+        (found.isPresent() ? foundTimer : notFoundTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        User user = found.orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
         // Map each role (enum) to a SimpleGrantedAuthority, prefixed with "ROLE_"
         List<SimpleGrantedAuthority> authorities = user.getRoles()
@@ -60,11 +143,70 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                 ))
                 .toList();
 
+        CachedUser loaded = new CachedUser(user.getUsername(), user.getPassword(), authorities,
+                System.nanoTime() + cacheTtl.toNanos());
+        if (!cacheTtl.isZero() && cache.size() < cacheMaxEntries) {
+            cache.put(username, loaded);
+            // An invalidation that arrived during the lookup may have missed this entry
+            if (invalidations.get() != generation) {
+                cache.remove(username);
+            }
+        }
+
         // Create and return a Spring Security-compatible UserDetails object
-        return new SecurityUser(
-                user.getUsername(),
-                user.getPassword(),
-                authorities
-        );
+        return loaded.toUserDetails();
+    }
+
+    /**
+     * Looks the user up with the time left on the request deadline as {@code maxTimeMS}. Outside a request (no
+     * deadline bound) it goes through the repository.
+     */
+    private Optional<User> findUser(String username) {
+        if (deadlineGuard.remaining().isEmpty()) {
+            return repository.findByUsername(username);
+        }
+        deadlineGuard.checkpoint("mongo.user");
+        Query query = Query.query(Criteria.where("username").is(username));
+        // maxTimeMS=0 means no limit, so never round the remaining time down to it
+        deadlineGuard.remaining().ifPresent(remaining -> query.maxTimeMsec(Math.max(1, remaining.toMillis())));
+        try {
+            return Optional.ofNullable(mongoTemplate.findOne(query, User.class));
+        } catch (DataAccessException e) {
+            if (NestedExceptionUtils.getMostSpecificCause(e) instanceof MongoExecutionTimeoutException) {
+                throw deadlineGuard.exceeded("mongo.user", e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drops a user from the cache; {@code null} clears it.
+     *
+     * @param username the changed user
+     */
+    public void evict(String username) {
+        invalidations.incrementAndGet();
+        if (username == null) {
+            cache.clear();
+        } else {
+            cache.remove(username);
+        }
+    }
+
+    /**
+     * Removes expired entries so users that stopped calling don't hold a slot.
+     */
+    @Scheduled(fixedDelayString = "${user-cache.purge-interval:60000}")
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        cache.values().removeIf(entry -> entry.expiresAtNanos() - now <= 0);
+    }
+
+    private record CachedUser(String username, String password, List<SimpleGrantedAuthority> authorities,
+                              long expiresAtNanos) {
+
+        UserDetails toUserDetails() {
+            return new SecurityUser(username, password, authorities);
+        }
     }
 }
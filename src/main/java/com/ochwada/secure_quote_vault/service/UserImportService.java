@@ -0,0 +1,346 @@
+package com.ochwada.secure_quote_vault.service;
+
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.ochwada.secure_quote_vault.dto.SignupRequest;
+import com.ochwada.secure_quote_vault.invalidation.InvalidationBus;
+import com.ochwada.secure_quote_vault.mapper.UserMapper;
+import com.ochwada.secure_quote_vault.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.service
+ * File: UserImportService.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 7:00 PM
+ * Description: Bulk user provisioning from a streamed CSV ({@code username,password}) or NDJSON
+ * ({@code {"username":..,"password":..}}) file.
+ * - Rows are read lazily and processed in batches; each row is validated against the {@link SignupRequest} rules.
+ * - Passwords of a batch are BCrypt-hashed in parallel on a dedicated, bounded {@link ForkJoinPool} (half the cores
+ * by default), so an import uses the cores without starving request threads.
+ * - Each batch is one unordered bulk insert; rows rejected by the unique username index are reported one by one.
+ * - The report is NDJSON, written and flushed after every batch: one line per rejected row, one {@code progress} line
+ * per batch and a final {@code summary} line.
+ * - Any other MongoDB failure stops the import: the rows of that batch are reported as {@code unconfirmed} (the
+ * insert may or may not have been applied), followed by an {@code error} line naming the first unread line and the
+ * {@code summary}.
+ * - One import at a time per node.
+ * *******************************************************
+ */
+
+@Slf4j
+@Service
+public class UserImportService {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final InvalidationBus invalidationBus;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final Semaphore importSlot = new Semaphore(1);
+    private final ForkJoinPool hashingPool;
+
+    private final Counter createdCounter;
+    private final Counter rejectedCounter;
+    private final Timer batchTimer;
+
+    @Value("${user-import.batch-size:500}")
+    private int batchSize;
+
+    public UserImportService(MongoTemplate mongoTemplate, PasswordEncoder passwordEncoder, Validator validator,
+                             InvalidationBus invalidationBus, MeterRegistry meterRegistry,
+                             @Value("${user-import.hash-parallelism:0}") int hashParallelism) {
+        this.mongoTemplate = mongoTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.invalidationBus = invalidationBus;
+        this.hashingPool = new ForkJoinPool(hashParallelism > 0
+                ? hashParallelism
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        this.createdCounter = Counter.builder("user.import.rows")
+                .description("Rows processed by the bulk user import")
+                .tag("result", "created")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("user.import.rows")
+                .description("Rows processed by the bulk user import")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("user.import.batch")
+                .description("Time to hash and insert one import batch")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdownNow();
+    }
+
+    /**
+     * Running totals of one import.
+     */
+    private static final class Totals {
+        private long rows;
+        private long created;
+        private long rejected;
+    }
+
+    /**
+     * A MongoDB failure other than rejected rows; ends the import.
+     */
+    private static final class ImportStoppedException extends Exception {
+        private ImportStoppedException(DataAccessException cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Imports every row of {@code input}, writing the NDJSON report to {@code report} as it goes.
+     *
+     * @param input  the uploaded file
+     * @param csv    {@code true} for CSV, {@code false} for NDJSON
+     * @param report response body
+     * @return {@code false} if another import is already running on this node (nothing was read)
+     * @throws IOException if the upload or the report stream fails
+     */
+    public boolean importUsers(BufferedReader input, boolean csv, Writer report) throws IOException {
+        if (!importSlot.tryAcquire()) {
+            return false;
+        }
+        long start = System.nanoTime();
+        Totals totals = new Totals();
+        long lineNumber = 0;
+        boolean endOfInput = false;
+        try {
+            List<Row> batch = new ArrayList<>(batchSize);
+            Set<String> seen = new HashSet<>();
+            String line;
+            while ((line = input.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (csv && lineNumber == 1 && line.trim().equalsIgnoreCase("username,password"))) {
+                    continue;
+                }
+                totals.rows++;
+                Row row = parse(line, csv, lineNumber, report, totals);
+                if (row == null) {
+                    continue;
+                }
+                if (!seen.add(row.request().getUsername())) {
+                    reject(report, totals, row.line(), row.request().getUsername(), "duplicate",
+                            List.of("Username appears earlier in this file"));
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    flushBatch(batch, report, totals);
+                    batch.clear();
+                }
+            }
+            endOfInput = true;
+            flushBatch(batch, report, totals);
+            writeLine(report, summaryLine("summary", totals,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+            log.info("user.import.completed",
+                    kv("rows", totals.rows), kv("created", totals.created), kv("rejected", totals.rejected));
+            return true;
+        } catch (ImportStoppedException e) {
+            Map<String, Object> error = new LinkedHashMap<>();
+            error.put("type", "error");
+            error.put("message", "Import stopped: " + e.getMessage());
+            if (!endOfInput) {
+                error.put("unreadFromLine", lineNumber + 1);
+            }
+            writeLine(report, error);
+            writeLine(report, summaryLine("summary", totals,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+            report.flush();
+            log.warn("user.import.stopped",
+                    kv("rows", totals.rows), kv("created", totals.created), kv("rejected", totals.rejected),
+                    kv("unreadFromLine", endOfInput ? null : lineNumber + 1), e.getCause());
+            return true;
+        } finally {
+            importSlot.release();
+        }
+    }
+
+    private record Row(long line, SignupRequest request) {
+    }
+
+    private Row parse(String line, boolean csv, long lineNumber, Writer report, Totals totals) throws IOException {
+        SignupRequest request;
+        try {
+            request = csv ? fromCsv(line) : mapper.readValue(line, SignupRequest.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            reject(report, totals, lineNumber, null, "invalid", List.of("Malformed row"));
+            return null;
+        }
+        Set<ConstraintViolation<SignupRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            reject(report, totals, lineNumber, request.getUsername(), "invalid",
+                    violations.stream().map(ConstraintViolation::getMessage).sorted().toList());
+            return null;
+        }
+        return new Row(lineNumber, request);
+    }
+
+    /**
+     * Hashes the batch in parallel, then inserts it in one unordered bulk write.
+     *
+     * @throws ImportStoppedException if the insert failed as a whole; its rows have been reported as unconfirmed
+     */
+    private void flushBatch(List<Row> batch, Writer report, Totals totals)
+            throws IOException, ImportStoppedException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<User> users;
+        try {
+            users = hashingPool.submit(() -> batch.parallelStream()
+                    .map(row -> UserMapper.toUser(row.request(), passwordEncoder))
+                    .toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+
+        Set<Integer> failed = new HashSet<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class).insert(users).execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                failed.add(error.getIndex());
+                Row row = batch.get(error.getIndex());
+                reject(report, totals, row.line(), row.request().getUsername(),
+                        error.getCode() == DUPLICATE_KEY ? "duplicate" : "failed",
+                        List.of(error.getCode() == DUPLICATE_KEY ? "Username already taken" : error.getMessage()));
+            }
+        } catch (DataAccessException e) {
+            for (Row row : batch) {
+                reject(report, totals, row.line(), row.request().getUsername(), "unconfirmed",
+                        List.of("Insert not confirmed; re-import to find out (existing users show as duplicates)"));
+            }
+            // Whatever part of the batch did land must not stay cached as absent
+            invalidationBus.publishAll(InvalidationBus.USERS, users.stream().map(User::getUsername).toList());
+            throw new ImportStoppedException(e);
+        }
+
+        List<String> created = new ArrayList<>(users.size() - failed.size());
+        for (int i = 0; i < users.size(); i++) {
+            if (!failed.contains(i)) {
+                created.add(users.get(i).getUsername());
+            }
+        }
+        invalidationBus.publishAll(InvalidationBus.USERS, created);
+        totals.created += created.size();
+        createdCounter.increment(created.size());
+        batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        writeLine(report, summaryLine("progress", totals, -1));
+        report.flush();
+    }
+
+    private void reject(Writer report, Totals totals, long line, String username, String status, List<String> errors)
+            throws IOException {
+        totals.rejected++;
+        rejectedCounter.increment();
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("type", "row");
+        entry.put("line", line);
+        entry.put("username", username);
+        entry.put("status", status);
+        entry.put("errors", errors);
+        writeLine(report, entry);
+    }
+
+    private Map<String, Object> summaryLine(String type, Totals totals, long elapsedMs) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("type", type);
+        entry.put("rows", totals.rows);
+        entry.put("created", totals.created);
+        entry.put("rejected", totals.rejected);
+        if (elapsedMs >= 0) {
+            entry.put("elapsedMs", elapsedMs);
+        }
+        return entry;
+    }
+
+    private void writeLine(Writer report, Map<String, Object> entry) throws IOException {
+        report.write(mapper.writeValueAsString(entry));
+        report.write('\n');
+    }
+
+    /**
+     * Parses one {@code username,password} CSV record; fields may be double-quoted, with {@code ""} as an escaped
+     * quote.
+     */
+    static SignupRequest fromCsv(String line) {
+        List<String> fields = new ArrayList<>(2);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        if (quoted || fields.size() != 2) {
+            throw new IllegalArgumentException("Expected username,password");
+        }
+        SignupRequest request = new SignupRequest();
+        request.setUsername(fields.get(0).trim());
+        request.setPassword(fields.get(1));
+        return request;
+    }
+}
@@ -0,0 +1,165 @@
+package com.ochwada.secure_quote_vault.service;
+
+
+import com.ochwada.secure_quote_vault.bloom.BloomFilter;
+import com.ochwada.secure_quote_vault.invalidation.InvalidationBus;
+import com.ochwada.secure_quote_vault.model.User;
+import com.ochwada.secure_quote_vault.mongo.RequiredIndexes;
+import com.ochwada.secure_quote_vault.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.service
+ * File: UsernameAvailabilityService.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 6:25 PM
+ * Description: Answers "is this username free?" from a {@link BloomFilter} of existing usernames.
+ * - A Bloom miss is a definite "available" and never touches MongoDB; a hit (taken, or a false positive) is confirmed
+ * with {@code existsByUsername}.
+ * - Warmed from the {@code users} collection once the application is up; until then (and for as long as MongoDB
+ * can't be read) every check goes to MongoDB.
+ * - New usernames arrive through the {@link InvalidationBus} {@code users} topic, from this node and all others.
+ * - Never the final word: the unique index on {@code users.username} (declared here) rejects concurrent signups.
+ * *******************************************************
+ */
+
+@Slf4j
+@Service
+public class UsernameAvailabilityService implements RequiredIndexes {
+
+    private final UserRepository repository;
+    private final MongoTemplate mongoTemplate;
+
+    private final Counter bloomNegative;
+    private final Counter mongoTaken;
+    private final Counter mongoAvailable;
+
+    /**
+     * Sized on warm-up; {@code null} until then. Takes adds while warming, answers checks only once {@link #ready}.
+     */
+    private volatile BloomFilter usernames;
+    private volatile boolean ready;
+
+    @Value("${username-bloom.expected-insertions:1000000}")
+    private long expectedInsertions;
+
+    @Value("${username-bloom.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    public UsernameAvailabilityService(UserRepository repository, MongoTemplate mongoTemplate,
+                                       MeterRegistry meterRegistry, InvalidationBus bus) {
+        this.repository = repository;
+        this.mongoTemplate = mongoTemplate;
+        this.bloomNegative = checkCounter(meterRegistry, "bloom_negative");
+        this.mongoTaken = checkCounter(meterRegistry, "mongo_taken");
+        // Bloom said "maybe" but MongoDB had no such user: the false positives
+        this.mongoAvailable = checkCounter(meterRegistry, "mongo_available");
+        bus.subscribe(InvalidationBus.USERS, this::recordTaken);
+    }
+
+    /**
+     * The filter can only say "maybe taken"; two signups for the same free name both pass it, and this index makes
+     * the second insert fail.
+     */
+    @Override
+    public List<RequiredIndex> requiredIndexes() {
+        return List.of(new RequiredIndex(mongoTemplate.getCollectionName(User.class),
+                new Index().on("username", Sort.Direction.ASC).unique()));
+    }
+
+    /**
+     * Loads every existing username into a fresh filter. If MongoDB can't be read, checks keep going to MongoDB and
+     * the warm-up is retried every {@code username-bloom.retry-interval}.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${username-bloom.retry-interval:60000}",
+            initialDelayString = "${username-bloom.retry-interval:60000}")
+    public synchronized void warm() {
+        if (ready) {
+            return;
+        }
+        long loaded = 0;
+        BloomFilter filter = null;
+        Query query = new Query();
+        query.fields().include("username");
+        try {
+            long existing = mongoTemplate.estimatedCount(User.class);
+            filter = BloomFilter.create(Math.max(expectedInsertions, existing * 2), falsePositiveRate);
+            // Publish first so signups during the scan land in the same filter; checks wait for the full scan
+            usernames = filter;
+
+            try (Stream<User> users = mongoTemplate.stream(query, User.class)) {
+                for (User user : (Iterable<User>) users::iterator) {
+                    filter.add(user.getUsername());
+                    loaded++;
+                }
+            }
+        } catch (RuntimeException e) {
+            // A partial filter would answer "available" for users it never saw
+            usernames = null;
+            log.warn("username.bloom.warm.failed", kv("error", e.getMessage()));
+            return;
+        }
+        ready = true;
+        log.info("username.bloom.warmed", kv("usernames", loaded), kv("bits", filter.bitCount()));
+    }
+
+    /**
+     * @param username the wanted username
+     * @return {@code true} if nobody has it (at the time of the check)
+     */
+    public boolean isAvailable(String username) {
+        if (!mightBeTaken(username)) {
+            return true;
+        }
+        boolean taken = repository.existsByUsername(username);
+        (taken ? mongoTaken : mongoAvailable).increment();
+        return !taken;
+    }
+
+    /**
+     * @return {@code false} only if the username is definitely free, without a MongoDB round trip
+     */
+    public boolean mightBeTaken(String username) {
+        BloomFilter filter = usernames;
+        if (ready && filter != null && !filter.mightContain(username)) {
+            bloomNegative.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Adds a saved username; called for every {@code users} bus event.
+     */
+    public void recordTaken(String username) {
+        BloomFilter filter = usernames;
+        if (filter != null && username != null) {
+            filter.add(username);
+        }
+    }
+
+    private static Counter checkCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("auth.username.check")
+                .description("Username availability checks by how they were answered")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
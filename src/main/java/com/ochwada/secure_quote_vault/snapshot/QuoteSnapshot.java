@@ -0,0 +1,138 @@
+package com.ochwada.secure_quote_vault.snapshot;
+
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.snapshot
+ * File: QuoteSnapshot.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 10:20 PM
+ * Description: Read-only, memory-mapped view of a quote corpus file written by {@link QuoteSnapshotWriter}.
+ * - The file stays in the page cache, not on the heap; a lookup decodes only the one record it returns.
+ * - Reads use absolute buffer accessors only, so one instance is safe to share between threads.
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ *   header   int magic "QSNP", int version, int recordCount, int authorCount,
+ *            int authorIndexOffset, int recordIndexOffset, long writtenAtEpochMillis, long coveredUntilEpochMillis
+ *   records  [int authorId, long createdAtEpochSecond (UTC, Long.MIN_VALUE if unknown), int length, UTF-8 quote]...
+ *   authors  [int length, UTF-8 author]...          (each distinct author once)
+ *   index    int[authorCount] author offsets, int[recordCount] record offsets
+ * </pre>
+ * *******************************************************
+ */
+
+public final class QuoteSnapshot {
+
+    static final int MAGIC = 0x51534E50; // "QSNP"
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 40;
+
+    /**
+     * {@code createdAt} of a quote without a creation date.
+     */
+    static final long NO_DATE = Long.MIN_VALUE;
+
+    /**
+     * One decoded record.
+     */
+    public record Entry(String quoteString, String author, LocalDateTime createdAt) {
+    }
+
+    private final ByteBuffer buffer;
+    private final int recordCount;
+    private final int authorCount;
+    private final int authorIndexOffset;
+    private final int recordIndexOffset;
+    private final long writtenAtEpochMillis;
+    private final long coveredUntilEpochMillis;
+
+    /**
+     * Decoded authors, filled on first use. Authors are few and shared by many records, so this is the only heap the
+     * snapshot keeps; concurrent first decodes just race to store equal strings.
+     */
+    private final String[] authors;
+
+    private QuoteSnapshot(ByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Not a version " + VERSION + " quote snapshot");
+        }
+        this.buffer = buffer;
+        this.recordCount = buffer.getInt(8);
+        this.authorCount = buffer.getInt(12);
+        this.authorIndexOffset = buffer.getInt(16);
+        this.recordIndexOffset = buffer.getInt(20);
+        this.writtenAtEpochMillis = buffer.getLong(24);
+        this.coveredUntilEpochMillis = buffer.getLong(32);
+        this.authors = new String[authorCount];
+    }
+
+    /**
+     * Maps a snapshot file. The mapping stays valid after the file is replaced or deleted.
+     *
+     * @param file snapshot path
+     * @return the mapped snapshot
+     * @throws IOException              if the file can't be read
+     * @throws IllegalArgumentException if it is not a snapshot
+     */
+    public static QuoteSnapshot map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new QuoteSnapshot(mapped);
+        }
+    }
+
+    public int size() {
+        return recordCount;
+    }
+
+    public long writtenAtEpochMillis() {
+        return writtenAtEpochMillis;
+    }
+
+    /**
+     * @return every quote fetched before this instant is in the snapshot
+     */
+    public long coveredUntilEpochMillis() {
+        return coveredUntilEpochMillis;
+    }
+
+    /**
+     * @param index {@code 0 <= index < size()}
+     * @return the decoded record
+     */
+    public Entry get(int index) {
+        int offset = buffer.getInt(recordIndexOffset + index * Integer.BYTES);
+        int authorId = buffer.getInt(offset);
+        long createdAt = buffer.getLong(offset + 4);
+        String quote = utf8(offset + 12);
+        return new Entry(quote, author(authorId),
+                createdAt == NO_DATE ? null : LocalDateTime.ofEpochSecond(createdAt, 0, ZoneOffset.UTC));
+    }
+
+    private String author(int id) {
+        String author = authors[id];
+        if (author == null) {
+            author = utf8(buffer.getInt(authorIndexOffset + id * Integer.BYTES));
+            authors[id] = author;
+        }
+        return author;
+    }
+
+    private String utf8(int lengthOffset) {
+        int length = buffer.getInt(lengthOffset);
+        byte[] bytes = new byte[length];
+        buffer.get(lengthOffset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,269 @@
+package com.ochwada.secure_quote_vault.snapshot;
+
+
+import com.ochwada.secure_quote_vault.model.Quote;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.snapshot
+ * File: QuoteSnapshotService.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 10:40 PM
+ * Description: Local, memory-mapped catalog of every distinct quote seen so far.
+ * - Mapped from {@code quote-snapshot.path} when the bean is created: no MongoDB, no load phase, no heap.
+ * - Extended from the {@code quotes} collection every {@code quote-snapshot.write-interval} and re-mapped; the
+ * previous mapping stays valid for readers still using it.
+ * - Incremental: a write only reads the quotes fetched since the last one (by {@code _id}, with
+ * {@code quote-snapshot.overlap} of slack for clock skew between nodes). Only the first write on a node, or one after
+ * the file was lost, reads the whole collection. When nothing new turned up the file is not rewritten.
+ * - MongoDB groups the fetches by exact quote text and author, so each distinct quote is written once and no two
+ * quotes can be mistaken for each other.
+ * - {@code quote-snapshot.mode}: {@code fallback} serves a snapshot quote when the upstream API fails, {@code always}
+ * serves {@code /random} from the snapshot and only goes upstream while it is empty, {@code off} disables both.
+ * *******************************************************
+ */
+
+@Slf4j
+@Component
+public class QuoteSnapshotService {
+
+    private final MongoTemplate mongoTemplate;
+    private final Counter fallbackCounter;
+    private final Counter alwaysCounter;
+
+    /**
+     * Current mapping; {@code null} while no snapshot exists.
+     */
+    private volatile QuoteSnapshot snapshot;
+
+    /**
+     * Every quote fetched before this instant is in the snapshot; {@code 0} while there is none. Moves ahead even
+     * when a write finds nothing new and leaves the file as it is.
+     */
+    private volatile long coveredUntilMillis;
+
+    @Value("${quote-snapshot.mode:fallback}")
+    private String mode;
+
+    @Value("${quote-snapshot.path:data/quotes.snap}")
+    private Path path;
+
+    @Value("${quote-snapshot.max-records:1000000}")
+    private int maxRecords;
+
+    @Value("${quote-snapshot.overlap:10m}")
+    private Duration overlap = Duration.ofMinutes(10);
+
+    public QuoteSnapshotService(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.fallbackCounter = Counter.builder("quote.snapshot.served")
+                .description("Quotes served from the local snapshot instead of the upstream API")
+                .tag("reason", "fallback")
+                .register(meterRegistry);
+        this.alwaysCounter = Counter.builder("quote.snapshot.served")
+                .description("Quotes served from the local snapshot instead of the upstream API")
+                .tag("reason", "always")
+                .register(meterRegistry);
+        Gauge.builder("quote.snapshot.records", this, service -> {
+                    QuoteSnapshot current = service.snapshot;
+                    return current == null ? 0 : current.size();
+                })
+                .description("Quotes in the mapped snapshot")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void map() {
+        if ("off".equalsIgnoreCase(mode) || !Files.exists(path)) {
+            return;
+        }
+        try {
+            snapshot = QuoteSnapshot.map(path);
+            coveredUntilMillis = snapshot.coveredUntilEpochMillis();
+            log.info("quote.snapshot.mapped", kv("path", path), kv("records", snapshot.size()));
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("quote.snapshot.map.failed", kv("path", path), e);
+        }
+    }
+
+    /**
+     * @return {@code true} if {@code /random} should be served from the snapshot before trying upstream
+     */
+    public boolean serveAlways() {
+        return "always".equalsIgnoreCase(mode);
+    }
+
+    /**
+     * A random snapshot quote for {@code mode=always}.
+     */
+    public Optional<Quote> servedQuote(String username) {
+        return randomQuote(username, alwaysCounter);
+    }
+
+    /**
+     * A random snapshot quote to use when the upstream call failed (modes {@code fallback} and {@code always}).
+     */
+    public Optional<Quote> fallbackQuote(String username) {
+        return "off".equalsIgnoreCase(mode) ? Optional.empty() : randomQuote(username, fallbackCounter);
+    }
+
+    private Optional<Quote> randomQuote(String username, Counter counter) {
+        QuoteSnapshot current = snapshot;
+        if (current == null || current.size() == 0) {
+            return Optional.empty();
+        }
+        QuoteSnapshot.Entry entry = current.get(ThreadLocalRandom.current().nextInt(current.size()));
+        counter.increment();
+        Quote quote = new Quote();
+        quote.setQuoteString(entry.quoteString());
+        quote.setAuthor(entry.author());
+        quote.setCreatedAt(entry.createdAt());
+        quote.setFetchedBy(username);
+        return Optional.of(quote);
+    }
+
+    /**
+     * Adds the distinct quotes fetched since the last write to the snapshot and maps the new file.
+     */
+    @Scheduled(fixedDelayString = "${quote-snapshot.write-interval:3600000}",
+            initialDelayString = "${quote-snapshot.initial-delay:300000}")
+    public synchronized void write() {
+        if ("off".equalsIgnoreCase(mode)) {
+            return;
+        }
+        long readStartMillis = System.currentTimeMillis();
+        QuoteSnapshot current = snapshot;
+        try {
+            if (current == null) {
+                writeAll(readStartMillis);
+            } else {
+                writeNew(current, readStartMillis);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("quote.snapshot.write.failed", kv("path", path), e);
+        }
+    }
+
+    /**
+     * No snapshot yet: the grouped quotes are distinct already and go straight to the file.
+     */
+    private void writeAll(long readStartMillis) throws IOException {
+        try (QuoteSnapshotWriter writer = new QuoteSnapshotWriter(path);
+             Stream<Document> quotes = distinctQuotesSince(0)) {
+            for (Document quote : (Iterable<Document>) quotes::iterator) {
+                if (writer.size() >= maxRecords || !add(writer, quote)) {
+                    break;
+                }
+            }
+            commit(writer, readStartMillis);
+        }
+    }
+
+    /**
+     * Reads the quotes fetched since the last write, drops those already in {@code current} and appends the rest.
+     * Only the new quotes are held in memory.
+     */
+    private void writeNew(QuoteSnapshot current, long readStartMillis) throws IOException {
+        Map<List<String>, LocalDateTime> fresh = new LinkedHashMap<>();
+        try (Stream<Document> quotes = distinctQuotesSince(coveredUntilMillis - overlap.toMillis())) {
+            quotes.forEach(quote -> {
+                Document key = quote.get("_id", Document.class);
+                fresh.putIfAbsent(List.of(key.getString("quoteString"), key.getString("author")), createdAt(quote));
+            });
+        }
+        for (int i = 0; i < current.size() && !fresh.isEmpty(); i++) {
+            QuoteSnapshot.Entry entry = current.get(i);
+            fresh.remove(List.of(entry.quoteString(), entry.author()));
+        }
+        if (fresh.isEmpty() || current.size() >= maxRecords) {
+            coveredUntilMillis = readStartMillis;
+            log.debug("quote.snapshot.unchanged", kv("path", path), kv("records", current.size()));
+            return;
+        }
+
+        try (QuoteSnapshotWriter writer = new QuoteSnapshotWriter(path)) {
+            boolean full = false;
+            for (int i = 0; i < current.size() && !full; i++) {
+                QuoteSnapshot.Entry entry = current.get(i);
+                full = !writer.add(entry.quoteString(), entry.author(), entry.createdAt());
+            }
+            for (Map.Entry<List<String>, LocalDateTime> quote : fresh.entrySet()) {
+                if (full || writer.size() >= maxRecords) {
+                    break;
+                }
+                full = !writer.add(quote.getKey().get(0), quote.getKey().get(1), quote.getValue());
+            }
+            commit(writer, readStartMillis);
+        }
+    }
+
+    private void commit(QuoteSnapshotWriter writer, long readStartMillis) throws IOException {
+        writer.commit(readStartMillis);
+        snapshot = QuoteSnapshot.map(path);
+        coveredUntilMillis = readStartMillis;
+        log.info("quote.snapshot.written", kv("path", path), kv("records", snapshot.size()));
+    }
+
+    /**
+     * One document per distinct quote text and author fetched at or after {@code fromMillis} ({@code 0}: ever),
+     * with the earliest {@code createdAt} seen for it.
+     */
+    private Stream<Document> distinctQuotesSince(long fromMillis) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        if (fromMillis > 0) {
+            // ObjectIds start with their creation second, so this is a range scan on the _id index
+            stages.add(Aggregation.match(Criteria.where("_id").gte(new ObjectId(new Date(fromMillis)))));
+        }
+        stages.add(Aggregation.match(Criteria.where("quoteString").ne(null).and("author").ne(null)));
+        stages.add(Aggregation.group("quoteString", "author").min("createdAt").as("createdAt"));
+        return mongoTemplate.aggregateStream(
+                Aggregation.newAggregation(stages)
+                        .withOptions(AggregationOptions.builder().allowDiskUse(true).build()),
+                mongoTemplate.getCollectionName(Quote.class), Document.class);
+    }
+
+    private static boolean add(QuoteSnapshotWriter writer, Document quote) throws IOException {
+        Document key = quote.get("_id", Document.class);
+        return writer.add(key.getString("quoteString"), key.getString("author"), createdAt(quote));
+    }
+
+    /**
+     * Spring Data stores {@link LocalDateTime} as a date in the JVM's zone; read it back the same way.
+     */
+    private static LocalDateTime createdAt(Document quote) {
+        Date createdAt = quote.getDate("createdAt");
+        return createdAt == null ? null : LocalDateTime.ofInstant(createdAt.toInstant(), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,141 @@
+package com.ochwada.secure_quote_vault.snapshot;
+
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.snapshot
+ * File: QuoteSnapshotWriter.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 10:30 PM
+ * Description: Streams quotes into the {@link QuoteSnapshot} file format.
+ * - Records are written as they arrive; only the record offsets and the distinct authors are held in memory.
+ * - Writes go to a temporary file that atomically replaces the target on {@link #commit(long)}, so readers never map a
+ * half-written snapshot.
+ * *******************************************************
+ */
+
+public final class QuoteSnapshotWriter implements AutoCloseable {
+
+    /**
+     * Cap on the records region; leaves room for the author table and indexes under the 2 GiB mapping limit.
+     */
+    private static final long MAX_RECORD_BYTES = 1L << 30;
+
+    private final Path target;
+    private final Path temp;
+    private final FileChannel channel;
+    private final DataOutputStream out;
+    private final Map<String, Integer> authorIds = new LinkedHashMap<>();
+
+    private int[] recordOffsets = new int[1024];
+    private int recordCount;
+    private long position = QuoteSnapshot.HEADER_BYTES;
+    private boolean committed;
+
+    public QuoteSnapshotWriter(Path target) throws IOException {
+        this.target = target.toAbsolutePath();
+        Files.createDirectories(this.target.getParent());
+        this.temp = Files.createTempFile(this.target.getParent(), this.target.getFileName().toString(), ".tmp");
+        this.channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.channel.position(QuoteSnapshot.HEADER_BYTES);
+        this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+    }
+
+    /**
+     * @return {@code false} if the records region is full; nothing was written
+     */
+    public boolean add(String quoteString, String author, LocalDateTime createdAt) throws IOException {
+        byte[] quote = quoteString.getBytes(StandardCharsets.UTF_8);
+        if (position + 16 + quote.length > MAX_RECORD_BYTES) {
+            return false;
+        }
+        if (recordCount == recordOffsets.length) {
+            recordOffsets = Arrays.copyOf(recordOffsets, recordCount * 2);
+        }
+        recordOffsets[recordCount++] = (int) position;
+
+        out.writeInt(authorIds.computeIfAbsent(author, ignored -> authorIds.size()));
+        out.writeLong(createdAt == null ? QuoteSnapshot.NO_DATE : createdAt.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(quote.length);
+        out.write(quote);
+        position += 16 + quote.length;
+        return true;
+    }
+
+    public int size() {
+        return recordCount;
+    }
+
+    /**
+     * Writes the author table, the indexes and the header, then moves the file into place.
+     *
+     * @param coveredUntilEpochMillis every quote fetched before this instant is in the snapshot
+     */
+    public void commit(long coveredUntilEpochMillis) throws IOException {
+        int[] authorOffsets = new int[authorIds.size()];
+        int next = 0;
+        for (String author : authorIds.keySet()) {
+            byte[] bytes = author.getBytes(StandardCharsets.UTF_8);
+            authorOffsets[next++] = (int) position;
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            position += 4 + bytes.length;
+        }
+
+        int authorIndexOffset = (int) position;
+        for (int offset : authorOffsets) {
+            out.writeInt(offset);
+        }
+        position += 4L * authorOffsets.length;
+
+        int recordIndexOffset = (int) position;
+        for (int i = 0; i < recordCount; i++) {
+            out.writeInt(recordOffsets[i]);
+        }
+        out.flush();
+
+        ByteBuffer header = ByteBuffer.allocate(QuoteSnapshot.HEADER_BYTES)
+                .putInt(QuoteSnapshot.MAGIC)
+                .putInt(QuoteSnapshot.VERSION)
+                .putInt(recordCount)
+                .putInt(authorOffsets.length)
+                .putInt(authorIndexOffset)
+                .putInt(recordIndexOffset)
+                .putLong(System.currentTimeMillis())
+                .putLong(coveredUntilEpochMillis)
+                .flip();
+        channel.write(header, 0);
+        channel.force(true);
+        channel.close();
+
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        committed = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel.isOpen()) {
+            channel.close();
+        }
+        if (!committed) {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
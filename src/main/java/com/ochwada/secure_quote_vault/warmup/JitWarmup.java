@@ -0,0 +1,218 @@
+package com.ochwada.secure_quote_vault.warmup;
+
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ochwada.secure_quote_vault.audit.AuditLog;
+import com.ochwada.secure_quote_vault.deadline.DeadlineGuard;
+import com.ochwada.secure_quote_vault.invalidation.InvalidationBus;
+import com.ochwada.secure_quote_vault.mapper.QuoteMapper;
+import com.ochwada.secure_quote_vault.model.Quote;
+import com.ochwada.secure_quote_vault.model.Role;
+import com.ochwada.secure_quote_vault.model.User;
+import com.ochwada.secure_quote_vault.repository.UserRepository;
+import com.ochwada.secure_quote_vault.security.JWTFilter;
+import com.ochwada.secure_quote_vault.security.JWTUtil;
+import com.ochwada.secure_quote_vault.security.SigningKeyStore;
+import com.ochwada.secure_quote_vault.security.TokenRevocationList;
+import com.ochwada.secure_quote_vault.service.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.NativeDetector;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.warmup
+ * File: JitWarmup.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 11:20 PM
+ * Description: Drives the request hot paths with synthetic traffic at startup so the JIT has compiled them before the
+ * first real request arrives.
+ * - Each iteration signs and verifies a token, decodes an upstream quote payload, serialises the quote to JSON and
+ * through the MongoDB mapping/BSON codecs, and runs a request through the {@link JWTFilter}.
+ * - Runs as an {@link ApplicationRunner}: Spring Boot reports readiness ({@code /actuator/health/readiness}) only after
+ * all runners have returned, so a new pod takes no traffic while warming.
+ * - Stops at {@code warmup.iterations} or {@code warmup.time-budget}, whichever comes first.
+ * - Works on detached copies (own meters, local key, in-memory user): no production metrics, MongoDB or network.
+ * - {@code warmup.duration} and {@code warmup.iterations} report how long it took and how far it got.
+ * - Skipped in a GraalVM native image: there is no JIT to warm, and the {@link Proxy} stubs below have no proxy
+ * hints registered.
+ * *******************************************************
+ */
+
+@Slf4j
+@Component
+public class JitWarmup implements ApplicationRunner {
+
+    private static final String USERNAME = "warmup-user";
+
+    private static final byte[] UPSTREAM_PAYLOAD = ("{\"id\":42,"
+            + "\"quoteString\":\"The only way to do great work is to love what you do.\","
+            + "\"author\":\"Steve Jobs\","
+            + "\"createdAt\":\"25-07-2025 11:32\"}").getBytes(StandardCharsets.UTF_8);
+
+    private final JWTUtil jwtUtil;
+    private final ObjectMapper objectMapper;
+    private final MongoConverter mongoConverter;
+
+    private final AtomicLong durationNanos = new AtomicLong();
+    private final AtomicLong iterationsRun = new AtomicLong();
+
+    @Value("${warmup.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${warmup.iterations:10000}")
+    private int iterations = 10_000;
+
+    @Value("${warmup.time-budget:20s}")
+    private Duration timeBudget = Duration.ofSeconds(20);
+
+    public JitWarmup(JWTUtil jwtUtil, ObjectMapper objectMapper, MongoTemplate mongoTemplate,
+                     MeterRegistry meterRegistry) {
+        this.jwtUtil = jwtUtil;
+        this.objectMapper = objectMapper;
+        this.mongoConverter = mongoTemplate.getConverter();
+        TimeGauge.builder("warmup.duration", durationNanos, TimeUnit.NANOSECONDS, AtomicLong::get)
+                .description("Time spent warming up the hot paths before reporting ready")
+                .register(meterRegistry);
+        Gauge.builder("warmup.iterations", iterationsRun, AtomicLong::get)
+                .description("Warm-up iterations completed")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!enabled || iterations <= 0) {
+            return;
+        }
+        if (NativeDetector.inNativeImage()) {
+            // Compiled ahead of time: nothing to warm
+            log.info("warmup.skipped", kv("reason", "native-image"));
+            return;
+        }
+
+        // Detached collaborators: synthetic calls stay out of the real meters and never touch MongoDB
+        MeterRegistry scratch = new SimpleMeterRegistry();
+        InvalidationBus bus = new InvalidationBus(null, scratch);
+        SigningKeyStore keyStore = new SigningKeyStore(null, bus);
+        keyStore.activateLocalKey();
+        JWTUtil tokens = jwtUtil.detached(scratch, keyStore);
+        JWTFilter filter = new JWTFilter(tokens,
+                new UserDetailsServiceImpl(userRepository(), null, new DeadlineGuard(scratch), scratch, bus),
+                new TokenRevocationList(null, bus, scratch),
+                new AuditLog(scratch, 2));
+        FilterChain chain = (request, response) -> {
+        };
+        HttpServletResponse response = stub(HttpServletResponse.class, null);
+
+        long start = System.nanoTime();
+        long deadline = start + timeBudget.toNanos();
+        int done = 0;
+        try {
+            while (done < iterations && System.nanoTime() < deadline) {
+                String token = tokens.generateToken(USERNAME);
+                tokens.isTokenValid(token, USERNAME);
+
+                Quote quote = QuoteMapper.fromUpstream(UPSTREAM_PAYLOAD, objectMapper, USERNAME);
+                objectMapper.readValue(objectMapper.writeValueAsBytes(quote), Quote.class);
+                Document document = new Document();
+                mongoConverter.write(quote, document);
+                // Encode to BSON and back, then map: the same codec path a find/insert takes
+                DocumentCodec codec = new DocumentCodec();
+                mongoConverter.read(Quote.class, new RawBsonDocument(document, codec).decode(codec));
+
+                filter.doFilter(stub(HttpServletRequest.class, token), response, chain);
+                SecurityContextHolder.clearContext();
+                done++;
+            }
+        } finally {
+            MDC.remove("user");
+            SecurityContextHolder.clearContext();
+            durationNanos.set(System.nanoTime() - start);
+            iterationsRun.set(done);
+        }
+
+        log.info("warmup.completed",
+                kv("iterations", done),
+                kv("durationMs", TimeUnit.NANOSECONDS.toMillis(durationNanos.get())),
+                kv("budgetExhausted", done < iterations));
+    }
+
+    /**
+     * In-memory {@link UserRepository} that knows the one synthetic user.
+     */
+    private static UserRepository userRepository() {
+        User user = new User("warmup", USERNAME, "{noop}warmup", List.of(Role.USER));
+        return (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByUsername" -> USERNAME.equals(args[0]) ? Optional.of(user) : Optional.empty();
+                    case "existsByUsername" -> USERNAME.equals(args[0]);
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "WarmupUserRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * Minimal servlet request/response: a {@code GET} carrying {@code token} as a Bearer header (if any); every other
+     * call answers {@code null}, {@code false} or {@code 0}.
+     */
+    private static <T> T stub(Class<T> type, String token) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getHeader" -> "Authorization".equalsIgnoreCase((String) args[0]) && token != null
+                            ? "Bearer " + token : null;
+                    case "getMethod" -> "GET";
+                    case "getRequestURI", "getServletPath" -> "/api/quotes/random";
+                    case "getRemoteAddr" -> "127.0.0.1";
+                    case "getDispatcherType" -> DispatcherType.REQUEST;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "Warmup" + type.getSimpleName();
+                    default -> defaultValue(method.getReturnType());
+                }));
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
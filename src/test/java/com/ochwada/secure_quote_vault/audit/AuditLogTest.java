@@ -0,0 +1,127 @@
+package com.ochwada.secure_quote_vault.audit;
+
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.audit
+ * File: AuditLogTest.java
+ * Author: Ochwada
+ * Date: Tuesday, 20.Oct.2026, 3:20 PM
+ * Description: Unit tests for the {@link AuditLog} writer thread: events reach a segment, a rotation that fails
+ * because the directory vanished is counted without stopping the writer, and an idle writer sleeps until an event
+ * wakes it.
+ * *******************************************************
+ */
+
+class AuditLogTest {
+
+    @TempDir
+    Path dir;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AuditLog auditLog;
+    private Path directory;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        auditLog = new AuditLog(meterRegistry, 64);
+        directory = dir.resolve("audit");
+        ReflectionTestUtils.setField(auditLog, "directory", directory);
+        ReflectionTestUtils.setField(auditLog, "segmentMaxAge", Duration.ofMillis(200));
+        auditLog.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        auditLog.stop();
+    }
+
+    @Test
+    void recordedEventsReachASegment() throws Exception {
+        auditLog.record(AuditEvent.Type.SIGNIN, "alice", "success", "127.0.0.1", null);
+
+        await(() -> count("written") == 1);
+        auditLog.stop();
+
+        assertThat(lines()).singleElement().asString().contains("\"alice\"");
+    }
+
+    @Test
+    void writerSurvivesAFailedRotation() throws Exception {
+        auditLog.record(AuditEvent.Type.SIGNIN, "alice", "success", "127.0.0.1", null);
+        await(() -> count("written") == 1);
+
+        // The stale segment can't be renamed into a directory that no longer exists
+        FileSystemUtils.deleteRecursively(directory);
+        await(() -> meterRegistry.get("audit.writer.errors").counter().count() >= 1);
+        Files.createDirectories(directory);
+
+        auditLog.record(AuditEvent.Type.SIGNIN, "bob", "success", "127.0.0.1", null);
+        await(() -> count("written") == 2);
+        auditLog.stop();
+
+        assertThat(auditLog.isRunning()).isFalse();
+        assertThat(lines()).singleElement().asString().contains("\"bob\"");
+    }
+
+    @Test
+    void idleWriterParksUntilAnEventArrives() throws Exception {
+        // Idle parks now last the full second
+        ReflectionTestUtils.setField(auditLog, "segmentMaxAge", Duration.ofHours(1));
+        auditLog.record(AuditEvent.Type.SIGNIN, "alice", "success", "127.0.0.1", null);
+        await(() -> count("written") == 1);
+        Thread writer = (Thread) ReflectionTestUtils.getField(auditLog, "writer");
+
+        long start = System.nanoTime();
+        for (int i = 2; i <= 6; i++) {
+            int expected = i;
+            await(() -> writer.getState() == Thread.State.TIMED_WAITING);
+            Thread.sleep(100);
+            auditLog.record(AuditEvent.Type.SIGNIN, "alice", "success", "127.0.0.1", null);
+            await(() -> count("written") == expected);
+        }
+
+        // Each event woke the writer; waiting out the idle park would take about a second per event
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2_500);
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("audit.events").tag("outcome", outcome).counter().count();
+    }
+
+    private String[] lines() throws Exception {
+        StringBuilder content = new StringBuilder();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.sorted().toList()) {
+                content.append(Files.readString(file));
+            }
+        }
+        return content.toString().lines().toArray(String[]::new);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
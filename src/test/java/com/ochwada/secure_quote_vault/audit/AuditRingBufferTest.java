@@ -0,0 +1,111 @@
+package com.ochwada.secure_quote_vault.audit;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.audit
+ * File: AuditRingBufferTest.java
+ * Author: Ochwada
+ * Date: Tuesday, 20.Oct.2026, 3:00 PM
+ * Description: Unit tests for {@link AuditRingBuffer}: capacity rounding, a full buffer refusing offers, wrap-around,
+ * bounded drains, and concurrent producers losing or duplicating nothing.
+ * *******************************************************
+ */
+
+class AuditRingBufferTest {
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertThat(new AuditRingBuffer<>(1).capacity()).isEqualTo(2);
+        assertThat(new AuditRingBuffer<>(8).capacity()).isEqualTo(8);
+        assertThat(new AuditRingBuffer<>(9).capacity()).isEqualTo(16);
+    }
+
+    @Test
+    void fullBufferRefusesOffersUntilDrained() {
+        AuditRingBuffer<Integer> ring = new AuditRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(ring.offer(i)).isTrue();
+        }
+
+        assertThat(ring.offer(4)).isFalse();
+        assertThat(ring.size()).isEqualTo(4);
+
+        List<Integer> sink = new ArrayList<>();
+        assertThat(ring.drainTo(sink, 1)).isEqualTo(1);
+        assertThat(ring.offer(4)).isTrue();
+        assertThat(ring.drainTo(sink, 10)).isEqualTo(4);
+        assertThat(sink).containsExactly(0, 1, 2, 3, 4);
+        assertThat(ring.size()).isZero();
+    }
+
+    @Test
+    void keepsFifoOrderAcrossManyLaps() {
+        AuditRingBuffer<Integer> ring = new AuditRingBuffer<>(4);
+        List<Integer> sink = new ArrayList<>();
+
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(ring.offer(i)).isTrue();
+            if (i % 3 == 2) {
+                assertThat(ring.drainTo(sink, 3)).isEqualTo(3);
+            }
+        }
+        ring.drainTo(sink, Integer.MAX_VALUE);
+
+        assertThat(sink).hasSize(1_000).isSorted();
+        assertThat(ring.drainTo(sink, 10)).isZero();
+    }
+
+    @Test
+    void concurrentProducersLoseNothingTheBufferAccepted() throws Exception {
+        int producers = 4;
+        int perProducer = 20_000;
+        AuditRingBuffer<Long> ring = new AuditRingBuffer<>(1024);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        for (int p = 0; p < producers; p++) {
+            long base = (long) p * perProducer;
+            pool.submit(() -> {
+                start.await();
+                for (long i = 0; i < perProducer; i++) {
+                    while (!ring.offer(base + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                return null;
+            });
+        }
+
+        start.countDown();
+        List<Long> sink = new ArrayList<>(producers * perProducer);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (sink.size() < producers * perProducer && System.nanoTime() < deadline) {
+            if (ring.drainTo(sink, 256) == 0) {
+                Thread.onSpinWait();
+            }
+        }
+        pool.shutdown();
+
+        assertThat(sink).hasSize(producers * perProducer).doesNotHaveDuplicates();
+        // Each producer's own elements come out in the order it offered them
+        long[] last = new long[producers];
+        Arrays.fill(last, -1);
+        for (long element : sink) {
+            int producer = (int) (element / perProducer);
+            assertThat(element).isGreaterThan(last[producer]);
+            last[producer] = element;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.ochwada.secure_quote_vault.audit;
+
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.audit
+ * File: AuditShipperTest.java
+ * Author: Ochwada
+ * Date: Tuesday, 20.Oct.2026, 3:40 PM
+ * Description: Unit tests for the local retention in {@link AuditShipper} when segments are not shipped to MongoDB.
+ * *******************************************************
+ */
+
+class AuditShipperTest {
+
+    @TempDir
+    Path directory;
+
+    private MongoTemplate mongoTemplate;
+    private AuditShipper shipper;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        shipper = new AuditShipper(mongoTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(shipper, "enabled", false);
+        ReflectionTestUtils.setField(shipper, "directory", directory);
+        ReflectionTestUtils.setField(shipper, "shippedRetention", Duration.ofDays(7));
+        ReflectionTestUtils.setField(shipper, "localRetention", Duration.ofDays(30));
+    }
+
+    @Test
+    void closedSegmentsOlderThanTheRetentionAreDeleted() throws Exception {
+        Path old = segment("audit-1-000000.log", Duration.ofDays(31));
+        Path recent = segment("audit-2-000001.log", Duration.ofDays(1));
+        Path active = segment("audit-3-000002.log.active", Duration.ofDays(31));
+
+        shipper.ship();
+
+        assertThat(old).doesNotExist();
+        assertThat(recent).exists();
+        assertThat(active).exists();
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void zeroRetentionKeepsEverything() throws Exception {
+        ReflectionTestUtils.setField(shipper, "localRetention", Duration.ZERO);
+        Path old = segment("audit-1-000000.log", Duration.ofDays(365));
+
+        shipper.ship();
+
+        assertThat(old).exists();
+    }
+
+    private Path segment(String name, Duration age) throws Exception {
+        Path segment = Files.writeString(directory.resolve(name), "{}\n");
+        Files.setLastModifiedTime(segment, FileTime.from(Instant.now().minus(age)));
+        return segment;
+    }
+}
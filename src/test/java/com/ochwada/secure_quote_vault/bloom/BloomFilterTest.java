@@ -0,0 +1,118 @@
+package com.ochwada.secure_quote_vault.bloom;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.bloom
+ * File: BloomFilterTest.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 6:20 PM
+ * Description: Unit tests for {@link BloomFilter}: no false negatives (also with concurrent adds), a false-positive
+ * rate close to the configured one, and sizing.
+ * *******************************************************
+ */
+
+class BloomFilterTest {
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = BloomFilter.create(1_000, 0.01);
+
+        assertThat(filter.mightContain("alice")).isFalse();
+        assertThat(filter.mightContain("")).isFalse();
+    }
+
+    @Test
+    void neverForgetsAnAddedValue() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user-" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("user-" + i)).as("user-%d", i).isTrue();
+        }
+    }
+
+    @Test
+    void handlesEveryTailLengthAndMultibyteValues() {
+        BloomFilter filter = BloomFilter.create(100, 0.01);
+        List<String> values = new ArrayList<>();
+        for (int length = 0; length <= 33; length++) {
+            values.add("x".repeat(length));
+        }
+        values.add("Zoë");
+        values.add("名前");
+        values.forEach(filter::add);
+
+        assertThat(values).allMatch(filter::mightContain);
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        int expected = 20_000;
+        BloomFilter filter = BloomFilter.create(expected, 0.01);
+        for (int i = 0; i < expected; i++) {
+            filter.add("taken-" + i);
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("free-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertThat((double) falsePositives / probes).isLessThan(0.02);
+    }
+
+    @Test
+    void sizesTheBitArrayFromTheTargetRate() {
+        // -n ln p / (ln 2)^2 = 9586 bits for n = 1000, p = 0.01
+        assertThat(BloomFilter.create(1_000, 0.01).bitCount()).isBetween(9_500L, 9_700L);
+        assertThat(BloomFilter.create(0, 0.01).bitCount()).isEqualTo(64);
+    }
+
+    @Test
+    void concurrentAddsAreNotLost() throws Exception {
+        BloomFilter filter = BloomFilter.create(80_000, 0.01);
+        int threads = 8;
+        int perThread = 10_000;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                writers.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        filter.add(thread + ":" + i);
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < perThread; i++) {
+                assertThat(filter.mightContain(t + ":" + i)).isTrue();
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.ochwada.secure_quote_vault.config;
+
+
+import com.ochwada.secure_quote_vault.audit.AuditLog;
+import com.ochwada.secure_quote_vault.controller.AuthController;
+import com.ochwada.secure_quote_vault.invalidation.InvalidationBus;
+import com.ochwada.secure_quote_vault.ratelimit.RateLimiter;
+import com.ochwada.secure_quote_vault.repository.UserRepository;
+import com.ochwada.secure_quote_vault.security.JWTUtil;
+import com.ochwada.secure_quote_vault.security.LoginThrottle;
+import com.ochwada.secure_quote_vault.security.RefreshTokenService;
+import com.ochwada.secure_quote_vault.security.SigningKeyStore;
+import com.ochwada.secure_quote_vault.security.TokenRevocationList;
+import com.ochwada.secure_quote_vault.service.UserDetailsServiceImpl;
+import com.ochwada.secure_quote_vault.service.UsernameAvailabilityService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.config
+ * File: SecurityConfigTest.java
+ * Author: Ochwada
+ * Date: Wednesday, 21.Oct.2026, 9:00 AM
+ * Description: Access rules of the assembled security chain ({@link SecurityConfig} with the real {@code JWTFilter}),
+ * driven through MockMvc: which actuator endpoints are public on the application port, and that an expired access
+ * token still reaches {@code /auth/refresh} and {@code /auth/logout} while protected endpoints answer {@code 401}.
+ * *******************************************************
+ */
+
+@WebMvcTest(controllers = AuthController.class,
+        properties = {"PORT=0", "jwt.secret=" + SecurityConfigTest.SECRET})
+@Import({SecurityConfig.class, JWTUtil.class, SecurityConfigTest.Meters.class})
+class SecurityConfigTest {
+
+    static final String SECRET = "0123456789abcdef0123456789abcdef0123456789";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private UserDetailsServiceImpl userDetailsService;
+    @MockitoBean
+    private TokenRevocationList revocationList;
+    @MockitoBean
+    private AuditLog auditLog;
+    @MockitoBean
+    private RateLimiter rateLimiter;
+    @MockitoBean
+    private SigningKeyStore signingKeyStore;
+    @MockitoBean
+    private UserRepository userRepository;
+    @MockitoBean
+    private LoginThrottle loginThrottle;
+    @MockitoBean
+    private InvalidationBus invalidationBus;
+    @MockitoBean
+    private UsernameAvailabilityService usernameAvailability;
+    @MockitoBean
+    private RefreshTokenService refreshTokens;
+
+    @Test
+    void healthProbesArePublic() throws Exception {
+        // No actuator in this slice: 404 means the chain let the request through
+        mockMvc.perform(get("/actuator/health/liveness")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/livez")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void prometheusScrapeNeedsAnAdminOnTheApplicationPort() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void prometheusScrapeIsRefusedToOrdinaryUsers() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void prometheusScrapeIsOpenToAdmins() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void expiredAccessTokenCanStillRefresh() throws Exception {
+        when(refreshTokens.rotate("refresh-1"))
+                .thenReturn(Optional.of(new RefreshTokenService.Rotation("alice", "refresh-2")));
+
+        mockMvc.perform(post("/auth/refresh")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + expiredToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"refresh-1\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void logoutWithAnExpiredAccessTokenIsUnauthorized() throws Exception {
+        mockMvc.perform(post("/auth/logout")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + expiredToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"refresh-1\"}"))
+                .andExpect(status().isUnauthorized());
+
+        // The refresh token family still ends; the expired access token needs no revocation
+        verify(refreshTokens).revoke("refresh-1");
+        verify(revocationList, never()).revoke(anyString(), any(Date.class));
+    }
+
+    @Test
+    void expiredAccessTokenIsUnauthorizedOnProtectedEndpoints() throws Exception {
+        mockMvc.perform(get("/api/quotes").header(HttpHeaders.AUTHORIZATION, "Bearer " + expiredToken()))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private static String expiredToken() {
+        Date issuedAt = new Date(System.currentTimeMillis() - 20 * 60_000);
+        return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject("alice")
+                .setIssuedAt(issuedAt)
+                .setExpiration(new Date(issuedAt.getTime() + 15 * 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class Meters {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.ochwada.secure_quote_vault.config;
+
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.embedded.EmbeddedWebServerFactoryCustomizerAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.config
+ * File: VirtualThreadRequestTest.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 9:40 AM
+ * Description: Checks that {@code VIRTUAL_THREADS_ENABLED=true} really moves Tomcat request handling onto virtual
+ * threads.
+ * - Boots the embedded server with the application's own {@code application.properties} (the flag goes through
+ * {@code spring.threads.virtual.enabled}); MongoDB and security are left out, only the web stack is started.
+ * - A probe endpoint reports the thread it was handled on.
+ * - The concurrency ceiling is compared on a blocking probe that stands in for a slow upstream call: with a worker
+ * pool of {@value #WORKERS} threads no more requests are ever inside it at once, with virtual threads all of them are.
+ * Both checks wait for a state to be reached rather than timing anything. Throughput under load is measured by the
+ * {@code loadtest} module ({@code --virtual-threads=true|false}).
+ * *******************************************************
+ */
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "VIRTUAL_THREADS_ENABLED=true")
+class VirtualThreadRequestTest {
+
+    private static final int WORKERS = 4;
+    private static final int REQUESTS = 16;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void requestsAreHandledOnVirtualThreads() {
+        Map<?, ?> thread = restTemplate.getForObject("/probe/thread", Map.class);
+
+        assertThat(thread.get("virtual")).isEqualTo(true);
+    }
+
+    @Test
+    void blockedWorkerPoolCapsConcurrentRequests() throws Exception {
+        try (ConfigurableApplicationContext context = start(false)) {
+            BlockingProbeController probe = context.getBean(BlockingProbeController.class);
+            List<CompletableFuture<HttpResponse<String>>> responses = sendBlockingRequests(context);
+
+            assertThat(probe.awaitInside(WORKERS)).isTrue();
+            // Give queued requests every chance to get in; they can't while all workers are blocked
+            Thread.sleep(300);
+            assertThat(probe.inside()).isEqualTo(WORKERS);
+
+            probe.release();
+            assertAllSucceed(responses);
+        }
+    }
+
+    @Test
+    void virtualThreadsLiftTheCeiling() throws Exception {
+        try (ConfigurableApplicationContext context = start(true)) {
+            BlockingProbeController probe = context.getBean(BlockingProbeController.class);
+            List<CompletableFuture<HttpResponse<String>>> responses = sendBlockingRequests(context);
+
+            assertThat(probe.awaitInside(REQUESTS)).isTrue();
+
+            probe.release();
+            assertAllSucceed(responses);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtualThreads) {
+        return new SpringApplicationBuilder(WebOnly.class)
+                .properties("PORT=0",
+                        "server.tomcat.threads.max=" + WORKERS,
+                        "server.tomcat.threads.min-spare=1",
+                        "VIRTUAL_THREADS_ENABLED=" + virtualThreads)
+                .run();
+    }
+
+    private static List<CompletableFuture<HttpResponse<String>>> sendBlockingRequests(
+            ConfigurableApplicationContext context) {
+        HttpClient client = HttpClient.newHttpClient();
+        URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                + "/probe/blocking");
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            responses.add(client.sendAsync(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString()));
+        }
+        return responses;
+    }
+
+    private static void assertAllSucceed(List<CompletableFuture<HttpResponse<String>>> responses) throws Exception {
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertThat(response.get(30, TimeUnit.SECONDS).statusCode()).isEqualTo(200);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({
+            ServletWebServerFactoryAutoConfiguration.class,
+            EmbeddedWebServerFactoryCustomizerAutoConfiguration.class,
+            DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class,
+            HttpMessageConvertersAutoConfiguration.class,
+            JacksonAutoConfiguration.class})
+    @Import({ThreadProbeController.class, BlockingProbeController.class})
+    static class WebOnly {
+    }
+
+    @RestController
+    static class ThreadProbeController {
+
+        @GetMapping("/probe/thread")
+        Map<String, Object> thread() {
+            Thread current = Thread.currentThread();
+            return Map.of("name", current.getName(), "virtual", current.isVirtual());
+        }
+    }
+
+    /**
+     * Holds each request until {@link #release()}, like a handler waiting on a slow upstream.
+     */
+    @RestController
+    static class BlockingProbeController {
+
+        private final AtomicInteger inside = new AtomicInteger();
+        private final CountDownLatch gate = new CountDownLatch(1);
+
+        @GetMapping("/probe/blocking")
+        String block() throws InterruptedException {
+            inside.incrementAndGet();
+            try {
+                gate.await(30, TimeUnit.SECONDS);
+                return "released";
+            } finally {
+                inside.decrementAndGet();
+            }
+        }
+
+        int inside() {
+            return inside.get();
+        }
+
+        boolean awaitInside(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+            while (inside.get() < count) {
+                if (System.nanoTime() > deadline) {
+                    return false;
+                }
+                Thread.sleep(10);
+            }
+            return true;
+        }
+
+        void release() {
+            gate.countDown();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.ochwada.secure_quote_vault.idempotency;
+
+
+import com.ochwada.secure_quote_vault.deadline.DeadlineGuard;
+import com.ochwada.secure_quote_vault.model.Quote;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.idempotency
+ * File: IdempotencyServiceTest.java
+ * Author: Ochwada
+ * Date: Tuesday, 20.Oct.2026, 4:00 PM
+ * Description: Unit tests for {@link IdempotencyService}: concurrent requests with one key share a single call, user
+ * and key stay apart in the {@code _id}, a failed call lets the next retry run, and a result that could not be stored
+ * is still returned.
+ * *******************************************************
+ */
+
+class IdempotencyServiceTest {
+
+    private MongoTemplate mongoTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private IdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.getConverter()).thenReturn(mock(MongoConverter.class));
+        meterRegistry = new SimpleMeterRegistry();
+        service = new IdempotencyService(mongoTemplate, new DeadlineGuard(meterRegistry), meterRegistry);
+        ReflectionTestUtils.setField(service, "window", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(service, "pendingTimeout", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(service, "maxEntries", 100);
+    }
+
+    @Test
+    void concurrentRequestsWithOneKeyShareOneCall() throws Exception {
+        int requests = 8;
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        Quote quote = quote("q1");
+        ExecutorService pool = Executors.newFixedThreadPool(requests);
+        try {
+            List<Future<IdempotencyService.Outcome>> outcomes = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                outcomes.add(pool.submit(() -> service.execute("alice", "key-1", () -> {
+                    calls.incrementAndGet();
+                    release.join();
+                    return quote;
+                })));
+            }
+            // Let every request reach the table before the one executing finishes
+            Thread.sleep(200);
+            release.complete(null);
+
+            int replays = 0;
+            for (Future<IdempotencyService.Outcome> outcome : outcomes) {
+                IdempotencyService.Outcome result = outcome.get(10, TimeUnit.SECONDS);
+                assertThat(result.quote()).isSameAs(quote);
+                replays += result.replayed() ? 1 : 0;
+            }
+            assertThat(calls).hasValue(1);
+            assertThat(replays).isEqualTo(requests - 1);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // A later repeat on this node is answered from the table
+        assertThat(service.execute("alice", "key-1", () -> quote("q2")).quote()).isSameAs(quote);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void userAndKeyStaySeparateInTheId() throws Exception {
+        service.execute("alice:x", "y", () -> quote("q1"));
+        service.execute("alice", "x:y", () -> quote("q2"));
+
+        ArgumentCaptor<Document> claims = ArgumentCaptor.forClass(Document.class);
+        verify(mongoTemplate, times(2)).insert(claims.capture(), eq(IdempotencyService.COLLECTION));
+        assertThat(claims.getAllValues()).extracting(claim -> claim.get("_id")).containsExactly(
+                new Document("user", "alice:x").append("key", "y"),
+                new Document("user", "alice").append("key", "x:y"));
+    }
+
+    @Test
+    void failedCallReleasesTheKeyForTheNextRetry() throws Exception {
+        assertThatThrownBy(() -> service.execute("alice", "key-1", () -> {
+            throw new IOException("upstream down");
+        })).isInstanceOf(IOException.class);
+        verify(mongoTemplate).remove(any(Query.class), eq(IdempotencyService.COLLECTION));
+
+        IdempotencyService.Outcome retry = service.execute("alice", "key-1", () -> quote("q1"));
+
+        assertThat(retry.quote().getId()).isEqualTo("q1");
+        assertThat(retry.replayed()).isFalse();
+    }
+
+    @Test
+    void quoteIsReturnedWhenItCannotBeStored() throws Exception {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(IdempotencyService.COLLECTION)))
+                .thenThrow(new DataAccessResourceFailureException("connection reset"));
+
+        IdempotencyService.Outcome outcome = service.execute("alice", "key-1", () -> quote("q1"));
+
+        assertThat(outcome.quote().getId()).isEqualTo("q1");
+        assertThat(outcome.replayed()).isFalse();
+        verify(mongoTemplate).remove(any(Query.class), eq(IdempotencyService.COLLECTION));
+        assertThat(meterRegistry.get("idempotency.store.failed").counter().count()).isEqualTo(1.0);
+    }
+
+    private static Quote quote(String id) {
+        Quote quote = new Quote();
+        quote.setId(id);
+        return quote;
+    }
+}
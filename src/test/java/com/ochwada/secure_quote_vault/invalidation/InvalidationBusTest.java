@@ -0,0 +1,222 @@
+package com.ochwada.secure_quote_vault.invalidation;
+
+
+import com.mongodb.MongoSocketOpenException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.ListCollectionsIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.invalidation
+ * File: InvalidationBusTest.java
+ * Author: Ochwada
+ * Date: Wednesday, 21.Oct.2026, 10:30 AM
+ * Description: Unit tests for {@link InvalidationBus}: local dispatch per topic, no insert before the collection is
+ * known to be capped, converting a plain collection, routing of remote events, and where tailing resumes.
+ * *******************************************************
+ */
+
+class InvalidationBusTest {
+
+    private MongoTemplate mongoTemplate;
+    private MongoDatabase database;
+    private ListCollectionsIterable<Document> listCollections;
+    private MongoCollection<Document> collection;
+    private SimpleMeterRegistry meterRegistry;
+    private InvalidationBus bus;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        database = mock(MongoDatabase.class);
+        listCollections = mock(ListCollectionsIterable.class, RETURNS_SELF);
+        collection = mock(MongoCollection.class);
+        when(mongoTemplate.getDb()).thenReturn(database);
+        when(database.listCollections()).thenReturn(listCollections);
+        when(mongoTemplate.getCollection(InvalidationBus.COLLECTION)).thenReturn(collection);
+        meterRegistry = new SimpleMeterRegistry();
+        bus = new InvalidationBus(mongoTemplate, meterRegistry);
+        ReflectionTestUtils.setField(bus, "enabled", true);
+        ReflectionTestUtils.setField(bus, "collectionSizeBytes", 1024L);
+        ReflectionTestUtils.setField(bus, "maxEvents", 10L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bus.stop();
+    }
+
+    @Test
+    void dispatchesLocallyToTheTopicsSubscribersOnly() {
+        InvalidationBus local = new InvalidationBus(null, meterRegistry);
+        List<String> users = new ArrayList<>();
+        List<String> quotes = new ArrayList<>();
+        local.subscribe(InvalidationBus.USERS, users::add);
+        local.subscribe(InvalidationBus.QUOTES, quotes::add);
+
+        local.publish(InvalidationBus.USERS, "alice");
+        local.publishAll(InvalidationBus.QUOTES, List.of("bob", "carol"));
+
+        assertThat(users).containsExactly("alice");
+        assertThat(quotes).containsExactly("bob", "carol");
+    }
+
+    @Test
+    void neverInsertsBeforeTheCappedCollectionExists() {
+        when(listCollections.first())
+                .thenThrow(new MongoSocketOpenException("down", new ServerAddress()))
+                .thenReturn(null)
+                .thenReturn(cappedInfo(true));
+        List<String> users = new ArrayList<>();
+        bus.subscribe(InvalidationBus.USERS, users::add);
+
+        bus.publish(InvalidationBus.USERS, "alice");
+        verify(collection, never()).insertOne(any(Document.class));
+        assertThat(users).containsExactly("alice");
+        assertThat(meterRegistry.get("invalidation.publish.failed").tag("topic", "users").counter().count())
+                .isEqualTo(1);
+
+        bus.publish(InvalidationBus.USERS, "bob");
+        verify(mongoTemplate).createCollection(eq(InvalidationBus.COLLECTION), any(CollectionOptions.class));
+        // Marker plus the event
+        verify(collection, times(2)).insertOne(any(Document.class));
+        assertThat(meterRegistry.get("invalidation.published").tag("topic", "users").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void convertsAPlainCollectionToCapped() {
+        when(listCollections.first()).thenReturn(cappedInfo(false));
+
+        assertThat(bus.ensureCappedCollection()).isTrue();
+        assertThat(bus.ensureCappedCollection()).isTrue();
+
+        ArgumentCaptor<Bson> command = ArgumentCaptor.forClass(Bson.class);
+        verify(database, times(1)).runCommand(command.capture());
+        assertThat(command.getValue().toBsonDocument().getString("convertToCapped").getValue())
+                .isEqualTo(InvalidationBus.COLLECTION);
+        verify(mongoTemplate, never()).createCollection(anyString(), any(CollectionOptions.class));
+    }
+
+    @Test
+    void resumesAfterTheNewestEventAndRoutesOtherNodesEvents() {
+        when(listCollections.first()).thenReturn(cappedInfo(true));
+        ObjectId newest = new ObjectId();
+        FindIterable<Document> latest = findIterable();
+        when(latest.first()).thenReturn(new Document("_id", newest));
+        when(collection.find()).thenReturn(latest);
+        String nodeId = (String) ReflectionTestUtils.getField(bus, "nodeId");
+        FindIterable<Document> tailing = tailing(
+                event(InvalidationBus.USERS, "other-node", "alice"),
+                event(InvalidationBus.USERS, nodeId, "self"),
+                event(InvalidationBus.QUOTES, "other-node", "bob"));
+        when(collection.find(any(Bson.class))).thenReturn(tailing);
+        List<String> users = new CopyOnWriteArrayList<>();
+        List<String> quotes = new CopyOnWriteArrayList<>();
+        bus.subscribe(InvalidationBus.USERS, users::add);
+        bus.subscribe(InvalidationBus.QUOTES, quotes::add);
+
+        bus.start();
+
+        ArgumentCaptor<Bson> filter = ArgumentCaptor.forClass(Bson.class);
+        verify(collection, timeout(2_000)).find(filter.capture());
+        assertThat(filter.getValue().toBsonDocument().getDocument("_id").getObjectId("$gt").getValue())
+                .isEqualTo(newest);
+        awaitUntil(() -> !quotes.isEmpty());
+        assertThat(users).containsExactly("alice");
+        assertThat(quotes).containsExactly("bob");
+    }
+
+    @Test
+    void followsOnlyNewEventsWhenTheNewestIdCannotBeRead() {
+        when(listCollections.first()).thenReturn(cappedInfo(true));
+        when(collection.find()).thenThrow(new MongoSocketOpenException("down", new ServerAddress()));
+        FindIterable<Document> tailing = tailing();
+        when(collection.find(any(Bson.class))).thenReturn(tailing);
+        Date before = new Date();
+
+        bus.start();
+
+        ArgumentCaptor<Bson> filter = ArgumentCaptor.forClass(Bson.class);
+        verify(collection, timeout(2_000)).find(filter.capture());
+        long since = filter.getValue().toBsonDocument().getDocument("publishedAt").getDateTime("$gte").getValue();
+        assertThat(since).isGreaterThanOrEqualTo(before.getTime());
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static Document cappedInfo(boolean capped) {
+        return new Document("name", InvalidationBus.COLLECTION).append("options", new Document("capped", capped));
+    }
+
+    private static Document event(String topic, String origin, String key) {
+        return new Document("_id", new ObjectId())
+                .append("topic", topic)
+                .append("keys", List.of(key))
+                .append("origin", origin)
+                .append("publishedAt", new Date());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static FindIterable<Document> findIterable() {
+        return mock(FindIterable.class, RETURNS_SELF);
+    }
+
+    /**
+     * A cursor that returns {@code events} once and then reports itself closed, like a dropped tailable cursor.
+     */
+    @SuppressWarnings("unchecked")
+    private static FindIterable<Document> tailing(Document... events) {
+        FindIterable<Document> iterable = findIterable();
+        MongoCursor<Document> cursor = mock(MongoCursor.class);
+        if (events.length == 0) {
+            when(cursor.tryNext()).thenReturn(null);
+        } else {
+            Document[] rest = new Document[events.length];
+            System.arraycopy(events, 1, rest, 0, events.length - 1);
+            when(cursor.tryNext()).thenReturn(events[0], rest);
+        }
+        when(iterable.iterator()).thenReturn(cursor);
+        return iterable;
+    }
+}
@@ -0,0 +1,148 @@
+package com.ochwada.secure_quote_vault.ratelimit;
+
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.ratelimit
+ * File: AdaptiveConcurrencyLimiterTest.java
+ * Author: Ochwada
+ * Date: Tuesday, 20.Oct.2026, 9:30 AM
+ * Description: Unit tests for {@link AdaptiveConcurrencyLimiter}: admission and shedding, multiplicative decrease once
+ * per window on slow samples or failures, additive increase on fast ones, the min/max bounds, and a limit that stays
+ * put under light traffic.
+ * *******************************************************
+ */
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = Duration.ofMillis(1).toNanos();
+    private static final long SLOW = Duration.ofMillis(10).toNanos();
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new AdaptiveConcurrencyLimiter("quotes", 10, 2, 20, 2.0, 0.5, meterRegistry);
+    }
+
+    @Test
+    void shedsRequestsBeyondTheLimit() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(meterRegistry.get("concurrency.rejected").tag("endpoint", "quotes").counter().count())
+                .isEqualTo(1.0);
+        assertThat(limiter.getInFlight()).isEqualTo(10);
+
+        limiter.release(FAST, false);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void slowSamplesUnderLoadHalveTheLimitOncePerWindow() {
+        establishBaseline();
+        fill();
+
+        // The window is ~limit completions: the baseline sample plus eight slow ones leave the limit alone
+        for (int i = 0; i < 8; i++) {
+            limiter.release(SLOW, false);
+            fill();
+        }
+        assertThat(limiter.getLimit()).isEqualTo(10.0);
+
+        limiter.release(SLOW, false);
+        assertThat(limiter.getLimit()).isEqualTo(5.0);
+
+        // A new window starts: the next slow sample doesn't shrink it again
+        limiter.release(SLOW, false);
+        assertThat(limiter.getLimit()).isEqualTo(5.0);
+    }
+
+    @Test
+    void failuresCountAsSlowSamples() {
+        establishBaseline();
+        fill();
+
+        for (int i = 0; i < 9; i++) {
+            limiter.release(FAST, true);
+            fill();
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(5.0);
+    }
+
+    @Test
+    void neverShrinksBelowTheMinimum() {
+        establishBaseline();
+
+        for (int i = 0; i < 100; i++) {
+            fill();
+            limiter.release(SLOW, false);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("concurrency.limit").tag("endpoint", "quotes").gauge().value())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    void fastSamplesUnderLoadWidenByAboutOnePerWindowUpToTheMaximum() {
+        fill();
+
+        for (int i = 0; i < 10; i++) {
+            limiter.release(FAST, false);
+            fill();
+        }
+        assertThat(limiter.getLimit()).isCloseTo(11.0, within(0.1));
+
+        for (int i = 0; i < 1_000; i++) {
+            limiter.release(FAST, false);
+            fill();
+        }
+        assertThat(limiter.getLimit()).isEqualTo(20.0);
+        assertThat(limiter.getInFlight()).isEqualTo(20);
+    }
+
+    @Test
+    void lightTrafficNeverMovesTheLimit() {
+        establishBaseline();
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+            limiter.release(i % 2 == 0 ? SLOW : FAST, i % 3 == 0);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(10.0);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    /**
+     * One unsaturated fast request, so later samples have a no-load latency to compare against.
+     */
+    private void establishBaseline() {
+        assertThat(limiter.tryAcquire()).isTrue();
+        limiter.release(FAST, false);
+    }
+
+    /**
+     * Admits requests until the limiter sheds one.
+     */
+    private void fill() {
+        while (limiter.tryAcquire()) {
+            // keep admitting
+        }
+    }
+}
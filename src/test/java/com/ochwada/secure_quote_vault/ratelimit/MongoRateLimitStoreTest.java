@@ -0,0 +1,69 @@
+package com.ochwada.secure_quote_vault.ratelimit;
+
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.ratelimit
+ * File: MongoRateLimitStoreTest.java
+ * Author: Ochwada
+ * Date: Wednesday, 21.Oct.2026, 9:30 AM
+ * Description: Unit tests for {@link MongoRateLimitStore}: the shared window budget, and failing open (counted) when
+ * MongoDB cannot be reached.
+ * *******************************************************
+ */
+
+class MongoRateLimitStoreTest {
+
+    private static final RateLimitPolicy POLICY = new RateLimitPolicy("user", 2, 60);
+
+    private MongoTemplate mongoTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private MongoRateLimitStore store;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        store = new MongoRateLimitStore(mongoTemplate, meterRegistry);
+    }
+
+    @Test
+    void rejectsOnceTheWindowCountExceedsCapacity() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(MongoRateLimitStore.COLLECTION)))
+                .thenReturn(new Document("count", 2), new Document("count", 3));
+
+        assertThat(store.tryAcquire(POLICY, "user:alice")).isZero();
+        assertThat(store.tryAcquire(POLICY, "user:alice")).isPositive();
+    }
+
+    @Test
+    void failsOpenAndCountsWhenMongoIsDown() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(MongoRateLimitStore.COLLECTION)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(MongoRateLimitStore.COLLECTION)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertThat(store.tryAcquire(POLICY, "user:alice")).isZero();
+        store.refund(POLICY, "user:alice");
+
+        assertThat(meterRegistry.get("ratelimit.store.errors").counter().count()).isEqualTo(2);
+    }
+}
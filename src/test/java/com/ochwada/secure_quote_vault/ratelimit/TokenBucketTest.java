@@ -0,0 +1,122 @@
+package com.ochwada.secure_quote_vault.ratelimit;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.ratelimit
+ * File: TokenBucketTest.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 2:55 PM
+ * Description: Unit tests for {@link TokenBucket}: burst size, refill timing, reported wait, idleness and exactly
+ * {@code capacity} grants under contention. Time is passed in explicitly, so nothing here sleeps.
+ * *******************************************************
+ */
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void grantsTheFullBurstThenRejects() {
+        TokenBucket bucket = new TokenBucket(3, SECOND, 0);
+
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isEqualTo(SECOND);
+    }
+
+    @Test
+    void refillsOneTokenPerEmissionInterval() {
+        TokenBucket bucket = new TokenBucket(2, SECOND, 0);
+        bucket.tryAcquire(0);
+        bucket.tryAcquire(0);
+
+        assertThat(bucket.tryAcquire(SECOND / 4)).isEqualTo(SECOND * 3 / 4);
+        assertThat(bucket.tryAcquire(SECOND)).isZero();
+        assertThat(bucket.tryAcquire(SECOND)).isEqualTo(SECOND);
+    }
+
+    @Test
+    void neverBanksMoreThanCapacity() {
+        TokenBucket bucket = new TokenBucket(2, SECOND, 0);
+        long later = 100 * SECOND;
+
+        assertThat(bucket.tryAcquire(later)).isZero();
+        assertThat(bucket.tryAcquire(later)).isZero();
+        assertThat(bucket.tryAcquire(later)).isPositive();
+    }
+
+    @Test
+    void refundReturnsATokenButNeverOverfills() {
+        TokenBucket bucket = new TokenBucket(2, SECOND, 0);
+        bucket.tryAcquire(0);
+        bucket.tryAcquire(0);
+
+        bucket.refund();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isPositive();
+
+        TokenBucket full = new TokenBucket(2, SECOND, 0);
+        full.refund();
+        assertThat(full.tryAcquire(0)).isZero();
+        assertThat(full.tryAcquire(0)).isZero();
+        assertThat(full.tryAcquire(0)).isPositive();
+    }
+
+    @Test
+    void isIdleOnceFullForTheIdlePeriod() {
+        TokenBucket bucket = new TokenBucket(2, SECOND, 0);
+        bucket.tryAcquire(0);
+
+        // Full again at 1s
+        assertThat(bucket.isIdle(SECOND, 5 * SECOND)).isFalse();
+        assertThat(bucket.isIdle(6 * SECOND, 5 * SECOND)).isTrue();
+    }
+
+    @Test
+    void concurrentCallersGetExactlyCapacityTokens() throws Exception {
+        int capacity = 1_000;
+        int threads = 8;
+        TokenBucket bucket = new TokenBucket(capacity, SECOND, 0);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(pool.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < capacity; j++) {
+                        if (bucket.tryAcquire(0) == 0) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(granted.get()).isEqualTo(capacity);
+    }
+}
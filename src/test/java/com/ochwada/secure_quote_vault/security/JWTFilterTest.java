@@ -0,0 +1,117 @@
+package com.ochwada.secure_quote_vault.security;
+
+
+import com.ochwada.secure_quote_vault.audit.AuditEvent;
+import com.ochwada.secure_quote_vault.audit.AuditLog;
+import com.ochwada.secure_quote_vault.invalidation.InvalidationBus;
+import com.ochwada.secure_quote_vault.service.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.security
+ * File: JWTFilterTest.java
+ * Author: Ochwada
+ * Date: Wednesday, 21.Oct.2026, 11:45 AM
+ * Description: Unit tests for {@link JWTFilter} with a real {@link JWTUtil} and {@link TokenRevocationList}: a valid
+ * token authenticates, a revoked one is refused and audited without touching the user store, and an expired one
+ * lets the request continue unauthenticated.
+ * *******************************************************
+ */
+
+class JWTFilterTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789";
+
+    private JWTUtil jwtUtil;
+    private TokenRevocationList revocations;
+    private UserDetailsServiceImpl userDetailsService;
+    private AuditLog auditLog;
+    private JWTFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        jwtUtil = new JWTUtil(meterRegistry,
+                new SigningKeyStore(mock(MongoTemplate.class), mock(InvalidationBus.class)));
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", SECRET);
+        revocations = new TokenRevocationList(mock(MongoTemplate.class), new InvalidationBus(null, meterRegistry),
+                meterRegistry);
+        userDetailsService = mock(UserDetailsServiceImpl.class);
+        when(userDetailsService.loadUserByUsername("alice"))
+                .thenReturn(User.withUsername("alice").password("x").roles("USER").build());
+        auditLog = mock(AuditLog.class);
+        filter = new JWTFilter(jwtUtil, userDetailsService, revocations, auditLog);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validTokenAuthenticates() throws Exception {
+        MockFilterChain chain = send(jwtUtil.generateToken("alice"));
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getName()).isEqualTo("alice");
+    }
+
+    @Test
+    void revokedTokenIsRefused() throws Exception {
+        String token = jwtUtil.generateToken("alice");
+        Claims claims = jwtUtil.parseClaims(token);
+        revocations.revoke(claims.getId(), claims.getExpiration());
+
+        MockFilterChain chain = send(token);
+
+        // The chain goes on unauthenticated; the entry point answers
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+        verify(auditLog).record(eq(AuditEvent.Type.TOKEN_REJECTED), eq("alice"), eq("revoked"), anyString(),
+                eq(claims.getId()));
+    }
+
+    @Test
+    void expiredTokenContinuesUnauthenticated() throws Exception {
+        ReflectionTestUtils.setField(jwtUtil, "accessTokenTtl", Duration.ofMinutes(-1));
+
+        MockFilterChain chain = send(jwtUtil.generateToken("alice"));
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(auditLog).record(eq(AuditEvent.Type.TOKEN_REJECTED), isNull(), eq("invalid"), anyString(),
+                eq("ExpiredJwtException"));
+    }
+
+    private MockFilterChain send(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/quotes");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return chain;
+    }
+}
@@ -0,0 +1,86 @@
+package com.ochwada.secure_quote_vault.security;
+
+
+import com.ochwada.secure_quote_vault.invalidation.InvalidationBus;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.security
+ * File: JWTUtilTest.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 9:15 PM
+ * Description: Unit tests for the HS256/ES256 switch in {@link JWTUtil}: HS256 tokens after moving to ES256 (with and
+ * without {@code jwt.accept-hs256}), and signing before any ES256 key is loaded.
+ * *******************************************************
+ */
+
+class JWTUtilTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789";
+
+    @Test
+    void hs256RoundTrip() {
+        JWTUtil hs256 = jwtUtil("HS256", false, keyStore());
+
+        String token = hs256.generateToken("alice");
+
+        assertThat(hs256.extractUsername(token)).isEqualTo("alice");
+    }
+
+    @Test
+    void es256RoundTrip() {
+        SigningKeyStore keys = keyStore();
+        keys.activateLocalKey();
+        JWTUtil es256 = jwtUtil("ES256", false, keys);
+
+        String token = es256.generateToken("alice");
+
+        assertThat(es256.extractUsername(token)).isEqualTo("alice");
+    }
+
+    @Test
+    void hs256TokensAreRejectedAfterTheMigrationByDefault() {
+        String legacy = jwtUtil("HS256", false, keyStore()).generateToken("alice");
+
+        JWTUtil es256 = jwtUtil("ES256", false, keyStore());
+
+        assertThatThrownBy(() -> es256.parseClaims(legacy)).isInstanceOf(SignatureException.class);
+    }
+
+    @Test
+    void hs256TokensAreAcceptedDuringTheMigration() {
+        String legacy = jwtUtil("HS256", false, keyStore()).generateToken("alice");
+
+        JWTUtil es256 = jwtUtil("ES256", true, keyStore());
+
+        assertThat(es256.extractUsername(legacy)).isEqualTo("alice");
+    }
+
+    @Test
+    void signingWithoutALoadedKeyIsReportedAsUnavailable() {
+        JWTUtil es256 = jwtUtil("ES256", false, keyStore());
+
+        assertThatThrownBy(() -> es256.generateToken("alice")).isInstanceOf(SigningKeyUnavailableException.class);
+    }
+
+    private static SigningKeyStore keyStore() {
+        return new SigningKeyStore(mock(MongoTemplate.class), mock(InvalidationBus.class));
+    }
+
+    private static JWTUtil jwtUtil(String algorithm, boolean acceptHs256, SigningKeyStore keys) {
+        JWTUtil jwtUtil = new JWTUtil(new SimpleMeterRegistry(), keys);
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "signingAlgorithm", algorithm);
+        ReflectionTestUtils.setField(jwtUtil, "acceptHs256", acceptHs256);
+        return jwtUtil;
+    }
+}
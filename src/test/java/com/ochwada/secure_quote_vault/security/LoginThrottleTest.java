@@ -0,0 +1,177 @@
+package com.ochwada.secure_quote_vault.security;
+
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.security
+ * File: LoginThrottleTest.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 3:55 PM
+ * Description: Unit tests for {@link LoginThrottle}: lockout thresholds and backoff, exponential decay, and bounded
+ * memory that keeps lockouts when flooded with new keys. Time is passed in explicitly, so nothing here sleeps.
+ * *******************************************************
+ */
+
+class LoginThrottleTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+    private static final long MINUTE = Duration.ofMinutes(1).toNanos();
+
+    private LoginThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        throttle = throttle(1_000);
+    }
+
+    @Test
+    void locksTheUsernameAtItsThreshold() {
+        for (int i = 0; i < 4; i++) {
+            throttle.recordFailure("alice", "10.0.0.1", 0);
+        }
+        assertThat(throttle.check("alice", "10.0.0.1", 0)).isZero();
+
+        throttle.recordFailure("alice", "10.0.0.1", 0);
+
+        assertThat(throttle.check("alice", "10.0.0.1", 0)).isEqualTo(30 * SECOND);
+        assertThat(throttle.check("alice", "10.0.0.2", 0)).isEqualTo(30 * SECOND);
+        assertThat(throttle.check("bob", "10.0.0.1", 0)).isZero();
+        assertThat(throttle.check("alice", "10.0.0.1", 30 * SECOND)).isZero();
+    }
+
+    @Test
+    void locksTheIpAcrossUsernames() {
+        for (int i = 0; i < 20; i++) {
+            throttle.recordFailure("user-" + i, "10.0.0.1", 0);
+        }
+
+        assertThat(throttle.check("someone-else", "10.0.0.1", 0)).isEqualTo(30 * SECOND);
+        assertThat(throttle.check("someone-else", "10.0.0.2", 0)).isZero();
+    }
+
+    @Test
+    void everyFurtherLockoutDoublesUpToTheMaximum() {
+        // Slow decay, so every failure right after a lockout ends is still above the threshold
+        ReflectionTestUtils.setField(throttle, "halfLife", Duration.ofDays(1));
+        long now = 0;
+        for (int i = 0; i < 5; i++) {
+            throttle.recordFailure("alice", "10.0.0.1", now);
+        }
+        long expected = 30 * SECOND;
+        for (int lockout = 0; lockout < 8; lockout++) {
+            assertThat(throttle.check("alice", "10.0.0.1", now)).isEqualTo(Math.min(expected, 15 * MINUTE));
+            now += Math.min(expected, 15 * MINUTE);
+            throttle.recordFailure("alice", "10.0.0." + (lockout + 2), now);
+            expected *= 2;
+        }
+    }
+
+    @Test
+    void failuresDecayWithTheHalfLife() {
+        for (int i = 0; i < 4; i++) {
+            throttle.recordFailure("alice", "10.0.0.1", 0);
+        }
+
+        // After one half-life the 4 failures count as 2: two more stay below the threshold of 5, a third reaches it
+        long later = 10 * MINUTE;
+        for (int i = 0; i < 2; i++) {
+            throttle.recordFailure("alice", "10.0.0.1", later);
+        }
+        assertThat(throttle.check("alice", "10.0.0.1", later)).isZero();
+
+        throttle.recordFailure("alice", "10.0.0.1", later);
+        assertThat(throttle.check("alice", "10.0.0.1", later)).isPositive();
+    }
+
+    @Test
+    void successClearsTheUsernameButNotTheIp() {
+        for (int i = 0; i < 19; i++) {
+            throttle.recordFailure("alice", "10.0.0.1", 0);
+        }
+        throttle.recordSuccess("alice");
+
+        assertThat(throttle.check("alice", "10.0.0.2", 0)).isZero();
+        throttle.recordFailure("bob", "10.0.0.1", 0);
+        assertThat(throttle.check("carol", "10.0.0.1", 0)).isPositive();
+    }
+
+    @Test
+    void purgeForgetsDecayedUnlockedKeysOnly() {
+        throttle.recordFailure("alice", "10.0.0.1", 0);
+        for (int i = 0; i < 5; i++) {
+            throttle.recordFailure("mallory", "10.0.0.2", 0);
+        }
+
+        // Several half-lives later alice's single failure has decayed away; mallory's lockout has ended, but a score
+        // of 5 needs longer
+        throttle.purgeDecayed(30 * MINUTE);
+
+        assertThat(throttle.size()).isEqualTo(2);
+        throttle.purgeDecayed(60 * MINUTE);
+        assertThat(throttle.size()).isZero();
+    }
+
+    @Test
+    void staysWithinMaxEntriesAndKeepsLockoutsWhenFlooded() {
+        LoginThrottle small = throttle(100);
+        for (int i = 0; i < 5; i++) {
+            small.recordFailure("alice", "10.0.0.1", 0);
+        }
+        assertThat(small.check("alice", "10.0.0.9", 0)).isPositive();
+
+        // One failure each from thousands of new usernames and IPs
+        for (int i = 0; i < 10_000; i++) {
+            small.recordFailure("spray-" + i, "192.168." + (i / 256) + "." + (i % 256), SECOND);
+        }
+
+        assertThat(small.size()).isLessThanOrEqualTo(100);
+        assertThat(small.check("alice", "10.0.0.9", SECOND)).isPositive();
+    }
+
+    @Test
+    void evictsLockedKeysOnlyWhenEverythingElseIsLocked() {
+        LoginThrottle small = throttle(4);
+        ReflectionTestUtils.setField(small, "userThreshold", 1);
+        ReflectionTestUtils.setField(small, "ipThreshold", 1);
+
+        // Every key locks on its first failure, so the oldest lockouts have to give way
+        for (int i = 0; i < 10; i++) {
+            small.recordFailure("user-" + i, "10.0.0." + i, i * SECOND);
+        }
+
+        assertThat(small.size()).isEqualTo(4);
+        assertThat(small.check("user-9", "10.0.0.9", 9 * SECOND)).isPositive();
+    }
+
+    @Test
+    void disabledThrottleAllowsEverything() {
+        ReflectionTestUtils.setField(throttle, "enabled", false);
+        for (int i = 0; i < 50; i++) {
+            throttle.recordFailure("alice", "10.0.0.1", 0);
+        }
+
+        assertThat(throttle.check("alice", "10.0.0.1", 0)).isZero();
+        assertThat(throttle.size()).isZero();
+    }
+
+    private static LoginThrottle throttle(int maxEntries) {
+        LoginThrottle throttle = new LoginThrottle(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(throttle, "enabled", true);
+        ReflectionTestUtils.setField(throttle, "userThreshold", 5);
+        ReflectionTestUtils.setField(throttle, "ipThreshold", 20);
+        ReflectionTestUtils.setField(throttle, "halfLife", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(throttle, "baseLockout", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(throttle, "maxLockout", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(throttle, "maxEntries", maxEntries);
+        return throttle;
+    }
+}
@@ -0,0 +1,97 @@
+package com.ochwada.secure_quote_vault.security;
+
+
+import com.ochwada.secure_quote_vault.ratelimit.MongoRateLimitStore;
+import com.ochwada.secure_quote_vault.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.security
+ * File: RateLimitFilterTest.java
+ * Author: Ochwada
+ * Date: Wednesday, 21.Oct.2026, 9:45 AM
+ * Description: Unit tests for {@link RateLimitFilter}: IP and user limits answer 429, and a user rejection gives the
+ * IP token back so other users behind the same address keep their budget.
+ * *******************************************************
+ */
+
+class RateLimitFilterTest {
+
+    private static final String IP = "10.0.0.7";
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        RateLimiter rateLimiter = new RateLimiter(mock(MongoRateLimitStore.class), meterRegistry);
+        ReflectionTestUtils.setField(rateLimiter, "store", "local");
+        // User: 1 token, IP: 3 tokens; neither refills within the test
+        filter = new RateLimitFilter(rateLimiter, meterRegistry, 1, 1, 3, 1);
+        ReflectionTestUtils.setField(filter, "enabled", true);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void throttledUserDoesNotDrainTheSharedIpBudget() throws Exception {
+        authenticate("alice");
+        assertThat(call()).isEqualTo(200);
+        assertThat(call()).isEqualTo(429);
+        assertThat(call()).isEqualTo(429);
+        assertThat(call()).isEqualTo(429);
+
+        // Alice took one IP token; her rejected calls gave theirs back
+        authenticate("bob");
+        assertThat(call()).isEqualTo(200);
+        authenticate("carol");
+        assertThat(call()).isEqualTo(200);
+
+        assertThat(meterRegistry.get("ratelimit.rejected").tag("scope", "user").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("ratelimit.rejected").tag("scope", "ip").counter().count()).isZero();
+    }
+
+    @Test
+    void ipLimitAppliesToAnonymousCallers() throws Exception {
+        assertThat(call()).isEqualTo(200);
+        assertThat(call()).isEqualTo(200);
+        assertThat(call()).isEqualTo(200);
+        assertThat(call()).isEqualTo(429);
+
+        assertThat(meterRegistry.get("ratelimit.rejected").tag("scope", "ip").counter().count()).isEqualTo(1);
+    }
+
+    private int call() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/quotes/random");
+        request.setServletPath("/api/quotes/random");
+        request.setRemoteAddr(IP);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                username, null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+}
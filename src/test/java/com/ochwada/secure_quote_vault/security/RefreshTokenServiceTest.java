@@ -0,0 +1,120 @@
+package com.ochwada.secure_quote_vault.security;
+
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.security
+ * File: RefreshTokenServiceTest.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 8:30 PM
+ * Description: Unit tests for {@link RefreshTokenService} against a mocked {@link MongoTemplate}: rotation within a
+ * family, reuse detection (an already used token deletes its whole family) and unknown tokens.
+ * *******************************************************
+ */
+
+class RefreshTokenServiceTest {
+
+    private MongoTemplate mongoTemplate;
+    private MeterRegistry meterRegistry;
+    private RefreshTokenService service;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        service = new RefreshTokenService(mongoTemplate, meterRegistry);
+        ReflectionTestUtils.setField(service, "refreshTokenTtl", Duration.ofDays(14));
+    }
+
+    @Test
+    void storesOnlyTheHashOfIssuedTokens() throws Exception {
+        String token = service.issue("alice");
+
+        Document stored = insertedDocument();
+        assertThat(stored.getString("tokenHash")).isEqualTo(sha256(token)).doesNotContain(token);
+        assertThat(stored.getString("username")).isEqualTo("alice");
+        assertThat(stored.get("usedAt")).isNull();
+    }
+
+    @Test
+    void rotationIssuesANewTokenInTheSameFamily() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(RefreshTokenService.COLLECTION)))
+                .thenReturn(new Document("username", "alice").append("familyId", "family-1"));
+
+        Optional<RefreshTokenService.Rotation> rotation = service.rotate("presented");
+
+        assertThat(rotation).isPresent();
+        assertThat(rotation.get().username()).isEqualTo("alice");
+        assertThat(rotation.get().refreshToken()).isNotEqualTo("presented");
+        assertThat(insertedDocument().getString("familyId")).isEqualTo("family-1");
+        assertThat(count("rotated")).isEqualTo(1);
+    }
+
+    @Test
+    void reusingAUsedTokenRevokesTheWholeFamily() {
+        // The conditional findAndModify (usedAt == null) no longer matches: someone already used this token
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq(RefreshTokenService.COLLECTION)))
+                .thenReturn(new Document("username", "alice").append("familyId", "family-1"));
+
+        Optional<RefreshTokenService.Rotation> rotation = service.rotate("stolen");
+
+        assertThat(rotation).isEmpty();
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(removed.capture(), eq(RefreshTokenService.COLLECTION));
+        assertThat(removed.getValue().getQueryObject()).isEqualTo(new Document("familyId", "family-1"));
+        verify(mongoTemplate, never()).insert(any(Document.class), any(String.class));
+        assertThat(count("reused")).isEqualTo(1);
+    }
+
+    @Test
+    void unknownTokensAreRejectedWithoutTouchingAnyFamily() {
+        Optional<RefreshTokenService.Rotation> rotation = service.rotate("unknown");
+
+        assertThat(rotation).isEmpty();
+        verify(mongoTemplate, never()).remove(any(Query.class), any(String.class));
+        assertThat(count("invalid")).isEqualTo(1);
+        assertThat(count("reused")).isZero();
+    }
+
+    private Document insertedDocument() {
+        ArgumentCaptor<Document> inserted = ArgumentCaptor.forClass(Document.class);
+        verify(mongoTemplate).insert(inserted.capture(), eq(RefreshTokenService.COLLECTION));
+        return inserted.getValue();
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("auth.refresh").tag("outcome", outcome).counter().count();
+    }
+
+    private static String sha256(String token) throws Exception {
+        return HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+}
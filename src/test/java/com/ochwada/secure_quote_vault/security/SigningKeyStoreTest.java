@@ -0,0 +1,186 @@
+package com.ochwada.secure_quote_vault.security;
+
+
+import com.ochwada.secure_quote_vault.invalidation.InvalidationBus;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.security
+ * File: SigningKeyStoreTest.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 9:10 PM
+ * Description: Unit tests for {@link SigningKeyStore} over an in-memory stand-in for the {@code jwt_keys} collection:
+ * first key, publish-ahead rotation, verification during and after the overlap, and nodes with another
+ * {@code jwt.secret}.
+ * *******************************************************
+ */
+
+class SigningKeyStoreTest {
+
+    private static final Duration ROTATION = Duration.ofDays(7);
+    private static final Duration PUBLISH_AHEAD = Duration.ofMinutes(10);
+    private static final Duration OVERLAP = Duration.ofHours(1);
+
+    /**
+     * Documents of the shared collection, as every node sees them.
+     */
+    private final List<Document> collection = new CopyOnWriteArrayList<>();
+
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.insert(any(Document.class), eq(SigningKeyStore.COLLECTION))).thenAnswer(invocation -> {
+            Document document = invocation.getArgument(0);
+            collection.add(document);
+            return document;
+        });
+        // The store only ever asks for keys that have not expired
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(SigningKeyStore.COLLECTION)))
+                .thenAnswer(invocation -> collection.stream()
+                        .filter(key -> key.getDate("expiresAt").after(new Date()))
+                        .toList());
+    }
+
+    @Test
+    void firstStartCreatesAnActiveKey() {
+        SigningKeyStore store = store("secret-a");
+
+        store.start();
+
+        SigningKeyStore.SigningKey key = store.signingKey();
+        assertThat(key).isNotNull();
+        assertThat(collection).hasSize(1);
+        assertThat(store.verificationKey(key.kid())).isEqualTo(key.publicKey());
+    }
+
+    @Test
+    void secondNodeReusesTheSharedKey() {
+        SigningKeyStore first = store("secret-a");
+        SigningKeyStore second = store("secret-a");
+
+        first.start();
+        second.start();
+
+        assertThat(collection).hasSize(1);
+        assertThat(second.signingKey().kid()).isEqualTo(first.signingKey().kid());
+        assertThat(second.signingKey().privateKey()).isEqualTo(first.signingKey().privateKey());
+    }
+
+    @Test
+    void successorIsPublishedAheadAndTakesOverOnlyOnceActive() {
+        SigningKeyStore store = store("secret-a");
+        store.start();
+        String currentKid = store.signingKey().kid();
+        // The current key is due: its rotation interval ends within the publish-ahead time
+        shift(currentKid, ROTATION.minus(PUBLISH_AHEAD.dividedBy(2)));
+
+        store.rotateIfDue();
+
+        assertThat(collection).hasSize(2);
+        String successorKid = collection.get(1).getString("_id");
+        assertThat(store.signingKey().kid()).isEqualTo(currentKid);
+        assertThat(store.verificationKey(successorKid)).isNotNull();
+        assertThat(store.publishedKeys()).extracting(SigningKeyStore.SigningKey::kid)
+                .containsExactly(successorKid, currentKid);
+
+        // A later check does not publish yet another key while the successor is pending
+        store.rotateIfDue();
+        assertThat(collection).hasSize(2);
+
+        // Once the successor's activation time has passed it signs
+        shift(successorKid, PUBLISH_AHEAD);
+        store.rotateIfDue();
+        assertThat(store.signingKey().kid()).isEqualTo(successorKid);
+    }
+
+    @Test
+    void retiredKeyVerifiesDuringTheOverlapOnly() {
+        SigningKeyStore store = store("secret-a");
+        store.start();
+        String retiredKid = store.signingKey().kid();
+
+        // Successor published and active, retired key's rotation interval over but still inside the overlap
+        shift(retiredKid, ROTATION.minus(PUBLISH_AHEAD));
+        store.rotateIfDue();
+        String successorKid = collection.get(1).getString("_id");
+        shift(retiredKid, PUBLISH_AHEAD.plus(OVERLAP.dividedBy(2)));
+        shift(successorKid, PUBLISH_AHEAD.plus(OVERLAP.dividedBy(2)));
+        store.rotateIfDue();
+        assertThat(store.signingKey().kid()).isEqualTo(successorKid);
+        assertThat(store.verificationKey(retiredKid)).isNotNull();
+
+        // Overlap over: gone from verification and from the JWKS
+        shift(retiredKid, OVERLAP);
+        store.rotateIfDue();
+        assertThat(store.verificationKey(retiredKid)).isNull();
+        assertThat(store.publishedKeys()).extracting(SigningKeyStore.SigningKey::kid).doesNotContain(retiredKid);
+    }
+
+    @Test
+    void nodeWithAnotherSecretVerifiesButNeverSigns() {
+        SigningKeyStore owner = store("secret-a");
+        owner.start();
+        String kid = owner.signingKey().kid();
+
+        SigningKeyStore other = store("secret-b");
+        ReflectionTestUtils.invokeMethod(other, "reload");
+
+        assertThat(other.signingKey()).isNull();
+        assertThat(other.verificationKey(kid)).isEqualTo(owner.signingKey().publicKey());
+    }
+
+    @Test
+    void startDoesNotThrowWhenMongoIsUnreachable() {
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(SigningKeyStore.COLLECTION)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        SigningKeyStore store = store("secret-a");
+
+        store.start();
+        store.rotateIfDue();
+
+        assertThat(store.signingKey()).isNull();
+        assertThat(collection).isEmpty();
+    }
+
+    private SigningKeyStore store(String secret) {
+        SigningKeyStore store = new SigningKeyStore(mongoTemplate, mock(InvalidationBus.class));
+        ReflectionTestUtils.setField(store, "signingAlgorithm", "ES256");
+        ReflectionTestUtils.setField(store, "jwtSecret", secret);
+        ReflectionTestUtils.setField(store, "rotationInterval", ROTATION);
+        ReflectionTestUtils.setField(store, "publishAhead", PUBLISH_AHEAD);
+        ReflectionTestUtils.setField(store, "overlap", OVERLAP);
+        return store;
+    }
+
+    /**
+     * Moves a key's lifetime into the past, as if {@code by} had elapsed.
+     */
+    private void shift(String kid, Duration by) {
+        for (Document key : collection) {
+            if (kid.equals(key.getString("_id"))) {
+                key.put("activatesAt", new Date(key.getDate("activatesAt").getTime() - by.toMillis()));
+                key.put("expiresAt", new Date(key.getDate("expiresAt").getTime() - by.toMillis()));
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.ochwada.secure_quote_vault.security;
+
+
+import com.ochwada.secure_quote_vault.invalidation.InvalidationBus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.security
+ * File: TokenRevocationListTest.java
+ * Author: Ochwada
+ * Date: Wednesday, 21.Oct.2026, 11:15 AM
+ * Description: Unit tests for {@link TokenRevocationList}: decoding of {@code jti:expSeconds} bus keys, the reload
+ * from {@code revoked_tokens} (retried after a failure), and dropping a bucket once its tokens have expired.
+ * *******************************************************
+ */
+
+class TokenRevocationListTest {
+
+    private MongoTemplate mongoTemplate;
+    private InvalidationBus bus;
+    private SimpleMeterRegistry meterRegistry;
+    private TokenRevocationList revocations;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        // No MongoTemplate: publishing only reaches the local subscribers
+        bus = new InvalidationBus(null, meterRegistry);
+        revocations = new TokenRevocationList(mongoTemplate, bus, meterRegistry);
+    }
+
+    @Test
+    void decodesRevocationsFromTheBus() {
+        Date expiresAt = inSeconds(600);
+
+        bus.publish(TokenRevocationList.TOPIC, "id:with:colons:" + expiresAt.getTime() / 1000);
+        bus.publish(TokenRevocationList.TOPIC, "no-expiry");
+        bus.publish(TokenRevocationList.TOPIC, "expired:" + inSeconds(-600).getTime() / 1000);
+
+        assertThat(revocations.isRevoked("id:with:colons", expiresAt)).isTrue();
+        assertThat(revocations.isRevoked("other", expiresAt)).isFalse();
+        assertThat(revocations.isRevoked("expired", inSeconds(-600))).isFalse();
+        assertThat(buckets()).isEqualTo(1);
+    }
+
+    @Test
+    void revokingReachesThisNodeThroughTheBus() {
+        Date expiresAt = inSeconds(600);
+
+        revocations.revoke("jti-1", expiresAt);
+
+        verify(mongoTemplate).upsert(any(Query.class), any(), eq(TokenRevocationList.COLLECTION));
+        assertThat(revocations.isRevoked("jti-1", expiresAt)).isTrue();
+        assertThat(meterRegistry.get("auth.token.revoked").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.token.revoked.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void reloadsStoredRevocationsAndRetriesAfterAFailure() {
+        Date expiresAt = inSeconds(600);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(TokenRevocationList.COLLECTION)))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(List.of(new Document("_id", "jti-1").append("expiresAt", expiresAt)));
+
+        revocations.load();
+        assertThat(revocations.isRevoked("jti-1", expiresAt)).isFalse();
+
+        revocations.load();
+        assertThat(revocations.isRevoked("jti-1", expiresAt)).isTrue();
+
+        // Loaded once: later runs of the retry schedule do nothing
+        revocations.load();
+        verify(mongoTemplate, times(2)).find(any(Query.class), eq(Document.class), eq(TokenRevocationList.COLLECTION));
+    }
+
+    @Test
+    void dropsABucketOnceAllItsTokensHaveExpired() throws InterruptedException {
+        ReflectionTestUtils.setField(revocations, "bucketWidth", Duration.ofMillis(100));
+        Date soon = new Date(System.currentTimeMillis() + 150);
+        Date later = inSeconds(600);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(TokenRevocationList.COLLECTION)))
+                .thenReturn(List.of(new Document("_id", "soon").append("expiresAt", soon),
+                        new Document("_id", "later").append("expiresAt", later)));
+        revocations.load();
+        assertThat(buckets()).isEqualTo(2);
+
+        revocations.dropExpiredBuckets();
+        assertThat(buckets()).isEqualTo(2);
+        assertThat(revocations.isRevoked("soon", soon)).isTrue();
+
+        Thread.sleep(300);
+        revocations.dropExpiredBuckets();
+        assertThat(buckets()).isEqualTo(1);
+        assertThat(revocations.isRevoked("soon", soon)).isFalse();
+        assertThat(revocations.isRevoked("later", later)).isTrue();
+    }
+
+    private double buckets() {
+        return meterRegistry.get("auth.token.revocation.buckets").gauge().value();
+    }
+
+    private static Date inSeconds(long seconds) {
+        // Whole seconds, like a JWT exp claim
+        return new Date((System.currentTimeMillis() / 1000 + seconds) * 1000);
+    }
+}
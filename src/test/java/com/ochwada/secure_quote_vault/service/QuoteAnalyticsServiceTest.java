@@ -0,0 +1,246 @@
+package com.ochwada.secure_quote_vault.service;
+
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.ochwada.secure_quote_vault.dto.QuoteAnalyticsResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.Invocation;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.service
+ * File: QuoteAnalyticsServiceTest.java
+ * Author: Ochwada
+ * Date: Wednesday, 21.Oct.2026, 4:10 PM
+ * Description: Unit tests for {@link QuoteAnalyticsService}: counters are written one flush after the swap, duplicate
+ * active-user markers are not counted, a failed flush is retried with the next one (markers only after the hourly
+ * upsert), and the read covers the requested hours plus the top authors.
+ * *******************************************************
+ */
+
+class QuoteAnalyticsServiceTest {
+
+    private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private MongoTemplate mongoTemplate;
+    private BulkOperations hourly;
+    private BulkOperations authors;
+    private BulkOperations markers;
+    private SimpleMeterRegistry meterRegistry;
+    private QuoteAnalyticsService service;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        hourly = mock(BulkOperations.class, RETURNS_SELF);
+        authors = mock(BulkOperations.class, RETURNS_SELF);
+        markers = mock(BulkOperations.class, RETURNS_SELF);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(QuoteAnalyticsService.HOURLY)))
+                .thenReturn(hourly);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(QuoteAnalyticsService.AUTHORS)))
+                .thenReturn(authors);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(QuoteAnalyticsService.ACTIVE_USERS)))
+                .thenReturn(markers);
+        meterRegistry = new SimpleMeterRegistry();
+        service = new QuoteAnalyticsService(mongoTemplate, meterRegistry);
+    }
+
+    @Test
+    void countersAreWrittenOneFlushAfterTheSwap() {
+        service.record("alice", "Seneca");
+        service.record("alice", "Seneca");
+        service.record("bob", "Epictetus");
+
+        service.flush();
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), any(String.class));
+
+        service.flush();
+        assertThat(increments(hourly)).containsEntry("fetches", 3L).containsEntry("activeUsers", 2L);
+        assertThat(increments(authors)).containsEntry("fetches", 3L);
+        assertThat(insertedMarkers()).hasSize(2);
+    }
+
+    @Test
+    void duplicateMarkersAreNotCounted() {
+        doAnswer(invocation -> {
+            List<?> documents = invocation.getArgument(0);
+            int bob = indexOf(documents, "bob");
+            // bob was already counted this hour by another node
+            markersExecuteFails(new BulkWriteError(11000, "duplicate key", new BsonDocument(), bob));
+            return markers;
+        }).when(markers).insert(anyList());
+        service.record("alice", "Seneca");
+        service.record("bob", "Seneca");
+        service.record("carol", "Seneca");
+
+        service.flush();
+        service.flush();
+
+        assertThat(increments(hourly)).containsEntry("fetches", 3L).containsEntry("activeUsers", 2L);
+        assertThat(meterRegistry.get("analytics.flush.failed").counter().count()).isZero();
+    }
+
+    @Test
+    void failedFlushIsMergedIntoTheNextAndMarkersWaitForTheHourlyUpsert() {
+        when(hourly.execute())
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(null);
+        service.record("alice", "Seneca");
+        service.flush();
+        service.flush();
+
+        assertThat(meterRegistry.get("analytics.flush.failed").counter().count()).isEqualTo(1);
+        verify(markers, never()).insert(anyList());
+
+        clearInvocations(hourly, authors, markers);
+        service.record("bob", "Seneca");
+        service.flush();
+        service.flush();
+
+        assertThat(increments(hourly)).containsEntry("fetches", 2L).containsEntry("activeUsers", 2L);
+        assertThat(increments(authors)).containsEntry("fetches", 2L);
+        assertThat(insertedMarkers()).hasSize(2);
+
+        // Nothing left over: the next flush writes nothing
+        clearInvocations(hourly, authors, markers);
+        service.flush();
+        assertThat(increments(hourly)).isEmpty();
+    }
+
+    @Test
+    void markersThatFailedForAnotherReasonAreRetried() {
+        doAnswer(invocation -> {
+            List<?> documents = invocation.getArgument(0);
+            if (documents.size() == 2) {
+                markersExecuteFails(new BulkWriteError(91, "shutting down", new BsonDocument(), indexOf(documents, "bob")));
+            } else {
+                doReturn(null).when(markers).execute();
+            }
+            return markers;
+        }).when(markers).insert(anyList());
+        service.record("alice", "Seneca");
+        service.record("bob", "Seneca");
+
+        service.flush();
+        service.flush();
+        assertThat(increments(hourly)).containsEntry("fetches", 2L).containsEntry("activeUsers", 1L);
+        assertThat(meterRegistry.get("analytics.flush.failed").counter().count()).isEqualTo(1);
+
+        clearInvocations(hourly, markers);
+        service.flush();
+        assertThat(insertedMarkers()).singleElement()
+                .satisfies(marker -> assertThat(marker.getString("_id")).endsWith(":bob"));
+        assertThat(increments(hourly)).doesNotContainKey("fetches").containsEntry("activeUsers", 1L);
+    }
+
+    @Test
+    void readReturnsTheRequestedHoursAndTopAuthors() {
+        long currentHour = System.currentTimeMillis() / HOUR_MILLIS;
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(QuoteAnalyticsService.HOURLY)))
+                .thenReturn(List.of(
+                        new Document("_id", new Date((currentHour - 1) * HOUR_MILLIS))
+                                .append("fetches", 4).append("activeUsers", 2),
+                        new Document("_id", new Date(currentHour * HOUR_MILLIS)).append("fetches", 6L)));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(QuoteAnalyticsService.AUTHORS)))
+                .thenReturn(List.of(new Document("_id", "Seneca").append("fetches", 9),
+                        new Document("_id", "Epictetus").append("fetches", 3)));
+
+        QuoteAnalyticsResponse response = service.read(3, 2);
+
+        ArgumentCaptor<Query> range = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(range.capture(), eq(Document.class), eq(QuoteAnalyticsService.HOURLY));
+        assertThat(range.getValue().getQueryObject().get("_id", Document.class).getDate("$gte"))
+                .isEqualTo(new Date((currentHour - 2) * HOUR_MILLIS));
+        ArgumentCaptor<Query> top = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(top.capture(), eq(Document.class), eq(QuoteAnalyticsService.AUTHORS));
+        assertThat(top.getValue().getLimit()).isEqualTo(2);
+        assertThat(top.getValue().getSortObject()).isEqualTo(new Document("fetches", -1));
+
+        assertThat(response.getFetches()).isEqualTo(10);
+        assertThat(response.getHourly()).extracting(QuoteAnalyticsResponse.HourlyBucket::getHour)
+                .containsExactly(Instant.ofEpochMilli((currentHour - 1) * HOUR_MILLIS),
+                        Instant.ofEpochMilli(currentHour * HOUR_MILLIS));
+        assertThat(response.getHourly()).extracting(QuoteAnalyticsResponse.HourlyBucket::getActiveUsers)
+                .containsExactly(2L, 0L);
+        assertThat(response.getTopAuthors()).extracting(QuoteAnalyticsResponse.AuthorCount::getAuthor)
+                .containsExactly("Seneca", "Epictetus");
+    }
+
+    private void markersExecuteFails(BulkWriteError error) {
+        when(markers.execute()).thenThrow(new BulkOperationException("bulk write failed",
+                new MongoBulkWriteException(BulkWriteResult.unacknowledged(), List.of(error), null,
+                        new ServerAddress(), Set.of())));
+    }
+
+    private static int indexOf(List<?> documents, String user) {
+        for (int i = 0; i < documents.size(); i++) {
+            if (((Document) documents.get(i)).getString("_id").endsWith(":" + user)) {
+                return i;
+            }
+        }
+        throw new AssertionError("no marker for " + user);
+    }
+
+    /**
+     * Sums the {@code $inc} fields of every upsert queued on {@code bulk}.
+     */
+    private static Map<String, Long> increments(BulkOperations bulk) {
+        Map<String, Long> sums = new HashMap<>();
+        for (Invocation invocation : mockingDetails(bulk).getInvocations()) {
+            if (invocation.getMethod().getName().equals("upsert")) {
+                Update update = invocation.getArgument(1);
+                update.getUpdateObject().get("$inc", Document.class)
+                        .forEach((field, value) -> sums.merge(field, ((Number) value).longValue(), Long::sum));
+            }
+        }
+        return sums;
+    }
+
+    private List<Document> insertedMarkers() {
+        List<Document> inserted = new ArrayList<>();
+        for (Invocation invocation : mockingDetails(markers).getInvocations()) {
+            if (invocation.getMethod().getName().equals("insert")) {
+                List<?> documents = invocation.getArgument(0);
+                documents.forEach(document -> inserted.add((Document) document));
+            }
+        }
+        return inserted;
+    }
+}
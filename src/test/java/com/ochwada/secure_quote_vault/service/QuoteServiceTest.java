@@ -0,0 +1,121 @@
+package com.ochwada.secure_quote_vault.service;
+
+
+import com.ochwada.secure_quote_vault.audit.AuditLog;
+import com.ochwada.secure_quote_vault.deadline.DeadlineGuard;
+import com.ochwada.secure_quote_vault.invalidation.InvalidationBus;
+import com.ochwada.secure_quote_vault.model.Quote;
+import com.ochwada.secure_quote_vault.repository.QuoteRepository;
+import com.ochwada.secure_quote_vault.snapshot.QuoteSnapshotService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.service
+ * File: QuoteServiceTest.java
+ * Author: Ochwada
+ * Date: Tuesday, 20.Oct.2026, 10:40 AM
+ * Description: Unit tests for the opt-in quote list cache in {@link QuoteService} and its invalidation through the
+ * {@link InvalidationBus} {@code quotes} topic.
+ * *******************************************************
+ */
+
+class QuoteServiceTest {
+
+    private static final byte[] UPSTREAM_PAYLOAD = ("{\"id\":1,\"quoteString\":\"Stay hungry.\","
+            + "\"author\":\"Steve Jobs\",\"createdAt\":\"25-07-2025 11:32\"}").getBytes(StandardCharsets.UTF_8);
+
+    private RestTemplate restTemplate;
+    private QuoteRepository repository;
+    private MongoTemplate mongoTemplate;
+    private InvalidationBus bus;
+    private QuoteService service;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        restTemplate = mock(RestTemplate.class);
+        repository = mock(QuoteRepository.class);
+        mongoTemplate = mock(MongoTemplate.class);
+        bus = new InvalidationBus(null, meterRegistry);
+        service = new QuoteService(restTemplate, repository, meterRegistry, mongoTemplate,
+                new DeadlineGuard(meterRegistry), mock(QuoteSnapshotService.class), mock(AuditLog.class),
+                mock(QuoteAnalyticsService.class), bus);
+        service.subscribeToInvalidations();
+        when(mongoTemplate.find(any(Query.class), eq(Quote.class))).thenReturn(List.of(quote("q1")));
+    }
+
+    @Test
+    void cacheIsOffByDefault() {
+        service.getQuotesByUser("alice");
+        service.getQuotesByUser("alice");
+
+        verify(mongoTemplate, times(2)).find(any(Query.class), eq(Quote.class));
+    }
+
+    @Test
+    void cachedListIsDroppedWhenTheQuotesTopicPublishes() {
+        enableCache();
+
+        assertThat(service.getQuotesByUser("alice")).extracting(Quote::getId).containsExactly("q1");
+        service.getQuotesByUser("alice");
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Quote.class));
+
+        bus.publish(InvalidationBus.QUOTES, "bob");
+        service.getQuotesByUser("alice");
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Quote.class));
+
+        bus.publish(InvalidationBus.QUOTES, "alice");
+        service.getQuotesByUser("alice");
+        verify(mongoTemplate, times(2)).find(any(Query.class), eq(Quote.class));
+    }
+
+    @Test
+    void fetchingANewQuoteInvalidatesTheUsersList() throws Exception {
+        enableCache();
+        ReflectionTestUtils.setField(service, "randomQuoteUrl", "http://quotes.invalid/random");
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class))).thenReturn(ResponseEntity.ok(UPSTREAM_PAYLOAD));
+        when(repository.insert(any(Quote.class))).thenAnswer(invocation -> {
+            Quote inserted = invocation.getArgument(0);
+            inserted.setId("q2");
+            return inserted;
+        });
+        service.getQuotesByUser("alice");
+
+        service.fetchAndSaveQuote("alice");
+
+        when(mongoTemplate.find(any(Query.class), eq(Quote.class))).thenReturn(List.of(quote("q1"), quote("q2")));
+        assertThat(service.getQuotesByUser("alice")).extracting(Quote::getId).containsExactly("q1", "q2");
+    }
+
+    private void enableCache() {
+        ReflectionTestUtils.setField(service, "quoteCacheTtl", Duration.ofMinutes(5));
+    }
+
+    private static Quote quote(String id) {
+        Quote quote = new Quote();
+        quote.setId(id);
+        quote.setFetchedBy("alice");
+        return quote;
+    }
+}
@@ -0,0 +1,143 @@
+package com.ochwada.secure_quote_vault.service;
+
+
+import com.mongodb.MongoExecutionTimeoutException;
+import com.ochwada.secure_quote_vault.deadline.Deadline;
+import com.ochwada.secure_quote_vault.deadline.DeadlineExceededException;
+import com.ochwada.secure_quote_vault.deadline.DeadlineGuard;
+import com.ochwada.secure_quote_vault.invalidation.InvalidationBus;
+import com.ochwada.secure_quote_vault.model.Role;
+import com.ochwada.secure_quote_vault.model.User;
+import com.ochwada.secure_quote_vault.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.service
+ * File: UserDetailsServiceImplTest.java
+ * Author: Ochwada
+ * Date: Tuesday, 20.Oct.2026, 10:05 AM
+ * Description: Unit tests for the user lookup in {@link UserDetailsServiceImpl}: the request deadline as
+ * {@code maxTimeMS}, a lookup that runs out of time, lookups outside a request, and the opt-in cache with its
+ * invalidation through the {@link InvalidationBus}.
+ * *******************************************************
+ */
+
+class UserDetailsServiceImplTest {
+
+    private static final User ALICE = new User("1", "alice", "{noop}secret", List.of(Role.USER));
+
+    private UserRepository repository;
+    private MongoTemplate mongoTemplate;
+    private InvalidationBus bus;
+    private UserDetailsServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(UserRepository.class);
+        mongoTemplate = mock(MongoTemplate.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        bus = new InvalidationBus(null, meterRegistry);
+        service = new UserDetailsServiceImpl(repository, mongoTemplate, new DeadlineGuard(meterRegistry),
+                meterRegistry, bus);
+    }
+
+    @AfterEach
+    void unbindDeadline() {
+        ReflectionTestUtils.invokeMethod(Deadline.class, "unbind");
+    }
+
+    @Test
+    void lookupCarriesTheTimeLeftOnTheDeadline() {
+        bindDeadline(Duration.ofSeconds(2));
+        when(mongoTemplate.findOne(any(Query.class), eq(User.class))).thenReturn(ALICE);
+
+        assertThat(service.loadUserByUsername("alice").getUsername()).isEqualTo("alice");
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findOne(query.capture(), eq(User.class));
+        assertThat(query.getValue().getQueryObject().get("username")).isEqualTo("alice");
+        assertThat(query.getValue().getMeta().getMaxTimeMsec()).isBetween(1L, 2_000L);
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void lookupThatRunsOutOfTimeFailsWithTheDeadline() {
+        bindDeadline(Duration.ofSeconds(2));
+        when(mongoTemplate.findOne(any(Query.class), eq(User.class))).thenThrow(new QueryTimeoutException(
+                "timed out", new MongoExecutionTimeoutException(50, "operation exceeded time limit")));
+
+        assertThatThrownBy(() -> service.loadUserByUsername("alice"))
+                .isInstanceOf(DeadlineExceededException.class)
+                .extracting("stage").isEqualTo("mongo.user");
+    }
+
+    @Test
+    void expiredDeadlineSkipsTheLookup() {
+        bindDeadline(Duration.ZERO);
+
+        assertThatThrownBy(() -> service.loadUserByUsername("alice")).isInstanceOf(DeadlineExceededException.class);
+        verifyNoInteractions(mongoTemplate, repository);
+    }
+
+    @Test
+    void lookupOutsideARequestUsesTheRepository() {
+        when(repository.findByUsername("alice")).thenReturn(Optional.of(ALICE));
+
+        assertThat(service.loadUserByUsername("alice").getUsername()).isEqualTo("alice");
+        assertThatThrownBy(() -> service.loadUserByUsername("bob")).isInstanceOf(UsernameNotFoundException.class);
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void cacheIsOffByDefault() {
+        when(repository.findByUsername("alice")).thenReturn(Optional.of(ALICE));
+
+        service.loadUserByUsername("alice");
+        service.loadUserByUsername("alice");
+
+        verify(repository, times(2)).findByUsername("alice");
+    }
+
+    @Test
+    void cachedUserIsDroppedWhenTheUsersTopicPublishes() {
+        ReflectionTestUtils.setField(service, "cacheTtl", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(service, "cacheMaxEntries", 100);
+        when(repository.findByUsername("alice")).thenReturn(Optional.of(ALICE));
+
+        service.loadUserByUsername("alice");
+        service.loadUserByUsername("alice");
+        verify(repository, times(1)).findByUsername("alice");
+
+        bus.publish(InvalidationBus.USERS, "alice");
+        service.loadUserByUsername("alice");
+        verify(repository, times(2)).findByUsername("alice");
+    }
+
+    private static void bindDeadline(Duration timeout) {
+        ReflectionTestUtils.invokeMethod(Deadline.class, "bind", Deadline.after(timeout));
+    }
+}
@@ -0,0 +1,123 @@
+package com.ochwada.secure_quote_vault.service;
+
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteResult;
+import com.ochwada.secure_quote_vault.invalidation.InvalidationBus;
+import com.ochwada.secure_quote_vault.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.service
+ * File: UserImportServiceTest.java
+ * Author: Ochwada
+ * Date: Tuesday, 20.Oct.2026, 11:20 AM
+ * Description: Unit tests for {@link UserImportService}: the NDJSON report of an import that MongoDB stops midway or
+ * in its last batch, and the default hashing parallelism.
+ * *******************************************************
+ */
+
+class UserImportServiceTest {
+
+    private static final String CSV = """
+            username,password
+            alice,Secret-pass1
+            bob,Secret-pass2
+            carol,Secret-pass3
+            dave,Secret-pass4
+            erin,Secret-pass5
+            """;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private BulkOperations bulk;
+    private UserImportService service;
+
+    @BeforeEach
+    void setUp() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)).thenReturn(bulk);
+        when(bulk.insert(anyList())).thenReturn(bulk);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        service = new UserImportService(mongoTemplate, new BCryptPasswordEncoder(4),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new InvalidationBus(null, meterRegistry), meterRegistry, 0);
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void mongoFailureMidwayReportsTheBatchAndTheUnreadRows() throws Exception {
+        when(bulk.execute()).thenReturn(null).thenThrow(new DataAccessResourceFailureException("connection reset"));
+
+        List<JsonNode> report = importCsv(CSV);
+
+        assertThat(report).extracting(line -> line.get("type").asText())
+                .containsExactly("progress", "row", "row", "error", "summary");
+        assertThat(report.get(1).get("line").asLong()).isEqualTo(4);
+        assertThat(report.get(1).get("status").asText()).isEqualTo("unconfirmed");
+        assertThat(report.get(2).get("username").asText()).isEqualTo("dave");
+        assertThat(report.get(3).get("message").asText()).contains("connection reset");
+        assertThat(report.get(3).get("unreadFromLine").asLong()).isEqualTo(6);
+        assertThat(report.get(4).get("created").asLong()).isEqualTo(2);
+        assertThat(report.get(4).get("rejected").asLong()).isEqualTo(2);
+    }
+
+    @Test
+    void mongoFailureInTheLastBatchHasNoUnreadRows() throws Exception {
+        when(bulk.execute()).thenReturn(null, (BulkWriteResult) null).thenThrow(new DataAccessResourceFailureException("down"));
+
+        List<JsonNode> report = importCsv(CSV);
+
+        assertThat(report).extracting(line -> line.get("type").asText())
+                .containsExactly("progress", "progress", "row", "error", "summary");
+        assertThat(report.get(2).get("username").asText()).isEqualTo("erin");
+        assertThat(report.get(3).has("unreadFromLine")).isFalse();
+        assertThat(report.get(4).get("rows").asLong()).isEqualTo(5);
+    }
+
+    @Test
+    void hashesOnHalfTheCoresByDefault() {
+        ForkJoinPool pool = (ForkJoinPool) ReflectionTestUtils.getField(service, "hashingPool");
+
+        assertThat(pool.getParallelism()).isEqualTo(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    private List<JsonNode> importCsv(String csv) throws Exception {
+        StringWriter report = new StringWriter();
+        assertThat(service.importUsers(new BufferedReader(new StringReader(csv)), true, report)).isTrue();
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : report.toString().split("\n")) {
+            lines.add(mapper.readTree(line));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,143 @@
+package com.ochwada.secure_quote_vault.snapshot;
+
+
+import com.ochwada.secure_quote_vault.model.Quote;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Date;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.snapshot
+ * File: QuoteSnapshotServiceTest.java
+ * Author: Ochwada
+ * Date: Tuesday, 20.Oct.2026, 2:30 PM
+ * Description: Unit tests for {@link QuoteSnapshotService#write()}: the first full write, incremental writes that
+ * only read quotes since the stored watermark, quotes whose text hashes alike, and writes with nothing new.
+ * *******************************************************
+ */
+
+class QuoteSnapshotServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private MongoTemplate mongoTemplate;
+    private QuoteSnapshotService service;
+    private Path file;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.getCollectionName(Quote.class)).thenReturn("quotes");
+        service = new QuoteSnapshotService(mongoTemplate, new SimpleMeterRegistry());
+        file = dir.resolve("quotes.snap");
+        ReflectionTestUtils.setField(service, "mode", "fallback");
+        ReflectionTestUtils.setField(service, "path", file);
+        ReflectionTestUtils.setField(service, "maxRecords", 100);
+    }
+
+    @Test
+    void quotesWhoseTextHashesAlikeAreBothKept() throws Exception {
+        // "Aa" and "BB" share a String.hashCode
+        returnQuotes(quote("Aa", "Anonymous"), quote("BB", "Anonymous"));
+
+        service.write();
+
+        QuoteSnapshot snapshot = QuoteSnapshot.map(file);
+        assertThat(snapshot.size()).isEqualTo(2);
+        assertThat(snapshot.get(0).quoteString()).isEqualTo("Aa");
+        assertThat(snapshot.get(1).quoteString()).isEqualTo("BB");
+        assertThat(snapshot.get(0).createdAt()).isNotNull();
+    }
+
+    @Test
+    void laterWritesOnlyReadNewQuotesAndAppendTheUnseenOnes() throws Exception {
+        returnQuotes(quote("Stay hungry.", "Steve Jobs"));
+        long before = System.currentTimeMillis();
+        service.write();
+        long coveredUntil = QuoteSnapshot.map(file).coveredUntilEpochMillis();
+        assertThat(coveredUntil).isGreaterThanOrEqualTo(before);
+
+        // The overlap re-reads the first quote; it is not written twice
+        returnQuotes(quote("Stay hungry.", "Steve Jobs"), quote("Stay hungry.", "Someone else"),
+                new Document("_id", new Document("quoteString", "Stay foolish.").append("author", "Steve Jobs")));
+        service.write();
+
+        QuoteSnapshot snapshot = QuoteSnapshot.map(file);
+        assertThat(snapshot.size()).isEqualTo(3);
+        assertThat(snapshot.get(1).author()).isEqualTo("Someone else");
+        assertThat(snapshot.get(2).createdAt()).isNull();
+        assertThat(snapshot.coveredUntilEpochMillis()).isGreaterThanOrEqualTo(coveredUntil);
+
+        ArgumentCaptor<Aggregation> aggregations = ArgumentCaptor.forClass(Aggregation.class);
+        verify(mongoTemplate, times(2)).aggregateStream(aggregations.capture(), eq("quotes"), eq(Document.class));
+        assertThat(aggregations.getAllValues().get(0).toString()).doesNotContain("$gte");
+        assertThat(aggregations.getAllValues().get(1).toString()).contains("$gte");
+    }
+
+    @Test
+    void nothingNewLeavesTheFileAlone() throws Exception {
+        returnQuotes(quote("Stay hungry.", "Steve Jobs"));
+        service.write();
+        long writtenAt = QuoteSnapshot.map(file).writtenAtEpochMillis();
+        FileTime modified = Files.getLastModifiedTime(file);
+
+        returnQuotes(quote("Stay hungry.", "Steve Jobs"));
+        service.write();
+
+        assertThat(QuoteSnapshot.map(file).writtenAtEpochMillis()).isEqualTo(writtenAt);
+        assertThat(Files.getLastModifiedTime(file)).isEqualTo(modified);
+        assertThat((long) ReflectionTestUtils.getField(service, "coveredUntilMillis"))
+                .isGreaterThanOrEqualTo(QuoteSnapshot.map(file).coveredUntilEpochMillis());
+    }
+
+    @Test
+    void restartedNodeResumesFromTheStoredWatermark() throws Exception {
+        returnQuotes(quote("Stay hungry.", "Steve Jobs"));
+        service.write();
+
+        QuoteSnapshotService restarted = new QuoteSnapshotService(mongoTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(restarted, "mode", "fallback");
+        ReflectionTestUtils.setField(restarted, "path", file);
+        ReflectionTestUtils.setField(restarted, "maxRecords", 100);
+        restarted.map();
+        returnQuotes(quote("Stay foolish.", "Steve Jobs"));
+        restarted.write();
+
+        ArgumentCaptor<Aggregation> aggregations = ArgumentCaptor.forClass(Aggregation.class);
+        verify(mongoTemplate, times(2)).aggregateStream(aggregations.capture(), eq("quotes"), eq(Document.class));
+        assertThat(aggregations.getAllValues().get(1).toString()).contains("$gte");
+        assertThat(QuoteSnapshot.map(file).size()).isEqualTo(2);
+    }
+
+    private void returnQuotes(Document... quotes) {
+        when(mongoTemplate.aggregateStream(any(Aggregation.class), eq("quotes"), eq(Document.class)))
+                .thenReturn(Stream.of(quotes));
+    }
+
+    private static Document quote(String quoteString, String author) {
+        return new Document("_id", new Document("quoteString", quoteString).append("author", author))
+                .append("createdAt", new Date());
+    }
+}
@@ -0,0 +1,91 @@
+package com.ochwada.secure_quote_vault.snapshot;
+
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.snapshot
+ * File: QuoteSnapshotTest.java
+ * Author: Ochwada
+ * Date: Tuesday, 20.Oct.2026, 2:10 PM
+ * Description: Round trip through {@link QuoteSnapshotWriter} and {@link QuoteSnapshot}: records, the shared author
+ * table, quotes without a creation date, and the header fields.
+ * *******************************************************
+ */
+
+class QuoteSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writtenQuotesMapBackUnchanged() throws Exception {
+        Path file = dir.resolve("quotes.snap");
+        LocalDateTime createdAt = LocalDateTime.of(2025, 7, 25, 11, 32);
+        try (QuoteSnapshotWriter writer = new QuoteSnapshotWriter(file)) {
+            assertThat(writer.add("Stay hungry.", "Steve Jobs", createdAt)).isTrue();
+            assertThat(writer.add("Stay foolish.", "Steve Jobs", null)).isTrue();
+            assertThat(writer.add("", "Anonymous", createdAt)).isTrue();
+            assertThat(writer.add("Ἓν οἶδα ὅτι οὐδὲν οἶδα", "Σωκράτης", createdAt)).isTrue();
+            writer.commit(1_000L);
+        }
+
+        QuoteSnapshot snapshot = QuoteSnapshot.map(file);
+
+        assertThat(snapshot.size()).isEqualTo(4);
+        assertThat(snapshot.get(0)).isEqualTo(new QuoteSnapshot.Entry("Stay hungry.", "Steve Jobs", createdAt));
+        assertThat(snapshot.get(1)).isEqualTo(new QuoteSnapshot.Entry("Stay foolish.", "Steve Jobs", null));
+        assertThat(snapshot.get(2)).isEqualTo(new QuoteSnapshot.Entry("", "Anonymous", createdAt));
+        assertThat(snapshot.get(3).quoteString()).isEqualTo("Ἓν οἶδα ὅτι οὐδὲν οἶδα");
+        assertThat(snapshot.get(3).author()).isEqualTo("Σωκράτης");
+        assertThat(snapshot.coveredUntilEpochMillis()).isEqualTo(1_000L);
+        assertThat(snapshot.writtenAtEpochMillis()).isPositive();
+    }
+
+    @Test
+    void eachAuthorIsStoredOnce() throws Exception {
+        Path file = dir.resolve("quotes.snap");
+        try (QuoteSnapshotWriter writer = new QuoteSnapshotWriter(file)) {
+            for (int i = 0; i < 10; i++) {
+                writer.add("Quote " + i, i % 2 == 0 ? "Seneca" : "Epictetus", null);
+            }
+            writer.commit(0L);
+        }
+
+        QuoteSnapshot snapshot = QuoteSnapshot.map(file);
+
+        assertThat(ReflectionTestUtils.getField(snapshot, "authorCount")).isEqualTo(2);
+        assertThat(snapshot.get(8).author()).isEqualTo("Seneca");
+        assertThat(snapshot.get(9).author()).isEqualTo("Epictetus");
+    }
+
+    @Test
+    void uncommittedWriterLeavesNoSnapshot() throws Exception {
+        Path file = dir.resolve("quotes.snap");
+        try (QuoteSnapshotWriter writer = new QuoteSnapshotWriter(file)) {
+            writer.add("Stay hungry.", "Steve Jobs", null);
+        }
+
+        assertThat(file).doesNotExist();
+        try (var leftovers = Files.list(dir)) {
+            assertThat(leftovers).isEmpty();
+        }
+    }
+
+    @Test
+    void otherFilesAreRejected() throws Exception {
+        Path file = Files.write(dir.resolve("quotes.snap"), new byte[64]);
+
+        assertThatThrownBy(() -> QuoteSnapshot.map(file)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,107 @@
+package com.ochwada.secure_quote_vault.warmup;
+
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ochwada.secure_quote_vault.invalidation.InvalidationBus;
+import com.ochwada.secure_quote_vault.security.JWTUtil;
+import com.ochwada.secure_quote_vault.security.SigningKeyStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.secure_quote_vault.warmup
+ * File: JitWarmupTest.java
+ * Author: Ochwada
+ * Date: Wednesday, 21.Oct.2026, 2:30 PM
+ * Description: Unit tests for {@link JitWarmup}: it stops at the iteration count or the time budget, whichever comes
+ * first, and reports both through the {@code warmup.duration} and {@code warmup.iterations} meters.
+ * *******************************************************
+ */
+
+class JitWarmupTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private JitWarmup warmup;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        JWTUtil jwtUtil = new JWTUtil(meterRegistry,
+                new SigningKeyStore(mock(MongoTemplate.class), mock(InvalidationBus.class)));
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", "0123456789abcdef0123456789abcdef0123456789");
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.getConverter()).thenReturn(converter());
+        warmup = new JitWarmup(jwtUtil, objectMapper, mongoTemplate, meterRegistry);
+    }
+
+    @Test
+    void stopsAtTheIterationCount() throws Exception {
+        ReflectionTestUtils.setField(warmup, "iterations", 25);
+
+        warmup.run(new DefaultApplicationArguments());
+
+        assertThat(iterations()).isEqualTo(25);
+        assertThat(durationMillis()).isPositive();
+        // The synthetic calls stay out of the application's meters
+        assertThat(meterRegistry.get("jwt.generate").timer().count()).isZero();
+    }
+
+    @Test
+    void stopsAtTheTimeBudget() throws Exception {
+        ReflectionTestUtils.setField(warmup, "iterations", Integer.MAX_VALUE);
+        ReflectionTestUtils.setField(warmup, "timeBudget", Duration.ofMillis(200));
+
+        warmup.run(new DefaultApplicationArguments());
+
+        assertThat(iterations()).isPositive().isLessThan(Integer.MAX_VALUE);
+        assertThat(durationMillis()).isBetween(200.0, 5_000.0);
+    }
+
+    @Test
+    void doesNothingWhenDisabled() throws Exception {
+        ReflectionTestUtils.setField(warmup, "enabled", false);
+
+        warmup.run(new DefaultApplicationArguments());
+
+        assertThat(iterations()).isZero();
+        assertThat(durationMillis()).isZero();
+    }
+
+    private double iterations() {
+        return meterRegistry.get("warmup.iterations").gauge().value();
+    }
+
+    private double durationMillis() {
+        return meterRegistry.get("warmup.duration").timeGauge().value(TimeUnit.MILLISECONDS);
+    }
+
+    private static MappingMongoConverter converter() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}